@@ -0,0 +1,78 @@
+package br.gov.aposentadoria.benchmark;
+
+import br.gov.aposentadoria.model.CarreirasColunares;
+import br.gov.aposentadoria.model.ConvencaoTempo;
+import br.gov.aposentadoria.model.PeriodoServico;
+import br.gov.aposentadoria.model.PeriodoTempo;
+import br.gov.aposentadoria.model.TempoAgregado;
+import br.gov.aposentadoria.model.Usuario;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Agregação de tempos e as operações elementares sobre períodos
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class AgregacaoBenchmark {
+
+    @Param({"1", "10", "100", "1000"})
+    int quantidadePeriodos;
+
+    private Usuario usuario;
+    private List<PeriodoServico> periodos;
+    private PeriodoTempo[] tempos;
+    private CarreirasColunares carreiras;
+
+    @Setup
+    public void preparar() {
+        usuario = CarreiraSintetica.usuario();
+        periodos = CarreiraSintetica.periodos(usuario, quantidadePeriodos);
+        tempos = periodos.stream().map(PeriodoServico::calcularTempoComConversao).toArray(PeriodoTempo[]::new);
+        carreiras = CarreirasColunares.de(List.of(usuario), Map.of(usuario.id, periodos));
+    }
+
+    /**
+     * União dos períodos em todas as categorias de tempo
+     */
+    @Benchmark
+    public TempoAgregado agregarTempos() {
+        return TempoAgregado.calcular(usuario, periodos, ConvencaoTempo.LEGAL);
+    }
+
+    /**
+     * A mesma agregação a partir das carreiras em formato colunar
+     */
+    @Benchmark
+    public TempoAgregado agregarTemposColunares() {
+        return carreiras.agregar(0, ConvencaoTempo.LEGAL, null);
+    }
+
+    @Benchmark
+    public void calcularTempoComConversao(Blackhole blackhole) {
+        for (PeriodoServico periodo : periodos) {
+            blackhole.consume(periodo.calcularTempoComConversao());
+        }
+    }
+
+    @Benchmark
+    public PeriodoTempo somarPeriodosTempo() {
+        PeriodoTempo total = new PeriodoTempo(0, 0, 0);
+        for (PeriodoTempo tempo : tempos) {
+            total = total.somar(tempo);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,82 @@
+package br.gov.aposentadoria.benchmark;
+
+import br.gov.aposentadoria.model.PeriodoServico;
+import br.gov.aposentadoria.model.Simulacao;
+import br.gov.aposentadoria.model.Usuario;
+import br.gov.aposentadoria.service.MatrizElegibilidade;
+import br.gov.aposentadoria.service.MotorRegrasAposentadoria;
+import br.gov.aposentadoria.service.ResultadosSimulacao;
+import br.gov.aposentadoria.service.SimuladorService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Avaliação paralela de uma matriz de 1.000 usuários, todas as regras e 12
+ * datas de referência mensais, com pools de tamanhos diferentes. O cálculo
+ * não tem E/S nem estado compartilhado, então o tempo deve cair quase na
+ * proporção do número de threads até o número de núcleos disponíveis.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class AvaliacaoParalelaBenchmark {
+
+    private static final int USUARIOS = 1_000;
+    private static final int PERIODOS_POR_USUARIO = 20;
+    private static final int DATAS = 12;
+
+    @Param({"1", "2", "4", "8"})
+    int paralelismo;
+
+    private final SimuladorService simuladorService = new SimuladorService(new MotorRegrasAposentadoria(),
+            new ResultadosSimulacao(1000, Duration.ofHours(1)));
+    private final List<Simulacao.RegraAposentadoria> regras = Arrays.asList(Simulacao.RegraAposentadoria.values());
+    private final List<Usuario> usuarios = new ArrayList<>(USUARIOS);
+    private final Map<Long, List<PeriodoServico>> periodosPorUsuario = new HashMap<>();
+    private final List<LocalDate> datas = new ArrayList<>(DATAS);
+    private ForkJoinPool pool;
+
+    @Setup
+    public void preparar() {
+        for (int i = 0; i < USUARIOS; i++) {
+            Usuario usuario = CarreiraSintetica.usuario();
+            usuario.id = (long) i + 1;
+            usuario.sexo = i % 2 == 0 ? "M" : "F";
+            usuario.dataNascimento = usuario.dataNascimento.plusDays(i * 7L);
+            usuarios.add(usuario);
+            periodosPorUsuario.put(usuario.id, CarreiraSintetica.periodos(usuario, PERIODOS_POR_USUARIO));
+        }
+        for (int i = 0; i < DATAS; i++) {
+            datas.add(CarreiraSintetica.DATA_REFERENCIA.plusMonths(i));
+        }
+        pool = new ForkJoinPool(paralelismo);
+    }
+
+    @TearDown
+    public void encerrar() {
+        pool.shutdownNow();
+    }
+
+    @Benchmark
+    public MatrizElegibilidade avaliarMatriz() {
+        return pool.submit(() -> MatrizElegibilidade.calcular(
+                simuladorService, usuarios, periodosPorUsuario, regras, datas)).join();
+    }
+}
@@ -0,0 +1,67 @@
+package br.gov.aposentadoria.benchmark;
+
+import br.gov.aposentadoria.model.PeriodoServico;
+import br.gov.aposentadoria.model.Usuario;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Gera carreiras sintéticas e reprodutíveis para os benchmarks.
+ *
+ * Os períodos cobrem cerca de 35 anos a partir de 1990, com parte deles
+ * sobrepostos ao anterior e uma mistura de tipos de serviço, cargos e
+ * períodos convertidos, para exercitar todas as categorias de tempo.
+ */
+final class CarreiraSintetica {
+
+    static final LocalDate DATA_REFERENCIA = LocalDate.of(2025, 1, 1);
+
+    private static final LocalDate INICIO_CARREIRA = LocalDate.of(1990, 1, 1);
+    private static final int DIAS_CARREIRA = 35 * 365;
+    private static final String CARGO_ATUAL = "Analista";
+    private static final PeriodoServico.TipoServico[] TIPOS = PeriodoServico.TipoServico.values();
+
+    private CarreiraSintetica() {
+    }
+
+    static Usuario usuario() {
+        Usuario usuario = new Usuario();
+        usuario.id = 1L;
+        usuario.nome = "Servidor Sintético";
+        usuario.sexo = "M";
+        usuario.dataNascimento = LocalDate.of(1965, 5, 20);
+        usuario.dataIngressoServicoPublico = INICIO_CARREIRA;
+        usuario.cargoAtual = CARGO_ATUAL;
+        return usuario;
+    }
+
+    static List<PeriodoServico> periodos(Usuario usuario, int quantidade) {
+        Random random = new Random(quantidade);
+        int duracao = Math.max(1, DIAS_CARREIRA / quantidade);
+        List<PeriodoServico> periodos = new ArrayList<>(quantidade);
+
+        LocalDate inicio = INICIO_CARREIRA;
+        for (int i = 0; i < quantidade; i++) {
+            PeriodoServico periodo = new PeriodoServico();
+            periodo.id = (long) i + 1;
+            periodo.usuario = usuario;
+            periodo.dataInicio = inicio;
+            periodo.dataFim = inicio.plusDays(duracao - 1);
+            periodo.tipoServico = TIPOS[random.nextInt(TIPOS.length)];
+            periodo.orgaoEmpregador = "Órgão " + random.nextInt(20);
+            periodo.cargo = random.nextInt(3) == 0 ? CARGO_ATUAL : "Cargo " + i;
+            periodo.insalubridade = random.nextInt(5) == 0;
+            periodo.tempoConvertido = periodo.insalubridade && random.nextBoolean();
+            periodo.fatorConversao = periodo.tempoConvertido ? 1.4 : null;
+            periodo.concomitante = false;
+            periodos.add(periodo);
+
+            // Um em cada cinco períodos começa antes do fim do anterior
+            inicio = periodo.dataFim.plusDays(random.nextInt(5) == 0 ? -(duracao / 2) : 1);
+        }
+        return periodos;
+    }
+}
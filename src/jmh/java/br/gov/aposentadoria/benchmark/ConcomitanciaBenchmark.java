@@ -0,0 +1,59 @@
+package br.gov.aposentadoria.benchmark;
+
+import br.gov.aposentadoria.model.PeriodoServico;
+import br.gov.aposentadoria.model.Usuario;
+import br.gov.aposentadoria.repository.IndicePeriodos;
+import br.gov.aposentadoria.repository.PeriodoServicoRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verificação de concomitância pelo índice de intervalos em memória. A
+ * variante que consulta o banco depende de um PostgreSQL e não é medida aqui.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ConcomitanciaBenchmark {
+
+    @Param({"1", "10", "100", "1000"})
+    int quantidadePeriodos;
+
+    private final PeriodoServicoRepository periodoServicoRepository = new PeriodoServicoRepository();
+    private List<PeriodoServico> periodos;
+    private IndicePeriodos indice;
+    private PeriodoServico novoPeriodo;
+
+    @Setup
+    public void preparar() {
+        Usuario usuario = CarreiraSintetica.usuario();
+        periodos = CarreiraSintetica.periodos(usuario, quantidadePeriodos);
+        indice = IndicePeriodos.de(periodos);
+
+        // Período novo no meio da carreira
+        PeriodoServico meio = periodos.get(periodos.size() / 2);
+        novoPeriodo = new PeriodoServico();
+        novoPeriodo.usuario = usuario;
+        novoPeriodo.dataInicio = meio.dataInicio.plusDays(1);
+        novoPeriodo.dataFim = meio.dataInicio.plusDays(30);
+    }
+
+    @Benchmark
+    public boolean verificarConcomitancia() {
+        return periodoServicoRepository.verificarConcomitancia(novoPeriodo, indice);
+    }
+
+    @Benchmark
+    public IndicePeriodos construirIndice() {
+        return IndicePeriodos.de(periodos);
+    }
+}
@@ -0,0 +1,177 @@
+package br.gov.aposentadoria.benchmark;
+
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latência das consultas de períodos de serviço com 1.000.000 de períodos
+ * (100.000 usuários com 10 períodos cada), com e sem os índices da migração
+ * V2, contra um PostgreSQL local.
+ *
+ * O esquema é criado pelas migrações Flyway da aplicação e os dados são
+ * gerados uma única vez. A conexão é configurada pelas variáveis de ambiente
+ * BENCHMARK_JDBC_URL, BENCHMARK_JDBC_USUARIO e BENCHMARK_JDBC_SENHA. Por
+ * depender do banco, este benchmark não faz parte da execução padrão.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ConsultasPeriodosBenchmark {
+
+    private static final int USUARIOS = 100_000;
+    private static final int PERIODOS_POR_USUARIO = 10;
+    private static final int ORGAOS = 50;
+
+    private static final String[] INDICES = {
+        "idx_periodos_servico_usuario_inicio",
+        "idx_periodos_servico_usuario_id",
+        "idx_periodos_servico_orgao_usuario"
+    };
+
+    @Param({"com", "sem"})
+    String indices;
+
+    private Connection conexao;
+    private PreparedStatement verificarConcomitancia;
+    private PreparedStatement listarPagina;
+    private PreparedStatement carregarPeriodos;
+    private PreparedStatement usuariosDoOrgao;
+
+    @Setup(Level.Trial)
+    public void preparar() throws SQLException {
+        String url = variavel("BENCHMARK_JDBC_URL", "jdbc:postgresql://localhost:5432/simulador_benchmark");
+        String usuario = variavel("BENCHMARK_JDBC_USUARIO", "postgres");
+        String senha = variavel("BENCHMARK_JDBC_SENHA", "postgres");
+
+        Flyway.configure().dataSource(url, usuario, senha).load().migrate();
+        conexao = DriverManager.getConnection(url, usuario, senha);
+
+        try (Statement comando = conexao.createStatement()) {
+            if (contar(comando) < (long) USUARIOS * PERIODOS_POR_USUARIO) {
+                popular(comando);
+            }
+            if ("sem".equals(indices)) {
+                for (String indice : INDICES) {
+                    comando.execute("drop index if exists " + indice);
+                }
+            } else {
+                // Mesmo DDL da migração V2
+                comando.execute("create index if not exists idx_periodos_servico_usuario_inicio on periodos_servico (usuario_id, data_inicio, data_fim)");
+                comando.execute("create index if not exists idx_periodos_servico_usuario_id on periodos_servico (usuario_id, id)");
+                comando.execute("create index if not exists idx_periodos_servico_orgao_usuario on periodos_servico (orgao_empregador, usuario_id)");
+            }
+            comando.execute("analyze periodos_servico");
+        }
+
+        // Mesmos formatos das consultas emitidas pelo repositório e pelos resources
+        verificarConcomitancia = conexao.prepareStatement(
+                "select count(*) from periodos_servico where usuario_id = ? and id <> ? and data_inicio <= ? and data_fim >= ?");
+        listarPagina = conexao.prepareStatement(
+                "select id, usuario_id, data_inicio, data_fim, orgao_empregador, tipo_servico from periodos_servico"
+                        + " where usuario_id = ? and id > ? order by id limit 51");
+        carregarPeriodos = conexao.prepareStatement(
+                "select * from periodos_servico where usuario_id = ?");
+        usuariosDoOrgao = conexao.prepareStatement(
+                "select distinct usuario_id from periodos_servico where orgao_empregador = ? order by usuario_id");
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() throws SQLException {
+        conexao.close();
+    }
+
+    @Benchmark
+    public long verificarConcomitancia() throws SQLException {
+        LocalDate inicio = LocalDate.of(1990, 1, 1).plusDays(ThreadLocalRandom.current().nextInt(10_000));
+        verificarConcomitancia.setLong(1, usuarioAleatorio());
+        verificarConcomitancia.setLong(2, -1L);
+        verificarConcomitancia.setObject(3, inicio.plusDays(30));
+        verificarConcomitancia.setObject(4, inicio);
+        try (ResultSet resultado = verificarConcomitancia.executeQuery()) {
+            resultado.next();
+            return resultado.getLong(1);
+        }
+    }
+
+    @Benchmark
+    public int listarPaginaPorCursor() throws SQLException {
+        listarPagina.setLong(1, usuarioAleatorio());
+        listarPagina.setLong(2, Long.MIN_VALUE);
+        return consumir(listarPagina);
+    }
+
+    @Benchmark
+    public int carregarPeriodosDoUsuario() throws SQLException {
+        carregarPeriodos.setLong(1, usuarioAleatorio());
+        return consumir(carregarPeriodos);
+    }
+
+    @Benchmark
+    public int listarUsuariosDoOrgao() throws SQLException {
+        usuariosDoOrgao.setString(1, "Órgão " + ThreadLocalRandom.current().nextInt(ORGAOS));
+        return consumir(usuariosDoOrgao);
+    }
+
+    private static long usuarioAleatorio() {
+        return 1 + ThreadLocalRandom.current().nextInt(USUARIOS);
+    }
+
+    private static int consumir(PreparedStatement consulta) throws SQLException {
+        int linhas = 0;
+        try (ResultSet resultado = consulta.executeQuery()) {
+            while (resultado.next()) {
+                linhas++;
+            }
+        }
+        return linhas;
+    }
+
+    private static long contar(Statement comando) throws SQLException {
+        try (ResultSet resultado = comando.executeQuery("select count(*) from periodos_servico")) {
+            resultado.next();
+            return resultado.getLong(1);
+        }
+    }
+
+    private static void popular(Statement comando) throws SQLException {
+        comando.execute("truncate simulacoes, periodos_servico, usuarios");
+        comando.execute("insert into usuarios (id, nome, cpf, data_nascimento, email, senha, sexo, cargo_atual)"
+                + " select g, 'Servidor ' || g, lpad(g::text, 11, '0'), date '1960-01-01' + (g % 7000),"
+                + " 'servidor' || g || '@exemplo.gov.br', 'senha', case when g % 2 = 0 then 'M' else 'F' end, 'Analista'"
+                + " from generate_series(1, " + USUARIOS + ") g");
+        // Períodos de cerca de 3 anos; um em cada quatro se sobrepõe ao seguinte
+        comando.execute("insert into periodos_servico (id, usuario_id, data_inicio, data_fim, orgao_empregador,"
+                + " tipo_servico, cargo, tempo_convertido, insalubridade, concomitante)"
+                + " select (u - 1) * " + PERIODOS_POR_USUARIO + " + k, u,"
+                + " date '1985-01-01' + (k - 1) * 1200 + u % 97,"
+                + " date '1985-01-01' + k * 1200 + u % 97 - 1 + case when k % 4 = 0 then 200 else 0 end,"
+                + " 'Órgão ' || (u + k) % " + ORGAOS + ", 'ESTATUTARIO', 'Analista', false, false, k % 4 = 1"
+                + " from generate_series(1, " + USUARIOS + ") u, generate_series(1, " + PERIODOS_POR_USUARIO + ") k");
+        comando.execute("select setval('usuarios_SEQ', " + USUARIOS + ")");
+        comando.execute("select setval('periodos_servico_SEQ', " + (long) USUARIOS * PERIODOS_POR_USUARIO + ")");
+    }
+
+    private static String variavel(String nome, String padrao) {
+        String valor = System.getenv(nome);
+        return valor != null && !valor.isEmpty() ? valor : padrao;
+    }
+}
@@ -0,0 +1,115 @@
+package br.gov.aposentadoria.benchmark;
+
+import br.gov.aposentadoria.model.PeriodoTempo;
+import br.gov.aposentadoria.model.Simulacao;
+import br.gov.aposentadoria.model.TempoAgregado;
+import br.gov.aposentadoria.model.Usuario;
+import br.gov.aposentadoria.service.RegrasAposentadoria;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Avaliação das regras de aposentadoria compiladas a partir do arquivo de
+ * regras, comparada com as mesmas regras escritas diretamente em código
+ * (como estavam no SimuladorService antes da externalização).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RegrasBenchmark {
+
+    private static final int CASOS = 1024;
+    private static final Simulacao.RegraAposentadoria[] REGRAS = Simulacao.RegraAposentadoria.values();
+    private static final int CATEGORIAS = TempoAgregado.Categoria.values().length;
+
+    private final RegrasAposentadoria regras = RegrasAposentadoria.padrao();
+    private final Usuario[] usuarios = new Usuario[CASOS];
+    private final LocalDate[] datas = new LocalDate[CASOS];
+    private final int[][] anos = new int[CASOS][];
+    private final PeriodoTempo[] contribuicoes = new PeriodoTempo[CASOS];
+
+    @Setup
+    public void preparar() {
+        Random random = new Random(42);
+        for (int i = 0; i < CASOS; i++) {
+            usuarios[i] = new Usuario();
+            usuarios[i].sexo = random.nextBoolean() ? "M" : "F";
+            usuarios[i].dataNascimento = LocalDate.of(1955, 1, 1).plusDays(random.nextInt(20 * 365));
+            datas[i] = LocalDate.of(2020, 1, 1).plusDays(random.nextInt(15 * 365));
+            anos[i] = new int[CATEGORIAS];
+            for (int c = 0; c < CATEGORIAS; c++) {
+                anos[i][c] = 15 + random.nextInt(25);
+            }
+            contribuicoes[i] = new PeriodoTempo(anos[i][0], random.nextInt(12), random.nextInt(30));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CASOS * 6)
+    public int regrasCompiladas() {
+        int elegiveis = 0;
+        for (int i = 0; i < CASOS; i++) {
+            for (Simulacao.RegraAposentadoria regra : REGRAS) {
+                if (regras.elegivel(regra, usuarios[i], datas[i], anos[i], contribuicoes[i], true)) {
+                    elegiveis++;
+                }
+            }
+        }
+        return elegiveis;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CASOS * 6)
+    public int regrasEmCodigo() {
+        int elegiveis = 0;
+        for (int i = 0; i < CASOS; i++) {
+            for (Simulacao.RegraAposentadoria regra : REGRAS) {
+                if (emCodigo(regra, usuarios[i], datas[i], anos[i], contribuicoes[i])) {
+                    elegiveis++;
+                }
+            }
+        }
+        return elegiveis;
+    }
+
+    private static boolean emCodigo(Simulacao.RegraAposentadoria regra, Usuario usuario, LocalDate data,
+                                    int[] anos, PeriodoTempo contribuicao) {
+        int idade = Period.between(usuario.dataNascimento, data).getYears();
+        boolean homem = "M".equals(usuario.sexo);
+        int servicoPublico = anos[TempoAgregado.Categoria.SERVICO_PUBLICO.ordinal()];
+        int cargo = anos[TempoAgregado.Categoria.CARGO.ordinal()];
+        int ano = data.getYear();
+        switch (regra) {
+            case REGRA_PERMANENTE:
+                return idade >= (homem ? 65 : 62) && contribuicao.anos() >= 25 && servicoPublico >= 10 && cargo >= 5;
+            case REGRA_TRANSICAO_PEDÁGIO:
+                return idade >= (homem ? 60 : 57) && contribuicao.anos() >= (homem ? 35 : 30)
+                        && servicoPublico >= 20 && cargo >= 5;
+            case REGRA_TRANSICAO_PONTOS:
+                int pontos = RegrasAposentadoria.pontuacao(idade, contribuicao);
+                int idadeMinima = homem ? (ano >= 2022 ? 62 : 61) : (ano >= 2022 ? 57 : 56);
+                int pontosMinimos = homem ? Math.min(105, 96 + (ano - 2019)) : Math.min(100, 86 + (ano - 2019));
+                return idade >= idadeMinima && contribuicao.anos() >= (homem ? 35 : 30) && pontos >= pontosMinimos
+                        && servicoPublico >= 20 && cargo >= 5;
+            case REGRA_ESPECIAL_PROFESSOR:
+                return idade >= (homem ? 60 : 57) && anos[TempoAgregado.Categoria.MAGISTERIO.ordinal()] >= 25
+                        && servicoPublico >= 10 && cargo >= 5;
+            case REGRA_ESPECIAL_INSALUBRIDADE:
+                return idade >= 60 && anos[TempoAgregado.Categoria.INSALUBRE.ordinal()] >= 25
+                        && servicoPublico >= 10 && cargo >= 5;
+            default:
+                return false;
+        }
+    }
+}
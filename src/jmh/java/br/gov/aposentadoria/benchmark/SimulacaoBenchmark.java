@@ -0,0 +1,67 @@
+package br.gov.aposentadoria.benchmark;
+
+import br.gov.aposentadoria.model.PeriodoServico;
+import br.gov.aposentadoria.model.Simulacao;
+import br.gov.aposentadoria.model.TempoAgregado;
+import br.gov.aposentadoria.model.Usuario;
+import br.gov.aposentadoria.service.MotorRegrasAposentadoria;
+import br.gov.aposentadoria.service.ResultadosSimulacao;
+import br.gov.aposentadoria.service.SimuladorService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Simulação completa, sem persistência, para cada regra de aposentadoria
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SimulacaoBenchmark {
+
+    @Param({"1", "10", "100", "1000"})
+    int quantidadePeriodos;
+
+    @Param
+    Simulacao.RegraAposentadoria regra;
+
+    private final SimuladorService simuladorService = new SimuladorService(new MotorRegrasAposentadoria(),
+            new ResultadosSimulacao(1000, Duration.ofHours(1)));
+    private Usuario usuario;
+    private List<PeriodoServico> periodos;
+    private TempoAgregado tempos;
+
+    @Setup
+    public void preparar() {
+        usuario = CarreiraSintetica.usuario();
+        periodos = CarreiraSintetica.periodos(usuario, quantidadePeriodos);
+        tempos = simuladorService.agregarTempos(usuario, periodos);
+    }
+
+    /**
+     * Agregação dos períodos seguida do cálculo da simulação
+     */
+    @Benchmark
+    public Simulacao agregarESimular() {
+        return simuladorService.calcularSimulacao(usuario, simuladorService.agregarTempos(usuario, periodos),
+                regra, CarreiraSintetica.DATA_REFERENCIA, 10_000.0);
+    }
+
+    /**
+     * Cálculo da simulação com os tempos já agregados, como ocorre com o cache
+     */
+    @Benchmark
+    public Simulacao simularComTemposAgregados() {
+        return simuladorService.calcularSimulacao(usuario, tempos, regra,
+                CarreiraSintetica.DATA_REFERENCIA, 10_000.0);
+    }
+}
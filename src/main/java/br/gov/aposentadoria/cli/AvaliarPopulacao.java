@@ -0,0 +1,149 @@
+package br.gov.aposentadoria.cli;
+
+import br.gov.aposentadoria.model.ArquivoCarreiras;
+import br.gov.aposentadoria.model.CarreirasColunares;
+import br.gov.aposentadoria.model.ConvencaoTempo;
+import br.gov.aposentadoria.model.Simulacao;
+import br.gov.aposentadoria.service.AvaliacaoPopulacao;
+import br.gov.aposentadoria.service.RegrasAposentadoria;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Avaliação de toda a população a partir de um arquivo de carreiras
+ * ({@link ArquivoCarreiras}), sem acessar o banco nem o servidor.
+ *
+ * Com {@code --baixar}, o arquivo é antes exportado pela aplicação em
+ * execução. Em seguida, para cada arquivo de regras informado (ou para as
+ * regras distribuídas com a aplicação), informa quantos usuários são elegíveis
+ * em cada regra e data. O arquivo é mapeado uma única vez e fica no cache de
+ * páginas do sistema operacional entre execuções. Uso, a partir do diretório
+ * do projeto:
+ *
+ * <pre>
+ * java -cp "target/quarkus-app/app/*:target/quarkus-app/lib/main/*" \
+ *     br.gov.aposentadoria.cli.AvaliarPopulacao carreiras.bin \
+ *     [--baixar http://localhost:8080] [--regras cenario-a.json,cenario-b.json] \
+ *     [--datas 2027-01-01,2028-01-01] [--convencao LEGAL] [--paralelismo 8]
+ * </pre>
+ */
+public final class AvaliarPopulacao {
+
+    private static final String CAMINHO = "/api/simulador/avaliacoes/carreiras";
+
+    private AvaliarPopulacao() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path arquivo = null;
+        String url = null;
+        List<Path> arquivosRegras = new ArrayList<>();
+        List<LocalDate> datas = new ArrayList<>();
+        ConvencaoTempo convencao = ConvencaoTempo.LEGAL;
+        int paralelismo = Runtime.getRuntime().availableProcessors();
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--baixar" -> url = args[++i];
+                case "--regras" -> Arrays.stream(args[++i].split(",")).map(Path::of).forEach(arquivosRegras::add);
+                case "--datas" -> Arrays.stream(args[++i].split(",")).map(LocalDate::parse).forEach(datas::add);
+                case "--convencao" -> convencao = ConvencaoTempo.valueOf(args[++i]);
+                case "--paralelismo" -> paralelismo = Integer.parseInt(args[++i]);
+                default -> arquivo = Path.of(args[i]);
+            }
+        }
+        if (arquivo == null || (url == null && !Files.isReadable(arquivo))) {
+            System.err.println("Uso: AvaliarPopulacao <carreiras.bin> [--baixar URL] [--regras ARQUIVO,...]"
+                    + " [--datas AAAA-MM-DD,...] [--convencao LEGAL|CALENDARIO] [--paralelismo N]");
+            System.exit(2);
+        }
+        if (datas.isEmpty()) {
+            int ano = LocalDate.now().getYear();
+            for (int i = 1; i <= 10; i++) {
+                datas.add(LocalDate.of(ano + i, 1, 1));
+            }
+        }
+
+        if (url != null) {
+            baixar(url, arquivo);
+        }
+
+        long inicio = System.nanoTime();
+        CarreirasColunares carreiras = ArquivoCarreiras.abrir(arquivo);
+        System.out.printf("%d usuários e %d períodos mapeados de %s em %d ms%n", carreiras.quantidadeUsuarios(),
+                carreiras.quantidadePeriodos(), arquivo, (System.nanoTime() - inicio) / 1_000_000);
+
+        List<RegrasAposentadoria> cenarios = new ArrayList<>();
+        if (arquivosRegras.isEmpty()) {
+            cenarios.add(RegrasAposentadoria.padrao());
+        }
+        for (Path arquivoRegras : arquivosRegras) {
+            try (InputStream entrada = Files.newInputStream(arquivoRegras)) {
+                cenarios.add(RegrasAposentadoria.ler(entrada));
+            }
+        }
+
+        List<Simulacao.RegraAposentadoria> regras = Arrays.asList(Simulacao.RegraAposentadoria.values());
+        ForkJoinPool pool = new ForkJoinPool(paralelismo);
+        try {
+            for (RegrasAposentadoria cenario : cenarios) {
+                long inicioCenario = System.nanoTime();
+                ConvencaoTempo convencaoCenario = convencao;
+                AvaliacaoPopulacao avaliacao = pool.submit(() -> AvaliacaoPopulacao.avaliar(
+                        carreiras, cenario, convencaoCenario, regras, datas)).join();
+                long milissegundos = Math.max(1, (System.nanoTime() - inicioCenario) / 1_000_000);
+                System.out.printf(Locale.ROOT, "%nRegras versão %s: %d usuários em %d ms (%.0f usuários/s)%n",
+                        avaliacao.getVersaoRegras(), avaliacao.quantidadeUsuarios(), milissegundos,
+                        avaliacao.quantidadeUsuarios() * 1000.0 / milissegundos);
+                imprimir(avaliacao);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        System.exit(0);
+    }
+
+    private static void baixar(String url, Path arquivo) throws Exception {
+        HttpClient cliente = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        Path temporario = arquivo.resolveSibling(arquivo.getFileName() + ".download");
+        HttpResponse<Path> resposta = cliente.send(HttpRequest.newBuilder(URI.create(url + CAMINHO)).GET().build(),
+                HttpResponse.BodyHandlers.ofFile(temporario));
+        if (resposta.statusCode() != 200) {
+            Files.deleteIfExists(temporario);
+            System.err.println("Falha ao exportar as carreiras: HTTP " + resposta.statusCode());
+            System.exit(1);
+        }
+        Files.move(temporario, arquivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void imprimir(AvaliacaoPopulacao avaliacao) {
+        StringBuilder cabecalho = new StringBuilder(String.format("%-40s", "regra"));
+        for (LocalDate data : avaliacao.getDatas()) {
+            cabecalho.append(String.format("%12s", data));
+        }
+        System.out.println(cabecalho);
+        for (int r = 0; r < avaliacao.getRegras().size(); r++) {
+            StringBuilder linha = new StringBuilder(String.format("%-40s", avaliacao.getRegras().get(r)));
+            for (int d = 0; d < avaliacao.getDatas().size(); d++) {
+                linha.append(String.format("%12d", avaliacao.elegiveis(r, d)));
+            }
+            System.out.println(linha);
+        }
+    }
+}
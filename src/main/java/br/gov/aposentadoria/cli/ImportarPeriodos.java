@@ -0,0 +1,135 @@
+package br.gov.aposentadoria.cli;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Cliente de linha de comando da importação de períodos de serviço.
+ *
+ * Cria a importação, envia o arquivo e, se o servidor falhar ou a conexão
+ * cair, reenvia o mesmo arquivo para a mesma importação, que é retomada a
+ * partir do último bloco gravado. Uso, a partir do diretório do projeto:
+ *
+ * <pre>
+ * java -cp "target/quarkus-app/app/*:target/quarkus-app/lib/main/*" \
+ *     br.gov.aposentadoria.cli.ImportarPeriodos historico.csv \
+ *     [--url http://localhost:8080] [--importacao ID] [--tentativas 5]
+ * </pre>
+ */
+public final class ImportarPeriodos {
+
+    private static final String CAMINHO = "/api/periodos-servico/importacoes";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient cliente = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    private ImportarPeriodos() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path arquivo = null;
+        String url = "http://localhost:8080";
+        Long importacaoId = null;
+        int tentativas = 5;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--url" -> url = args[++i];
+                case "--importacao" -> importacaoId = Long.valueOf(args[++i]);
+                case "--tentativas" -> tentativas = Integer.parseInt(args[++i]);
+                default -> arquivo = Path.of(args[i]);
+            }
+        }
+        if (arquivo == null || !Files.isReadable(arquivo)) {
+            System.err.println("Uso: ImportarPeriodos <arquivo.csv|arquivo.ndjson> [--url URL] [--importacao ID] [--tentativas N]");
+            System.exit(2);
+        }
+
+        System.exit(new ImportarPeriodos().executar(arquivo, url, importacaoId, tentativas));
+    }
+
+    private int executar(Path arquivo, String url, Long importacaoId, int tentativas)
+            throws IOException, InterruptedException {
+        String nome = arquivo.getFileName().toString().toLowerCase(Locale.ROOT);
+        boolean ndjson = nome.endsWith(".ndjson") || nome.endsWith(".jsonl");
+        String tipo = ndjson ? "application/x-ndjson" : "text/csv";
+
+        if (importacaoId == null) {
+            HttpResponse<String> criacao = cliente.send(HttpRequest.newBuilder(URI.create(url + CAMINHO))
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString("{\"formato\":\"" + (ndjson ? "NDJSON" : "CSV") + "\"}"))
+                            .build(),
+                    HttpResponse.BodyHandlers.ofString());
+            if (criacao.statusCode() != 201) {
+                System.err.println("Falha ao criar a importação: " + criacao.statusCode() + " " + criacao.body());
+                return 1;
+            }
+            importacaoId = objectMapper.readTree(criacao.body()).get("id").asLong();
+        }
+        System.out.println("Importação " + importacaoId + ": enviando " + arquivo);
+
+        URI destino = URI.create(url + CAMINHO + "/" + importacaoId + "/registros");
+        for (int tentativa = 1; tentativa <= tentativas; tentativa++) {
+            HttpResponse<String> resposta;
+            try {
+                resposta = cliente.send(HttpRequest.newBuilder(destino)
+                                .header("Content-Type", tipo)
+                                .POST(HttpRequest.BodyPublishers.ofFile(arquivo))
+                                .build(),
+                        HttpResponse.BodyHandlers.ofString());
+            } catch (IOException e) {
+                System.err.println("Tentativa " + tentativa + " falhou: " + e.getMessage());
+                aguardar(tentativa);
+                continue;
+            }
+
+            int status = resposta.statusCode();
+            if (status == 200) {
+                imprimir(objectMapper.readTree(resposta.body()));
+                return 0;
+            }
+            if (status >= 500) {
+                System.err.println("Tentativa " + tentativa + " falhou: " + resposta.body());
+                aguardar(tentativa);
+                continue;
+            }
+            System.err.println("Importação recusada: " + status + " " + resposta.body());
+            return 1;
+        }
+
+        System.err.println("Importação " + importacaoId + " não concluída após " + tentativas
+                + " tentativas; execute novamente com --importacao " + importacaoId);
+        return 1;
+    }
+
+    private void imprimir(JsonNode resultado) {
+        System.out.printf(Locale.ROOT, "Importação %d concluída: %d linhas, %d gravadas, %d rejeitadas, %.1f linhas/s%n",
+                resultado.get("importacaoId").asLong(),
+                resultado.get("linhasProcessadas").asLong(),
+                resultado.get("linhasGravadas").asLong(),
+                resultado.get("linhasRejeitadas").asLong(),
+                resultado.get("linhasPorSegundo").asDouble());
+        for (JsonNode rejeicao : resultado.get("rejeicoes")) {
+            System.out.println("  linha " + rejeicao.get("linha").asLong() + ": " + rejeicao.get("motivo").asText());
+        }
+        if (resultado.get("rejeicoesTruncadas").asBoolean()) {
+            System.out.println("  (demais rejeições omitidas)");
+        }
+    }
+
+    private static void aguardar(int tentativa) throws InterruptedException {
+        Thread.sleep(Math.min(30_000L, 1_000L << tentativa));
+    }
+}
@@ -0,0 +1,178 @@
+package br.gov.aposentadoria.cli;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Teste de carga que compara os endpoints bloqueantes com o caminho
+ * alternativo em threads virtuais ({@code /api/reativo/...}) no mesmo
+ * servidor.
+ *
+ * Para cada nível de concorrência, mantém esse número de clientes enviando
+ * requisições sem pausa durante o tempo informado, primeiro no caminho
+ * bloqueante e depois no reativo, e informa vazão, erros e latências p50, p95
+ * e p99. A concorrência máxima de cada caminho é o maior nível com menos de
+ * 1% de erros e p99 dentro do limite ({@code --p99-maximo}). Uso, a partir do
+ * diretório do projeto, com a aplicação em execução:
+ *
+ * <pre>
+ * java -cp "target/quarkus-app/app/*:target/quarkus-app/lib/main/*" \
+ *     br.gov.aposentadoria.cli.TesteCarga --usuarios 1-1000 \
+ *     [--url http://localhost:8080] [--endpoint previsao|simulacoes|periodos] \
+ *     [--concorrencia 16,64,256,1024] [--duracao 30] [--p99-maximo 500]
+ * </pre>
+ */
+public final class TesteCarga {
+
+    private static final Duration TEMPO_LIMITE = Duration.ofSeconds(30);
+
+    private final HttpClient cliente = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+
+    private TesteCarga() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String url = "http://localhost:8080";
+        String endpoint = "previsao";
+        long primeiroUsuario = 1;
+        long ultimoUsuario = 1;
+        int[] concorrencias = {16, 64, 256, 1024};
+        int duracao = 30;
+        long p99Maximo = 500;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--url" -> url = args[++i];
+                case "--endpoint" -> endpoint = args[++i];
+                case "--usuarios" -> {
+                    String[] faixa = args[++i].split("-");
+                    primeiroUsuario = Long.parseLong(faixa[0]);
+                    ultimoUsuario = Long.parseLong(faixa[faixa.length - 1]);
+                }
+                case "--concorrencia" -> concorrencias = Arrays.stream(args[++i].split(","))
+                        .mapToInt(Integer::parseInt)
+                        .toArray();
+                case "--duracao" -> duracao = Integer.parseInt(args[++i]);
+                case "--p99-maximo" -> p99Maximo = Long.parseLong(args[++i]);
+                default -> {
+                    System.err.println("Opção desconhecida: " + args[i]);
+                    System.exit(2);
+                }
+            }
+        }
+        String caminho = switch (endpoint) {
+            case "previsao" -> "/api/%ssimulador/usuario/%d/previsao";
+            case "simulacoes" -> "/api/%ssimulador/usuario/%d/simulacoes?limite=20";
+            case "periodos" -> "/api/%speriodos-servico/usuario/%d?limite=20";
+            default -> null;
+        };
+        if (caminho == null || primeiroUsuario > ultimoUsuario) {
+            System.err.println("Uso: TesteCarga --usuarios PRIMEIRO-ULTIMO [--url URL] [--endpoint previsao|simulacoes|periodos]"
+                    + " [--concorrencia 16,64,...] [--duracao SEGUNDOS] [--p99-maximo MS]");
+            System.exit(2);
+        }
+
+        TesteCarga teste = new TesteCarga();
+        System.out.printf("%-10s %12s %10s %8s %9s %9s %9s%n",
+                "caminho", "concorrencia", "req/s", "erros", "p50(ms)", "p95(ms)", "p99(ms)");
+        for (String prefixo : List.of("", "reativo/")) {
+            String nome = prefixo.isEmpty() ? "bloqueante" : "virtual";
+            int concorrenciaMaxima = 0;
+            for (int concorrencia : concorrencias) {
+                Resultado resultado = teste.executar(url + caminho, prefixo, primeiroUsuario, ultimoUsuario,
+                        concorrencia, Duration.ofSeconds(duracao));
+                System.out.printf(Locale.ROOT, "%-10s %12d %10.1f %7.2f%% %9.1f %9.1f %9.1f%n",
+                        nome, concorrencia, resultado.vazao(), resultado.percentualErros(),
+                        resultado.percentil(0.50), resultado.percentil(0.95), resultado.percentil(0.99));
+                if (resultado.percentualErros() < 1 && resultado.percentil(0.99) <= p99Maximo) {
+                    concorrenciaMaxima = concorrencia;
+                }
+            }
+            System.out.printf("%s: concorrência máxima com p99 <= %d ms e menos de 1%% de erros: %d%n",
+                    nome, p99Maximo, concorrenciaMaxima);
+        }
+        System.exit(0);
+    }
+
+    private Resultado executar(String modelo, String prefixo, long primeiroUsuario, long ultimoUsuario,
+                               int concorrencia, Duration duracao) {
+        long fim = System.nanoTime() + duracao.toNanos();
+        AtomicLong erros = new AtomicLong();
+        List<long[]> latenciasPorCliente = new ArrayList<>(concorrencia);
+
+        try (ExecutorService clientes = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < concorrencia; c++) {
+                long[][] latencias = {new long[1024]};
+                int[] total = {0};
+                clientes.submit(() -> {
+                    while (System.nanoTime() < fim) {
+                        long usuario = ThreadLocalRandom.current().nextLong(primeiroUsuario, ultimoUsuario + 1);
+                        HttpRequest requisicao = HttpRequest.newBuilder(URI.create(String.format(modelo, prefixo, usuario)))
+                                .timeout(TEMPO_LIMITE)
+                                .GET()
+                                .build();
+                        long inicio = System.nanoTime();
+                        try {
+                            int status = cliente.send(requisicao, HttpResponse.BodyHandlers.discarding()).statusCode();
+                            if (status >= 500) {
+                                erros.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            erros.incrementAndGet();
+                        }
+                        if (total[0] == latencias[0].length) {
+                            latencias[0] = Arrays.copyOf(latencias[0], total[0] * 2);
+                        }
+                        latencias[0][total[0]++] = System.nanoTime() - inicio;
+                    }
+                    synchronized (latenciasPorCliente) {
+                        latenciasPorCliente.add(Arrays.copyOf(latencias[0], total[0]));
+                    }
+                });
+            }
+        }
+
+        int total = latenciasPorCliente.stream().mapToInt(l -> l.length).sum();
+        long[] todas = new long[total];
+        int posicao = 0;
+        for (long[] latencias : latenciasPorCliente) {
+            System.arraycopy(latencias, 0, todas, posicao, latencias.length);
+            posicao += latencias.length;
+        }
+        Arrays.sort(todas);
+        return new Resultado(todas, erros.get(), duracao);
+    }
+
+    private record Resultado(long[] latencias, long erros, Duration duracao) {
+
+        double vazao() {
+            return latencias.length / (duracao.toMillis() / 1000.0);
+        }
+
+        double percentualErros() {
+            return latencias.length == 0 ? 100 : erros * 100.0 / latencias.length;
+        }
+
+        double percentil(double p) {
+            if (latencias.length == 0) {
+                return Double.NaN;
+            }
+            int indice = (int) Math.ceil(p * latencias.length) - 1;
+            return latencias[Math.max(0, indice)] / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,397 @@
+package br.gov.aposentadoria.model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Arquivo binário com as carreiras de toda a população, para avaliações
+ * repetidas fora do banco.
+ *
+ * O arquivo guarda as colunas de {@link CarreirasColunares} como estão na
+ * memória, em little-endian e alinhadas a 8 bytes:
+ *
+ * <pre>
+ * cabeçalho (64 bytes): "CARR", versão, usuários, períodos, cargos, órgãos
+ * por usuário: id (long), nascimento, cargo atual, primeiro período (int,
+ *              um a mais que o número de usuários), sexo (byte)
+ * por período: início, fim, cargo, órgão (int), fator (float), tipo,
+ *              insalubridade (byte)
+ * dicionários de cargos e de órgãos: tamanho (int) e texto em UTF-8 de cada valor
+ * </pre>
+ *
+ * Os ids em ordem crescente e os deslocamentos do primeiro período de cada
+ * usuário formam o índice por id. Ao abrir, cada coluna é mapeada com
+ * {@link FileChannel#map} e lida diretamente das páginas do arquivo, sem
+ * cópia para o heap; apenas os dicionários são decodificados.
+ */
+public final class ArquivoCarreiras {
+
+    private static final int ASSINATURA = 0x52524143; // "CARR" em little-endian
+    private static final int VERSAO = 2;
+    private static final int TAMANHO_CABECALHO = 64;
+
+    private static final int USUARIO_IDS = 0;
+    private static final int NASCIMENTOS = 1;
+    private static final int CARGOS_ATUAIS = 2;
+    private static final int PRIMEIRO_PERIODO = 3;
+    private static final int SEXOS = 4;
+    private static final int INICIOS = 5;
+    private static final int FINS = 6;
+    private static final int CARGOS_PERIODO = 7;
+    private static final int ORGAOS_PERIODO = 8;
+    private static final int FATORES = 9;
+    private static final int TIPOS = 10;
+    private static final int INSALUBRES = 11;
+    private static final int COLUNAS = 12;
+
+    /**
+     * Bytes por elemento de cada coluna
+     */
+    private static final int[] TAMANHOS = {8, 4, 4, 4, 1, 4, 4, 4, 4, 4, 1, 1};
+
+    private ArquivoCarreiras() {
+    }
+
+    /**
+     * Grava as carreiras em um arquivo temporário e o move para o destino, de
+     * modo que leitores nunca vejam um arquivo incompleto
+     */
+    public static void gravar(CarreirasColunares carreiras, Path arquivo) throws IOException {
+        try (Gravador gravador = new Gravador(arquivo)) {
+            gravador.adicionar(carreiras);
+            gravador.concluir();
+        }
+    }
+
+    /**
+     * Mapeia o arquivo em memória. O arquivo pode ser substituído por uma nova
+     * exportação enquanto estiver aberto: a instância continua lendo a versão
+     * mapeada.
+     *
+     * @throws IOException se o arquivo não for um arquivo de carreiras válido
+     */
+    public static CarreirasColunares abrir(Path arquivo) throws IOException {
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            long tamanho = canal.size();
+            if (tamanho < TAMANHO_CABECALHO) {
+                throw new IOException("Arquivo de carreiras inválido: " + arquivo);
+            }
+            ByteBuffer cabecalho = canal.map(FileChannel.MapMode.READ_ONLY, 0, TAMANHO_CABECALHO)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            if (cabecalho.getInt(0) != ASSINATURA) {
+                throw new IOException("Arquivo de carreiras inválido: " + arquivo);
+            }
+            if (cabecalho.getInt(4) != VERSAO) {
+                throw new IOException("Versão do arquivo de carreiras não suportada: " + cabecalho.getInt(4));
+            }
+            int usuarios = cabecalho.getInt(8);
+            int periodos = cabecalho.getInt(12);
+            int quantidadeCargos = cabecalho.getInt(16);
+            int quantidadeOrgaos = cabecalho.getInt(20);
+            long[] posicoes = posicoes(usuarios, periodos);
+            if (usuarios < 0 || periodos < 0 || tamanho < posicoes[COLUNAS]) {
+                throw new IOException("Arquivo de carreiras truncado: " + arquivo);
+            }
+
+            ByteBuffer dicionario = canal.map(FileChannel.MapMode.READ_ONLY, posicoes[COLUNAS], tamanho - posicoes[COLUNAS])
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            String[] cargos = lerDicionario(dicionario, quantidadeCargos);
+            String[] orgaos = lerDicionario(dicionario, quantidadeOrgaos);
+
+            CarreirasColunares carreiras = new CarreirasColunares(cargos, orgaos,
+                    mapear(canal, posicoes, USUARIO_IDS, usuarios).asLongBuffer(),
+                    mapear(canal, posicoes, SEXOS, usuarios),
+                    mapear(canal, posicoes, NASCIMENTOS, usuarios).asIntBuffer(),
+                    mapear(canal, posicoes, CARGOS_ATUAIS, usuarios).asIntBuffer(),
+                    mapear(canal, posicoes, PRIMEIRO_PERIODO, usuarios + 1).asIntBuffer(),
+                    mapear(canal, posicoes, INICIOS, periodos).asIntBuffer(),
+                    mapear(canal, posicoes, FINS, periodos).asIntBuffer(),
+                    mapear(canal, posicoes, TIPOS, periodos),
+                    mapear(canal, posicoes, CARGOS_PERIODO, periodos).asIntBuffer(),
+                    mapear(canal, posicoes, ORGAOS_PERIODO, periodos).asIntBuffer(),
+                    mapear(canal, posicoes, FATORES, periodos).asFloatBuffer(),
+                    mapear(canal, posicoes, INSALUBRES, periodos));
+            if (carreiras.primeiroPeriodo.get(usuarios) != periodos) {
+                throw new IOException("Índice de usuários inconsistente: " + arquivo);
+            }
+            return carreiras;
+        }
+    }
+
+    private static String[] lerDicionario(ByteBuffer dicionario, int quantidade) {
+        String[] valores = new String[quantidade];
+        for (int i = 0; i < quantidade; i++) {
+            byte[] texto = new byte[dicionario.getInt()];
+            dicionario.get(texto);
+            valores[i] = new String(texto, StandardCharsets.UTF_8);
+        }
+        return valores;
+    }
+
+    /**
+     * As colunas são mapeadas separadamente porque cada mapeamento é limitado
+     * a 2 GiB
+     */
+    private static ByteBuffer mapear(FileChannel canal, long[] posicoes, int coluna, int elementos) throws IOException {
+        return canal.map(FileChannel.MapMode.READ_ONLY, posicoes[coluna], (long) TAMANHOS[coluna] * elementos)
+                .order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Posição de cada coluna no arquivo; a última é a do dicionário de cargos
+     */
+    private static long[] posicoes(int usuarios, int periodos) {
+        long[] posicoes = new long[COLUNAS + 1];
+        long posicao = TAMANHO_CABECALHO;
+        for (int coluna = 0; coluna < COLUNAS; coluna++) {
+            long elementos = coluna == PRIMEIRO_PERIODO ? usuarios + 1L : coluna <= SEXOS ? usuarios : periodos;
+            posicoes[coluna] = posicao;
+            posicao = (posicao + TAMANHOS[coluna] * elementos + 7) & ~7L;
+        }
+        posicoes[COLUNAS] = posicao;
+        return posicoes;
+    }
+
+    /**
+     * Gravação do arquivo a partir de blocos de carreiras em ordem crescente
+     * de id, sem manter toda a população em memória.
+     *
+     * Cada coluna é escrita em um arquivo próprio, em um diretório temporário
+     * ao lado do destino, e os cargos e órgãos de cada bloco são recodificados
+     * em dicionários únicos. Ao concluir, cabeçalho, colunas e dicionários são
+     * concatenados em um arquivo temporário, que é então movido para o
+     * destino. Fechar o gravador remove os arquivos das colunas.
+     */
+    public static final class Gravador implements Closeable {
+
+        /**
+         * Buffer de cada coluna; todas ficam abertas ao mesmo tempo
+         */
+        private static final int TAMANHO_BUFFER_COLUNA = 64 << 10;
+
+        private final Path arquivo;
+        private final Path diretorio;
+        private final FileChannel[] canais = new FileChannel[COLUNAS];
+        private final Saida[] colunas = new Saida[COLUNAS];
+
+        private final Map<String, Integer> idsCargos = new HashMap<>();
+        private final List<String> cargos = new ArrayList<>();
+        private final Map<String, Integer> idsOrgaos = new HashMap<>();
+        private final List<String> orgaos = new ArrayList<>();
+
+        private int usuarios;
+        private int periodos;
+        private long ultimoUsuarioId = Long.MIN_VALUE;
+
+        public Gravador(Path arquivo) throws IOException {
+            this.arquivo = arquivo.toAbsolutePath();
+            this.diretorio = Files.createTempDirectory(this.arquivo.getParent(), this.arquivo.getFileName() + ".colunas");
+            try {
+                for (int coluna = 0; coluna < COLUNAS; coluna++) {
+                    canais[coluna] = FileChannel.open(diretorio.resolve(coluna + ".col"), StandardOpenOption.CREATE_NEW,
+                            StandardOpenOption.READ, StandardOpenOption.WRITE);
+                    colunas[coluna] = new Saida(canais[coluna], TAMANHO_BUFFER_COLUNA);
+                }
+            } catch (IOException e) {
+                close();
+                throw e;
+            }
+        }
+
+        /**
+         * Acrescenta os usuários do bloco, cujos ids devem ser maiores que os
+         * dos blocos anteriores
+         */
+        public void adicionar(CarreirasColunares bloco) throws IOException {
+            int usuariosBloco = bloco.quantidadeUsuarios();
+            int periodosBloco = bloco.quantidadePeriodos();
+            if (usuariosBloco > 0 && bloco.usuarioId(0) <= ultimoUsuarioId) {
+                throw new IllegalArgumentException("Blocos devem ser adicionados em ordem crescente de id: " + bloco.usuarioId(0));
+            }
+            int[] cargosBloco = recodificar(bloco.cargos, idsCargos, cargos);
+            int[] orgaosBloco = recodificar(bloco.orgaos, idsOrgaos, orgaos);
+
+            for (int i = 0; i < usuariosBloco; i++) {
+                colunas[USUARIO_IDS].putLong(bloco.usuarioIds.get(i));
+                colunas[NASCIMENTOS].putInt(bloco.nascimentos.get(i));
+                colunas[CARGOS_ATUAIS].putInt(codigo(cargosBloco, bloco.cargosAtuais.get(i)));
+                colunas[PRIMEIRO_PERIODO].putInt(periodos + bloco.primeiroPeriodo.get(i));
+                colunas[SEXOS].put(bloco.sexos.get(i));
+            }
+            for (int i = 0; i < periodosBloco; i++) {
+                colunas[INICIOS].putInt(bloco.inicios.get(i));
+                colunas[FINS].putInt(bloco.fins.get(i));
+                colunas[CARGOS_PERIODO].putInt(codigo(cargosBloco, bloco.cargosPeriodo.get(i)));
+                colunas[ORGAOS_PERIODO].putInt(codigo(orgaosBloco, bloco.orgaosPeriodo.get(i)));
+                colunas[FATORES].putFloat(bloco.fatores.get(i));
+                colunas[TIPOS].put(bloco.tipos.get(i));
+                colunas[INSALUBRES].put(bloco.insalubres.get(i));
+            }
+
+            usuarios += usuariosBloco;
+            periodos = Math.addExact(periodos, periodosBloco);
+            if (usuariosBloco > 0) {
+                ultimoUsuarioId = bloco.usuarioId(usuariosBloco - 1);
+            }
+        }
+
+        /**
+         * Monta o arquivo a partir das colunas gravadas e o move para o destino
+         */
+        public void concluir() throws IOException {
+            colunas[PRIMEIRO_PERIODO].putInt(periodos);
+            for (Saida coluna : colunas) {
+                coluna.descarregar();
+            }
+
+            long[] posicoes = posicoes(usuarios, periodos);
+            try (FileChannel canal = FileChannel.open(temporario(), StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                Saida saida = new Saida(canal);
+                saida.putInt(ASSINATURA);
+                saida.putInt(VERSAO);
+                saida.putInt(usuarios);
+                saida.putInt(periodos);
+                saida.putInt(cargos.size());
+                saida.putInt(orgaos.size());
+                for (int coluna = 0; coluna < COLUNAS; coluna++) {
+                    saida.avancarAte(posicoes[coluna]);
+                    saida.copiar(canais[coluna]);
+                }
+                saida.avancarAte(posicoes[COLUNAS]);
+                gravarDicionario(saida, cargos);
+                gravarDicionario(saida, orgaos);
+                saida.descarregar();
+                canal.force(false);
+            }
+            Files.move(temporario(), arquivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        @Override
+        public void close() throws IOException {
+            for (int coluna = 0; coluna < COLUNAS; coluna++) {
+                if (canais[coluna] != null) {
+                    canais[coluna].close();
+                    Files.deleteIfExists(diretorio.resolve(coluna + ".col"));
+                }
+            }
+            Files.deleteIfExists(diretorio);
+            // Só resta se a conclusão falhou
+            Files.deleteIfExists(temporario());
+        }
+
+        private Path temporario() {
+            return arquivo.resolveSibling(arquivo.getFileName() + ".tmp");
+        }
+
+        private static int[] recodificar(String[] valores, Map<String, Integer> ids, List<String> todos) {
+            int[] codigos = new int[valores.length];
+            for (int i = 0; i < valores.length; i++) {
+                codigos[i] = ids.computeIfAbsent(valores[i], v -> {
+                    todos.add(v);
+                    return todos.size() - 1;
+                });
+            }
+            return codigos;
+        }
+
+        private static int codigo(int[] codigos, int codigoBloco) {
+            return codigoBloco >= 0 ? codigos[codigoBloco] : -1;
+        }
+
+        private static void gravarDicionario(Saida saida, List<String> valores) throws IOException {
+            for (String valor : valores) {
+                byte[] texto = valor.getBytes(StandardCharsets.UTF_8);
+                saida.putInt(texto.length);
+                for (byte b : texto) {
+                    saida.put(b);
+                }
+            }
+        }
+    }
+
+    /**
+     * Escrita sequencial em little-endian, em blocos (1 MiB por padrão)
+     */
+    private static final class Saida {
+
+        private final WritableByteChannel canal;
+        private final ByteBuffer buffer;
+        private long posicao;
+
+        Saida(WritableByteChannel canal) {
+            this(canal, 1 << 20);
+        }
+
+        Saida(WritableByteChannel canal, int tamanhoBuffer) {
+            this.canal = canal;
+            this.buffer = ByteBuffer.allocateDirect(tamanhoBuffer).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        void put(byte valor) throws IOException {
+            reservar(1).put(valor);
+        }
+
+        void putInt(int valor) throws IOException {
+            reservar(4).putInt(valor);
+        }
+
+        void putLong(long valor) throws IOException {
+            reservar(8).putLong(valor);
+        }
+
+        void putFloat(float valor) throws IOException {
+            reservar(4).putFloat(valor);
+        }
+
+        /**
+         * Completa com zeros até a posição informada
+         */
+        void avancarAte(long destino) throws IOException {
+            while (posicao < destino) {
+                put((byte) 0);
+            }
+        }
+
+        /**
+         * Acrescenta todo o conteúdo de outro arquivo
+         */
+        void copiar(FileChannel origem) throws IOException {
+            descarregar();
+            long tamanho = origem.size();
+            for (long copiados = 0; copiados < tamanho; ) {
+                copiados += origem.transferTo(copiados, tamanho - copiados, canal);
+            }
+            posicao += tamanho;
+        }
+
+        void descarregar() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                canal.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        private ByteBuffer reservar(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                descarregar();
+            }
+            posicao += bytes;
+            return buffer;
+        }
+    }
+}
@@ -0,0 +1,327 @@
+package br.gov.aposentadoria.model;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Carreiras de vários usuários em formato colunar, para análises sobre a
+ * população que precisam apenas dos campos usados na agregação de tempos.
+ *
+ * Cada campo é um vetor primitivo: por usuário, id, sexo, nascimento e cargo
+ * atual; por período, início e fim em dias desde 1970-01-01, o ordinal do
+ * tipo de serviço, o cargo, o órgão empregador, o fator de conversão efetivo
+ * e a insalubridade. Cargos e órgãos são codificados por dicionários, e os
+ * períodos de cada usuário ficam contíguos, a partir de
+ * {@code primeiroPeriodo[usuario]}. Um período ocupa 22 bytes, contra algumas
+ * centenas de uma entidade gerenciada.
+ *
+ * As colunas são lidas por buffers com acesso absoluto, que podem envolver
+ * vetores em memória ({@link Construtor}) ou regiões de um arquivo mapeado
+ * ({@link ArquivoCarreiras}), sem cópia. Os usuários ficam em ordem crescente
+ * de id. A instância é imutável depois de construída e pode ser lida por
+ * várias threads.
+ */
+public final class CarreirasColunares {
+
+    private static final PeriodoServico.TipoServico[] TIPOS = PeriodoServico.TipoServico.values();
+    private static final String[] SEXOS = {"M", "F"};
+    private static final int SEM_DATA = Integer.MIN_VALUE;
+
+    final String[] cargos;
+    final String[] orgaos;
+
+    final LongBuffer usuarioIds;
+    final ByteBuffer sexos;
+    final IntBuffer nascimentos;
+    final IntBuffer cargosAtuais;
+    final IntBuffer primeiroPeriodo;
+
+    final IntBuffer inicios;
+    final IntBuffer fins;
+    final ByteBuffer tipos;
+    final IntBuffer cargosPeriodo;
+    final IntBuffer orgaosPeriodo;
+    final FloatBuffer fatores;
+    final ByteBuffer insalubres;
+
+    private final int usuarios;
+    private final int periodos;
+
+    CarreirasColunares(String[] cargos, String[] orgaos, LongBuffer usuarioIds, ByteBuffer sexos,
+                       IntBuffer nascimentos, IntBuffer cargosAtuais, IntBuffer primeiroPeriodo, IntBuffer inicios,
+                       IntBuffer fins, ByteBuffer tipos, IntBuffer cargosPeriodo, IntBuffer orgaosPeriodo,
+                       FloatBuffer fatores, ByteBuffer insalubres) {
+        this.cargos = cargos;
+        this.orgaos = orgaos;
+        this.usuarioIds = usuarioIds;
+        this.sexos = sexos;
+        this.nascimentos = nascimentos;
+        this.cargosAtuais = cargosAtuais;
+        this.primeiroPeriodo = primeiroPeriodo;
+        this.inicios = inicios;
+        this.fins = fins;
+        this.tipos = tipos;
+        this.cargosPeriodo = cargosPeriodo;
+        this.orgaosPeriodo = orgaosPeriodo;
+        this.fatores = fatores;
+        this.insalubres = insalubres;
+        this.usuarios = usuarioIds.limit();
+        this.periodos = inicios.limit();
+    }
+
+    /**
+     * Converte usuários e períodos já carregados
+     */
+    public static CarreirasColunares de(List<Usuario> usuarios, Map<Long, List<PeriodoServico>> periodosPorUsuario) {
+        List<Usuario> ordenados = new ArrayList<>(usuarios);
+        ordenados.sort((a, b) -> Long.compare(a.id, b.id));
+
+        Construtor construtor = new Construtor();
+        for (Usuario usuario : ordenados) {
+            construtor.adicionarUsuario(usuario.id, usuario.sexo, usuario.dataNascimento, usuario.cargoAtual);
+            for (PeriodoServico periodo : periodosPorUsuario.getOrDefault(usuario.id, List.of())) {
+                construtor.adicionarPeriodo(periodo.dataInicio, periodo.dataFim, periodo.tipoServico, periodo.cargo,
+                        periodo.orgaoEmpregador, periodo.fatorConversao, Boolean.TRUE.equals(periodo.tempoConvertido),
+                        Boolean.TRUE.equals(periodo.insalubridade));
+            }
+        }
+        return construtor.construir();
+    }
+
+    public int quantidadeUsuarios() {
+        return usuarios;
+    }
+
+    public int quantidadePeriodos() {
+        return periodos;
+    }
+
+    public int quantidadePeriodos(int usuario) {
+        return primeiroPeriodo.get(usuario + 1) - primeiroPeriodo.get(usuario);
+    }
+
+    public long usuarioId(int usuario) {
+        return usuarioIds.get(usuario);
+    }
+
+    /**
+     * Posição do usuário, ou um valor negativo se ele não estiver presente
+     */
+    public int indiceUsuario(long usuarioId) {
+        int inicio = 0;
+        int fim = usuarios - 1;
+        while (inicio <= fim) {
+            int meio = (inicio + fim) >>> 1;
+            long id = usuarioIds.get(meio);
+            if (id < usuarioId) {
+                inicio = meio + 1;
+            } else if (id > usuarioId) {
+                fim = meio - 1;
+            } else {
+                return meio;
+            }
+        }
+        return -(inicio + 1);
+    }
+
+    /**
+     * Usuário transiente com os campos usados nas regras de aposentadoria
+     * (id, sexo, data de nascimento e cargo atual)
+     */
+    public Usuario usuario(int usuario) {
+        byte sexo = sexos.get(usuario);
+        int nascimento = nascimentos.get(usuario);
+        int cargoAtual = cargosAtuais.get(usuario);
+        Usuario resultado = new Usuario();
+        resultado.id = usuarioIds.get(usuario);
+        resultado.sexo = sexo >= 0 ? SEXOS[sexo] : null;
+        resultado.dataNascimento = nascimento != SEM_DATA ? LocalDate.ofEpochDay(nascimento) : null;
+        resultado.cargoAtual = cargoAtual >= 0 ? cargos[cargoAtual] : null;
+        return resultado;
+    }
+
+    /**
+     * Posição do período com a data de fim mais recente do usuário (o vínculo
+     * atual, ou o último), ou -1 se ele não tiver períodos
+     */
+    public int ultimoVinculo(int usuario) {
+        int ultimo = -1;
+        for (int periodo = primeiroPeriodo.get(usuario); periodo < primeiroPeriodo.get(usuario + 1); periodo++) {
+            if (ultimo < 0 || fins.get(periodo) > fins.get(ultimo)) {
+                ultimo = periodo;
+            }
+        }
+        return ultimo;
+    }
+
+    public PeriodoServico.TipoServico tipoServico(int periodo) {
+        byte ordinal = tipos.get(periodo);
+        return ordinal >= 0 ? TIPOS[ordinal] : null;
+    }
+
+    public String orgaoEmpregador(int periodo) {
+        int orgao = orgaosPeriodo.get(periodo);
+        return orgao >= 0 ? orgaos[orgao] : null;
+    }
+
+    /**
+     * Agrega os períodos de um usuário como {@link TempoAgregado#calcular},
+     * sem criar entidades
+     *
+     * @param dataLimite se informada, os períodos são contados apenas até ela
+     */
+    public TempoAgregado agregar(int usuario, ConvencaoTempo convencao, LocalDate dataLimite) {
+        int primeiro = primeiroPeriodo.get(usuario);
+        int quantidade = primeiroPeriodo.get(usuario + 1) - primeiro;
+        int cargoAtual = cargosAtuais.get(usuario);
+        long fimLimite = dataLimite != null ? dataLimite.toEpochDay() + 1 : Long.MAX_VALUE;
+
+        long[] iniciosUsuario = new long[quantidade];
+        long[] finsUsuario = new long[quantidade];
+        int[] mascaras = new int[quantidade];
+        int[] fatoresUsuario = new int[quantidade];
+        long fimUltimoVinculo = Long.MIN_VALUE;
+        int categoriasUltimoVinculo = 0;
+
+        for (int i = 0; i < quantidade; i++) {
+            int periodo = primeiro + i;
+            byte ordinalTipo = tipos.get(periodo);
+            PeriodoServico.TipoServico tipo = ordinalTipo >= 0 ? TIPOS[ordinalTipo] : null;
+            int categorias = TempoAgregado.categorias(tipo,
+                    cargoAtual >= 0 && cargoAtual == cargosPeriodo.get(periodo), insalubres.get(periodo) != 0);
+            int fim = fins.get(periodo);
+
+            iniciosUsuario[i] = inicios.get(periodo);
+            finsUsuario[i] = Math.min(fim + 1L, fimLimite);
+            mascaras[i] = categorias | TempoAgregado.mascaraTipo(tipo);
+            fatoresUsuario[i] = UniaoPeriodos.fatorEmMilesimos((double) fatores.get(periodo));
+
+            if (fim > fimUltimoVinculo) {
+                fimUltimoVinculo = fim;
+                categoriasUltimoVinculo = categorias;
+            }
+        }
+
+        return TempoAgregado.agregar(quantidade, iniciosUsuario, finsUsuario, mascaras, fatoresUsuario, convencao,
+                quantidade > 0 ? LocalDate.ofEpochDay(fimUltimoVinculo) : null, categoriasUltimoVinculo);
+    }
+
+    /**
+     * Bytes ocupados pelos vetores, sem contar os dicionários
+     */
+    public long tamanhoEmBytes() {
+        return usuarios * (8L + 1 + 4 + 4 + 4) + periodos * (4L + 4 + 1 + 4 + 4 + 4 + 1);
+    }
+
+    /**
+     * Monta as colunas incrementalmente, usuário a usuário, em ordem crescente
+     * de id; os períodos adicionados pertencem ao último usuário adicionado
+     */
+    public static final class Construtor {
+
+        private final Map<String, Integer> idsCargos = new HashMap<>();
+        private final List<String> cargos = new ArrayList<>();
+        private final Map<String, Integer> idsOrgaos = new HashMap<>();
+        private final List<String> orgaos = new ArrayList<>();
+
+        private int usuarios;
+        private long[] usuarioIds = new long[64];
+        private byte[] sexos = new byte[64];
+        private int[] nascimentos = new int[64];
+        private int[] cargosAtuais = new int[64];
+        private int[] primeiroPeriodo = new int[65];
+
+        private int periodos;
+        private int[] inicios = new int[256];
+        private int[] fins = new int[256];
+        private byte[] tipos = new byte[256];
+        private int[] cargosPeriodo = new int[256];
+        private int[] orgaosPeriodo = new int[256];
+        private float[] fatores = new float[256];
+        private byte[] insalubres = new byte[256];
+
+        public Construtor adicionarUsuario(long id, String sexo, LocalDate dataNascimento, String cargoAtual) {
+            if (usuarios > 0 && id <= usuarioIds[usuarios - 1]) {
+                throw new IllegalArgumentException("Usuários devem ser adicionados em ordem crescente de id: " + id);
+            }
+            if (usuarios == usuarioIds.length) {
+                int capacidade = usuarios * 2;
+                usuarioIds = Arrays.copyOf(usuarioIds, capacidade);
+                sexos = Arrays.copyOf(sexos, capacidade);
+                nascimentos = Arrays.copyOf(nascimentos, capacidade);
+                cargosAtuais = Arrays.copyOf(cargosAtuais, capacidade);
+                primeiroPeriodo = Arrays.copyOf(primeiroPeriodo, capacidade + 1);
+            }
+            usuarioIds[usuarios] = id;
+            sexos[usuarios] = (byte) ("M".equals(sexo) ? 0 : "F".equals(sexo) ? 1 : -1);
+            nascimentos[usuarios] = dataNascimento != null ? (int) dataNascimento.toEpochDay() : SEM_DATA;
+            cargosAtuais[usuarios] = cargoAtual != null && !cargoAtual.isEmpty() ? codificar(cargoAtual, idsCargos, cargos) : -1;
+            primeiroPeriodo[usuarios] = periodos;
+            usuarios++;
+            return this;
+        }
+
+        /**
+         * @param fatorConversao considerado apenas quando {@code tempoConvertido}
+         */
+        public Construtor adicionarPeriodo(LocalDate dataInicio, LocalDate dataFim, PeriodoServico.TipoServico tipoServico,
+                                           String cargo, String orgaoEmpregador, Double fatorConversao,
+                                           boolean tempoConvertido, boolean insalubridade) {
+            if (usuarios == 0) {
+                throw new IllegalStateException("Nenhum usuário adicionado");
+            }
+            if (periodos == inicios.length) {
+                int capacidade = periodos * 2;
+                inicios = Arrays.copyOf(inicios, capacidade);
+                fins = Arrays.copyOf(fins, capacidade);
+                tipos = Arrays.copyOf(tipos, capacidade);
+                cargosPeriodo = Arrays.copyOf(cargosPeriodo, capacidade);
+                orgaosPeriodo = Arrays.copyOf(orgaosPeriodo, capacidade);
+                fatores = Arrays.copyOf(fatores, capacidade);
+                insalubres = Arrays.copyOf(insalubres, capacidade);
+            }
+            inicios[periodos] = (int) dataInicio.toEpochDay();
+            fins[periodos] = (int) dataFim.toEpochDay();
+            tipos[periodos] = (byte) (tipoServico != null ? tipoServico.ordinal() : -1);
+            cargosPeriodo[periodos] = cargo != null ? codificar(cargo, idsCargos, cargos) : -1;
+            orgaosPeriodo[periodos] = orgaoEmpregador != null ? codificar(orgaoEmpregador, idsOrgaos, orgaos) : -1;
+            fatores[periodos] = tempoConvertido && fatorConversao != null ? fatorConversao.floatValue() : 1f;
+            insalubres[periodos] = (byte) (insalubridade ? 1 : 0);
+            periodos++;
+            return this;
+        }
+
+        public CarreirasColunares construir() {
+            int[] offsets = Arrays.copyOf(primeiroPeriodo, usuarios + 1);
+            offsets[usuarios] = periodos;
+            return new CarreirasColunares(cargos.toArray(String[]::new), orgaos.toArray(String[]::new),
+                    LongBuffer.wrap(Arrays.copyOf(usuarioIds, usuarios)),
+                    ByteBuffer.wrap(Arrays.copyOf(sexos, usuarios)),
+                    IntBuffer.wrap(Arrays.copyOf(nascimentos, usuarios)),
+                    IntBuffer.wrap(Arrays.copyOf(cargosAtuais, usuarios)),
+                    IntBuffer.wrap(offsets),
+                    IntBuffer.wrap(Arrays.copyOf(inicios, periodos)),
+                    IntBuffer.wrap(Arrays.copyOf(fins, periodos)),
+                    ByteBuffer.wrap(Arrays.copyOf(tipos, periodos)),
+                    IntBuffer.wrap(Arrays.copyOf(cargosPeriodo, periodos)),
+                    IntBuffer.wrap(Arrays.copyOf(orgaosPeriodo, periodos)),
+                    FloatBuffer.wrap(Arrays.copyOf(fatores, periodos)),
+                    ByteBuffer.wrap(Arrays.copyOf(insalubres, periodos)));
+        }
+
+        private static int codificar(String valor, Map<String, Integer> ids, List<String> valores) {
+            return ids.computeIfAbsent(valor, v -> {
+                valores.add(v);
+                return valores.size() - 1;
+            });
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package br.gov.aposentadoria.model;
+
+/**
+ * Convenção usada para converter contagens de dias em anos, meses e dias.
+ *
+ * Internamente os tempos de serviço são somados como contagens primitivas de
+ * dias, o que torna a soma exata, associativa e livre de alocações. A
+ * conversão para {@link PeriodoTempo} acontece apenas na fronteira da API.
+ */
+public enum ConvencaoTempo {
+
+    /**
+     * Convenção legal: ano de 365 dias e mês de 30 dias
+     */
+    LEGAL {
+        @Override
+        public PeriodoTempo paraPeriodo(long dias) {
+            long restoAno = dias % 365;
+            return new PeriodoTempo((int) (dias / 365), (int) (restoAno / 30), (int) (restoAno % 30));
+        }
+
+        @Override
+        public long paraDias(PeriodoTempo periodo) {
+            return periodo.anos() * 365L + periodo.meses() * 30L + periodo.dias();
+        }
+
+        @Override
+        public int anos(long dias) {
+            return (int) (dias / 365);
+        }
+
+        @Override
+        public long diasParaAnos(int anos) {
+            return anos * 365L;
+        }
+    },
+
+    /**
+     * Convenção de calendário: usa a duração média do ano (365,2425 dias) e do
+     * mês (30,436875 dias) do calendário gregoriano, que se repete a cada
+     * 146.097 dias (400 anos ou 4.800 meses)
+     */
+    CALENDARIO {
+        private static final long DIAS_CICLO = 146_097;
+        private static final long MESES_CICLO = 4_800;
+        private static final long ANOS_CICLO = 400;
+
+        @Override
+        public PeriodoTempo paraPeriodo(long dias) {
+            long meses = dias * MESES_CICLO / DIAS_CICLO;
+            long restante = dias - diasDosMeses(meses);
+            return new PeriodoTempo((int) (meses / 12), (int) (meses % 12), (int) restante);
+        }
+
+        @Override
+        public long paraDias(PeriodoTempo periodo) {
+            return diasDosMeses(periodo.anos() * 12L + periodo.meses()) + periodo.dias();
+        }
+
+        @Override
+        public int anos(long dias) {
+            return (int) (dias * ANOS_CICLO / DIAS_CICLO);
+        }
+
+        @Override
+        public long diasParaAnos(int anos) {
+            // Menor contagem de dias cujo número de anos completos é o informado
+            return (anos * DIAS_CICLO + ANOS_CICLO - 1) / ANOS_CICLO;
+        }
+
+        private long diasDosMeses(long meses) {
+            return (meses * DIAS_CICLO + MESES_CICLO - 1) / MESES_CICLO;
+        }
+    };
+
+    /**
+     * Converte uma contagem de dias em anos, meses e dias
+     */
+    public abstract PeriodoTempo paraPeriodo(long dias);
+
+    /**
+     * Converte anos, meses e dias em uma contagem de dias
+     */
+    public abstract long paraDias(PeriodoTempo periodo);
+
+    /**
+     * Número de anos completos em uma contagem de dias, sem alocações
+     */
+    public abstract int anos(long dias);
+
+    /**
+     * Menor contagem de dias que corresponde ao número de anos informado
+     */
+    public abstract long diasParaAnos(int anos);
+}
@@ -0,0 +1,66 @@
+package br.gov.aposentadoria.model;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntity;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * Ponto de controle de uma importação de períodos de serviço.
+ *
+ * É atualizado na mesma transação que grava cada bloco de registros, de modo
+ * que {@link #ultimaLinha} indica exatamente até onde o arquivo foi gravado e
+ * a importação pode ser retomada a partir dali após uma falha.
+ */
+@Entity
+@Table(name = "importacoes_periodos")
+public class ImportacaoPeriodos extends PanacheEntity {
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "formato", nullable = false)
+    public Formato formato;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    public Status status = Status.PENDENTE;
+
+    /**
+     * Última linha do arquivo (contando a partir de 1) cujo bloco foi gravado
+     */
+    @Column(name = "ultima_linha", nullable = false)
+    public long ultimaLinha;
+
+    @Column(name = "linhas_processadas", nullable = false)
+    public long linhasProcessadas;
+
+    @Column(name = "linhas_gravadas", nullable = false)
+    public long linhasGravadas;
+
+    @Column(name = "linhas_rejeitadas", nullable = false)
+    public long linhasRejeitadas;
+
+    @Column(name = "data_criacao", nullable = false)
+    public LocalDateTime dataCriacao = LocalDateTime.now();
+
+    @Column(name = "data_atualizacao")
+    public LocalDateTime dataAtualizacao;
+
+    @Column(name = "erro", length = 1000)
+    public String erro;
+
+    public enum Formato {
+        CSV,
+        NDJSON
+    }
+
+    public enum Status {
+        PENDENTE,
+        EM_EXECUCAO,
+        CONCLUIDA,
+        FALHOU
+    }
+}
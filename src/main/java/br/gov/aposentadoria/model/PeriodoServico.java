@@ -5,6 +5,8 @@ import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
@@ -13,10 +15,17 @@ import jakarta.validation.constraints.NotNull;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "periodos_servico")
+@Table(name = "periodos_servico", indexes = {
+    // Sobreposição de datas e períodos até uma data, por usuário
+    @Index(name = "idx_periodos_servico_usuario_inicio", columnList = "usuario_id, data_inicio, data_fim"),
+    // Listagem paginada por cursor
+    @Index(name = "idx_periodos_servico_usuario_id", columnList = "usuario_id, id"),
+    // Usuários de um órgão nas simulações em lote
+    @Index(name = "idx_periodos_servico_orgao_usuario", columnList = "orgao_empregador, usuario_id")
+})
 public class PeriodoServico extends PanacheEntity {
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "usuario_id", nullable = false)
     public Usuario usuario;
 
@@ -64,30 +73,61 @@ public class PeriodoServico extends PanacheEntity {
      * Calcula a duração em anos, meses e dias
      */
     public PeriodoTempo calcularTempo() {
-        long totalDias = calcularDiasServico();
-        
-        int anos = (int) (totalDias / 365);
-        int meses = (int) ((totalDias % 365) / 30);
-        int dias = (int) ((totalDias % 365) % 30);
-        
-        return new PeriodoTempo(anos, meses, dias);
+        return ConvencaoTempo.LEGAL.paraPeriodo(calcularDiasServico());
+    }
+    
+    /**
+     * Calcula a duração em dias considerando fatores de conversão se aplicável
+     */
+    public long calcularDiasComConversao() {
+        return aplicarFator(calcularDiasServico());
+    }
+    
+    /**
+     * Calcula a duração em dias até uma data limite (inclusive), considerando
+     * fatores de conversão se aplicável
+     */
+    public long calcularDiasComConversaoAte(LocalDate dataLimite) {
+        if (dataInicio.isAfter(dataLimite)) {
+            return 0;
+        }
+        LocalDate fim = dataFim.isAfter(dataLimite) ? dataLimite : dataFim;
+        return aplicarFator(java.time.temporal.ChronoUnit.DAYS.between(dataInicio, fim.plusDays(1)));
     }
     
     /**
      * Calcula a duração considerando fatores de conversão se aplicável
      */
     public PeriodoTempo calcularTempoComConversao() {
+        return ConvencaoTempo.LEGAL.paraPeriodo(calcularDiasComConversao());
+    }
+    
+    /**
+     * Cópia não gerenciada, com o mesmo id e usuário, para guardar os valores
+     * anteriores a uma alteração
+     */
+    public PeriodoServico copiar() {
+        PeriodoServico copia = new PeriodoServico();
+        copia.id = id;
+        copia.usuario = usuario;
+        copia.dataInicio = dataInicio;
+        copia.dataFim = dataFim;
+        copia.orgaoEmpregador = orgaoEmpregador;
+        copia.tipoServico = tipoServico;
+        copia.cargo = cargo;
+        copia.numeroPortaria = numeroPortaria;
+        copia.tempoConvertido = tempoConvertido;
+        copia.fatorConversao = fatorConversao;
+        copia.insalubridade = insalubridade;
+        copia.concomitante = concomitante;
+        return copia;
+    }
+    
+    private long aplicarFator(long dias) {
         if (tempoConvertido && fatorConversao != null) {
-            long totalDias = (long) (calcularDiasServico() * fatorConversao);
-            
-            int anos = (int) (totalDias / 365);
-            int meses = (int) ((totalDias % 365) / 30);
-            int dias = (int) ((totalDias % 365) % 30);
-            
-            return new PeriodoTempo(anos, meses, dias);
-        } else {
-            return calcularTempo();
+            return (long) (dias * fatorConversao);
         }
+        return dias;
     }
 
     public enum TipoServico {
@@ -0,0 +1,40 @@
+package br.gov.aposentadoria.model;
+
+import io.quarkus.hibernate.orm.panache.common.ProjectedFieldName;
+
+import java.time.LocalDate;
+
+/**
+ * Projeção de leitura de um período de serviço. O usuário é representado
+ * apenas pelo id, lido da chave estrangeira sem junção.
+ */
+public record PeriodoServicoResumo(
+        Long id,
+        @ProjectedFieldName("usuario.id") Long usuarioId,
+        LocalDate dataInicio,
+        LocalDate dataFim,
+        String orgaoEmpregador,
+        PeriodoServico.TipoServico tipoServico,
+        String cargo,
+        String numeroPortaria,
+        Boolean tempoConvertido,
+        Double fatorConversao,
+        Boolean insalubridade,
+        Boolean concomitante) {
+
+    public static PeriodoServicoResumo de(PeriodoServico periodo) {
+        return new PeriodoServicoResumo(
+                periodo.id,
+                periodo.usuario.id,
+                periodo.dataInicio,
+                periodo.dataFim,
+                periodo.orgaoEmpregador,
+                periodo.tipoServico,
+                periodo.cargo,
+                periodo.numeroPortaria,
+                periodo.tempoConvertido,
+                periodo.fatorConversao,
+                periodo.insalubridade,
+                periodo.concomitante);
+    }
+}
@@ -6,33 +6,20 @@ package br.gov.aposentadoria.model;
 public record PeriodoTempo(int anos, int meses, int dias) {
 
     /**
-     * Soma dois períodos de tempo
+     * Soma dois períodos de tempo pela convenção legal. A soma é feita sobre
+     * a contagem de dias, sem perda na normalização; para somar muitos
+     * períodos, prefira acumular os dias e converter uma única vez com
+     * {@link ConvencaoTempo#paraPeriodo(long)}.
      */
     public PeriodoTempo somar(PeriodoTempo outro) {
-        int totalDias = this.dias + outro.dias;
-        int totalMeses = this.meses + outro.meses;
-        int totalAnos = this.anos + outro.anos;
-        
-        // Ajustar dias excedentes
-        if (totalDias >= 30) {
-            totalMeses += totalDias / 30;
-            totalDias = totalDias % 30;
-        }
-        
-        // Ajustar meses excedentes
-        if (totalMeses >= 12) {
-            totalAnos += totalMeses / 12;
-            totalMeses = totalMeses % 12;
-        }
-        
-        return new PeriodoTempo(totalAnos, totalMeses, totalDias);
+        return ConvencaoTempo.LEGAL.paraPeriodo(this.toDias() + outro.toDias());
     }
     
     /**
-     * Converte o período para dias
+     * Converte o período para dias pela convenção legal
      */
     public long toDias() {
-        return anos * 365 + meses * 30 + dias;
+        return ConvencaoTempo.LEGAL.paraDias(this);
     }
     
     @Override
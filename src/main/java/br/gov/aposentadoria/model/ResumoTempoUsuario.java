@@ -0,0 +1,193 @@
+package br.gov.aposentadoria.model;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Totais de tempo de um usuário, mantidos na mesma transação que altera seus
+ * períodos de serviço, para que a leitura dos tempos seja a busca de uma
+ * única linha pela chave.
+ *
+ * Os totais são guardados em milésimos de dia, como em
+ * {@link TempoAgregado#milesimos}, para que os fatores de conversão não
+ * acumulem arredondamentos a cada alteração. Ao incluir, alterar ou remover
+ * um período, só é aplicada a diferença que ele causa no seu intervalo,
+ * calculada a partir dos períodos que se sobrepõem a ele.
+ */
+@Entity
+@Table(name = "resumo_tempo_usuario")
+public class ResumoTempoUsuario extends PanacheEntityBase {
+
+    @Id
+    @Column(name = "usuario_id")
+    public Long usuarioId;
+
+    @Column(name = "contribuicao", nullable = false)
+    public long contribuicao;
+
+    @Column(name = "servico_publico", nullable = false)
+    public long servicoPublico;
+
+    @Column(name = "cargo", nullable = false)
+    public long cargo;
+
+    @Column(name = "magisterio", nullable = false)
+    public long magisterio;
+
+    @Column(name = "insalubre", nullable = false)
+    public long insalubre;
+
+    @Column(name = "tipo_estatutario", nullable = false)
+    public long tipoEstatutario;
+
+    @Column(name = "tipo_clt", nullable = false)
+    public long tipoClt;
+
+    @Column(name = "tipo_cres", nullable = false)
+    public long tipoCres;
+
+    @Column(name = "tipo_servico_publico_federal", nullable = false)
+    public long tipoServicoPublicoFederal;
+
+    @Column(name = "tipo_servico_publico_estadual", nullable = false)
+    public long tipoServicoPublicoEstadual;
+
+    @Column(name = "tipo_servico_publico_municipal", nullable = false)
+    public long tipoServicoPublicoMunicipal;
+
+    @Column(name = "tipo_servico_militar", nullable = false)
+    public long tipoServicoMilitar;
+
+    @Column(name = "tipo_insalubre", nullable = false)
+    public long tipoInsalubre;
+
+    @Column(name = "tipo_magisterio", nullable = false)
+    public long tipoMagisterio;
+
+    /**
+     * Período que termina por último; no empate, o de menor id
+     */
+    @Column(name = "ultimo_vinculo_id")
+    public Long ultimoVinculoId;
+
+    @Column(name = "fim_ultimo_vinculo")
+    public LocalDate fimUltimoVinculo;
+
+    @Column(name = "categorias_ultimo_vinculo", nullable = false)
+    public int categoriasUltimoVinculo;
+
+    @Column(name = "data_atualizacao", nullable = false)
+    public LocalDateTime dataAtualizacao;
+
+    /**
+     * Resumo vazio de um usuário
+     */
+    public static ResumoTempoUsuario de(Long usuarioId) {
+        ResumoTempoUsuario resumo = new ResumoTempoUsuario();
+        resumo.usuarioId = usuarioId;
+        return resumo;
+    }
+
+    /**
+     * Recalcula os totais a partir de todos os períodos do usuário
+     */
+    public void recalcular(List<PeriodoServico> periodos, String cargoAtual) {
+        definirMilesimos(TempoAgregado.milesimos(cargoAtual, periodos, Long.MIN_VALUE, Long.MAX_VALUE));
+        definirUltimoVinculo(null, cargoAtual);
+        for (PeriodoServico periodo : periodos) {
+            considerarUltimoVinculo(periodo, cargoAtual);
+        }
+    }
+
+    /**
+     * Soma aos totais (sinal 1) ou subtrai deles (sinal -1) a contribuição de
+     * um período, restrita ao seu intervalo
+     *
+     * @param sobrepostos demais períodos do usuário que se sobrepõem ao período
+     */
+    public void somar(PeriodoServico periodo, List<PeriodoServico> sobrepostos, String cargoAtual, int sinal) {
+        long inicio = periodo.dataInicio.toEpochDay();
+        long fim = periodo.dataFim.toEpochDay() + 1;
+        long[] sem = TempoAgregado.milesimos(cargoAtual, sobrepostos, inicio, fim);
+        long[] com = TempoAgregado.milesimos(cargoAtual, concatenar(sobrepostos, periodo), inicio, fim);
+
+        long[] milesimos = milesimos();
+        for (int i = 0; i < milesimos.length; i++) {
+            milesimos[i] += sinal * (com[i] - sem[i]);
+        }
+        definirMilesimos(milesimos);
+    }
+
+    /**
+     * Passa a considerar o período como último vínculo se ele terminar depois
+     * do atual ou, na mesma data, tiver id menor
+     */
+    public void considerarUltimoVinculo(PeriodoServico periodo, String cargoAtual) {
+        if (fimUltimoVinculo == null
+                || periodo.dataFim.isAfter(fimUltimoVinculo)
+                || (periodo.dataFim.equals(fimUltimoVinculo) && periodo.id != null
+                        && (ultimoVinculoId == null || periodo.id <= ultimoVinculoId))) {
+            definirUltimoVinculo(periodo, cargoAtual);
+        }
+    }
+
+    /**
+     * @param periodo período que termina por último, ou null se não houver períodos
+     */
+    public void definirUltimoVinculo(PeriodoServico periodo, String cargoAtual) {
+        ultimoVinculoId = periodo != null ? periodo.id : null;
+        fimUltimoVinculo = periodo != null ? periodo.dataFim : null;
+        categoriasUltimoVinculo = periodo != null
+                ? TempoAgregado.categorias(periodo, cargoAtual != null && !cargoAtual.isEmpty() ? cargoAtual : null)
+                : 0;
+    }
+
+    /**
+     * Tempos agregados a partir dos totais, sem consultar os períodos
+     */
+    public TempoAgregado tempos(ConvencaoTempo convencao) {
+        return TempoAgregado.deMilesimos(milesimos(), convencao, fimUltimoVinculo, categoriasUltimoVinculo);
+    }
+
+    /**
+     * Totais na ordem de {@link TempoAgregado#milesimos}: categorias e, em
+     * seguida, tipos de serviço
+     */
+    public long[] milesimos() {
+        return new long[] {
+                contribuicao, servicoPublico, cargo, magisterio, insalubre,
+                tipoEstatutario, tipoClt, tipoCres, tipoServicoPublicoFederal, tipoServicoPublicoEstadual,
+                tipoServicoPublicoMunicipal, tipoServicoMilitar, tipoInsalubre, tipoMagisterio
+        };
+    }
+
+    private void definirMilesimos(long[] milesimos) {
+        contribuicao = milesimos[0];
+        servicoPublico = milesimos[1];
+        cargo = milesimos[2];
+        magisterio = milesimos[3];
+        insalubre = milesimos[4];
+        tipoEstatutario = milesimos[5];
+        tipoClt = milesimos[6];
+        tipoCres = milesimos[7];
+        tipoServicoPublicoFederal = milesimos[8];
+        tipoServicoPublicoEstadual = milesimos[9];
+        tipoServicoPublicoMunicipal = milesimos[10];
+        tipoServicoMilitar = milesimos[11];
+        tipoInsalubre = milesimos[12];
+        tipoMagisterio = milesimos[13];
+    }
+
+    private static List<PeriodoServico> concatenar(List<PeriodoServico> periodos, PeriodoServico periodo) {
+        PeriodoServico[] todos = periodos.toArray(new PeriodoServico[periodos.size() + 1]);
+        todos[periodos.size()] = periodo;
+        return List.of(todos);
+    }
+}
@@ -5,6 +5,8 @@ import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
@@ -13,10 +15,15 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "simulacoes")
+@Table(name = "simulacoes", indexes = {
+    // Listagem paginada por cursor
+    @Index(name = "idx_simulacoes_usuario_id", columnList = "usuario_id, id"),
+    // Reaproveitamento de simulações com as mesmas entradas
+    @Index(name = "idx_simulacoes_usuario_hash", columnList = "usuario_id, hash_entrada")
+})
 public class Simulacao extends PanacheEntity {
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "usuario_id", nullable = false)
     public Usuario usuario;
 
@@ -78,6 +85,12 @@ public class Simulacao extends PanacheEntity {
     @Column(name = "observacoes", length = 1000)
     public String observacoes;
 
+    /**
+     * Resumo das entradas da simulação (ver ChaveSimulacao)
+     */
+    @Column(name = "hash_entrada", length = 64)
+    public String hashEntrada;
+
     public enum RegraAposentadoria {
         REGRA_PERMANENTE("Regra Permanente"), 
         REGRA_TRANSICAO_PEDÁGIO("Regra de Transição - Pedágio"), 
@@ -0,0 +1,59 @@
+package br.gov.aposentadoria.model;
+
+import io.quarkus.hibernate.orm.panache.common.ProjectedFieldName;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Projeção de leitura de uma simulação. O usuário é representado apenas pelo
+ * id, lido da chave estrangeira sem junção.
+ */
+public record SimulacaoResumo(
+        Long id,
+        @ProjectedFieldName("usuario.id") Long usuarioId,
+        LocalDateTime dataSimulacao,
+        String nomeSimulacao,
+        Simulacao.RegraAposentadoria regraAposentadoria,
+        Integer tempoContribuicaoAnos,
+        Integer tempoContribuicaoMeses,
+        Integer tempoContribuicaoDias,
+        Integer tempoServicoPublicoAnos,
+        Integer tempoServicoPublicoMeses,
+        Integer tempoServicoPublicoDias,
+        Integer tempoCargoAnos,
+        Integer tempoCargoMeses,
+        Integer tempoCargoDias,
+        LocalDate dataPrevisaoAposentadoria,
+        Integer idadeAposentadoria,
+        Integer pontuacao,
+        Double percentualBeneficio,
+        Boolean elegivel,
+        Double valorBeneficioEstimado,
+        String observacoes) {
+
+    public static SimulacaoResumo de(Simulacao simulacao) {
+        return new SimulacaoResumo(
+                simulacao.id,
+                simulacao.usuario.id,
+                simulacao.dataSimulacao,
+                simulacao.nomeSimulacao,
+                simulacao.regraAposentadoria,
+                simulacao.tempoContribuicaoAnos,
+                simulacao.tempoContribuicaoMeses,
+                simulacao.tempoContribuicaoDias,
+                simulacao.tempoServicoPublicoAnos,
+                simulacao.tempoServicoPublicoMeses,
+                simulacao.tempoServicoPublicoDias,
+                simulacao.tempoCargoAnos,
+                simulacao.tempoCargoMeses,
+                simulacao.tempoCargoDias,
+                simulacao.dataPrevisaoAposentadoria,
+                simulacao.idadeAposentadoria,
+                simulacao.pontuacao,
+                simulacao.percentualBeneficio,
+                simulacao.elegivel,
+                simulacao.valorBeneficioEstimado,
+                simulacao.observacoes);
+    }
+}
@@ -0,0 +1,308 @@
+package br.gov.aposentadoria.model;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Resultado da agregação dos tempos de serviço de um usuário, com todas as
+ * categorias exigidas pelas regras de aposentadoria e o total por tipo de
+ * serviço. Períodos concomitantes são unidos por {@link UniaoPeriodos}: cada
+ * dia é contado uma única vez por categoria.
+ */
+public final class TempoAgregado {
+
+    /**
+     * Categorias de tempo consideradas pelas regras de aposentadoria
+     */
+    public enum Categoria {
+        CONTRIBUICAO,
+        SERVICO_PUBLICO,
+        CARGO,
+        MAGISTERIO,
+        INSALUBRE;
+
+        private final int mascara = 1 << ordinal();
+
+        public int mascara() {
+            return mascara;
+        }
+    }
+
+    private static final Categoria[] CATEGORIAS = Categoria.values();
+    private static final PeriodoServico.TipoServico[] TIPOS = PeriodoServico.TipoServico.values();
+
+    /**
+     * Os bits seguintes às categorias identificam o tipo de serviço do período
+     */
+    private static final int PRIMEIRO_BIT_TIPO = CATEGORIAS.length;
+    static final int TOTAL_BITS = CATEGORIAS.length + TIPOS.length;
+
+    private final long[] dias;
+    private final ConvencaoTempo convencao;
+    private final LocalDate fimUltimoVinculo;
+    private final int categoriasUltimoVinculo;
+
+    TempoAgregado(long[] dias, ConvencaoTempo convencao, LocalDate fimUltimoVinculo,
+                  int categoriasUltimoVinculo) {
+        this.dias = dias;
+        this.convencao = convencao;
+        this.fimUltimoVinculo = fimUltimoVinculo;
+        this.categoriasUltimoVinculo = categoriasUltimoVinculo;
+    }
+
+    /**
+     * Agrega os períodos de um usuário pela convenção legal
+     */
+    public static TempoAgregado calcular(Usuario usuario, List<PeriodoServico> periodosServico) {
+        return calcular(usuario, periodosServico, ConvencaoTempo.LEGAL);
+    }
+
+    /**
+     * Agrega os períodos de um usuário pela convenção informada
+     */
+    public static TempoAgregado calcular(Usuario usuario, List<PeriodoServico> periodosServico,
+                                         ConvencaoTempo convencao) {
+        return calcular(usuario.cargoAtual, periodosServico, convencao, null);
+    }
+
+    /**
+     * Agrega os períodos em uma única varredura. Os dias de cada categoria são
+     * somados em contadores primitivos e só são convertidos em anos, meses e
+     * dias, pela convenção informada, quando consultados.
+     *
+     * @param cargoAtual cargo considerado para o tempo no cargo (pode ser nulo)
+     * @param dataLimite se informada, os períodos são contados apenas até ela
+     */
+    public static TempoAgregado calcular(String cargoAtual, List<PeriodoServico> periodosServico,
+                                         ConvencaoTempo convencao, LocalDate dataLimite) {
+        String cargo = cargoAtual != null && !cargoAtual.isEmpty() ? cargoAtual : null;
+        long fimLimite = dataLimite != null ? dataLimite.toEpochDay() + 1 : Long.MAX_VALUE;
+        int quantidade = periodosServico.size();
+
+        long[] inicios = new long[quantidade];
+        long[] fins = new long[quantidade];
+        int[] mascaras = new int[quantidade];
+        int[] fatores = new int[quantidade];
+        PeriodoServico ultimoVinculo = null;
+        int categoriasUltimoVinculo = 0;
+
+        for (int i = 0; i < quantidade; i++) {
+            PeriodoServico periodo = periodosServico.get(i);
+            int categorias = categorias(periodo, cargo);
+
+            inicios[i] = periodo.dataInicio.toEpochDay();
+            fins[i] = Math.min(periodo.dataFim.toEpochDay() + 1, fimLimite);
+            mascaras[i] = categorias | mascaraTipo(periodo.tipoServico);
+            fatores[i] = fator(periodo);
+
+            if (ultimoVinculo == null || periodo.dataFim.isAfter(ultimoVinculo.dataFim)) {
+                ultimoVinculo = periodo;
+                categoriasUltimoVinculo = categorias;
+            }
+        }
+
+        return agregar(quantidade, inicios, fins, mascaras, fatores, convencao,
+                ultimoVinculo != null ? ultimoVinculo.dataFim : null, categoriasUltimoVinculo);
+    }
+
+    /**
+     * Une os períodos já convertidos em dias (fim exclusivo), máscaras e
+     * fatores em milésimos
+     */
+    static TempoAgregado agregar(int quantidade, long[] inicios, long[] fins, int[] mascaras, int[] fatores,
+                                 ConvencaoTempo convencao, LocalDate fimUltimoVinculo, int categoriasUltimoVinculo) {
+        long[] milesimos = UniaoPeriodos.calcular(quantidade, inicios, fins, mascaras, fatores, TOTAL_BITS);
+        long[] dias = new long[TOTAL_BITS];
+        for (int i = 0; i < TOTAL_BITS; i++) {
+            dias[i] = milesimos[i] / UniaoPeriodos.FATOR_UNITARIO;
+        }
+
+        return new TempoAgregado(dias, convencao, fimUltimoVinculo, categoriasUltimoVinculo);
+    }
+
+    /**
+     * União ponderada dos períodos recortados ao intervalo [inicio,
+     * fimExclusivo), em milésimos de dia por categoria e tipo de serviço. Como
+     * a união de intervalos disjuntos é a soma das uniões de cada um, a
+     * diferença entre esta soma com e sem um período, restrita ao intervalo
+     * dele, é a variação que esse período causa nos totais: apenas os
+     * períodos que o tocam precisam ser considerados.
+     *
+     * @param cargoAtual cargo considerado para o tempo no cargo (pode ser nulo)
+     */
+    public static long[] milesimos(String cargoAtual, List<PeriodoServico> periodosServico,
+                                   long inicio, long fimExclusivo) {
+        String cargo = cargoAtual != null && !cargoAtual.isEmpty() ? cargoAtual : null;
+        int quantidade = periodosServico.size();
+        long[] inicios = new long[quantidade];
+        long[] fins = new long[quantidade];
+        int[] mascaras = new int[quantidade];
+        int[] fatores = new int[quantidade];
+
+        for (int i = 0; i < quantidade; i++) {
+            PeriodoServico periodo = periodosServico.get(i);
+            inicios[i] = Math.max(periodo.dataInicio.toEpochDay(), inicio);
+            fins[i] = Math.min(periodo.dataFim.toEpochDay() + 1, fimExclusivo);
+            mascaras[i] = categorias(periodo, cargo) | mascaraTipo(periodo.tipoServico);
+            fatores[i] = fator(periodo);
+        }
+        return UniaoPeriodos.calcular(quantidade, inicios, fins, mascaras, fatores, TOTAL_BITS);
+    }
+
+    /**
+     * Monta o resultado a partir de totais em milésimos de dia, no formato de
+     * {@link #milesimos}, mantidos fora desta classe
+     *
+     * @param fimUltimoVinculo        fim do período mais recente (pode ser nulo)
+     * @param categoriasUltimoVinculo máscara de {@link #categorias} do período mais recente
+     */
+    public static TempoAgregado deMilesimos(long[] milesimos, ConvencaoTempo convencao,
+                                            LocalDate fimUltimoVinculo, int categoriasUltimoVinculo) {
+        if (milesimos.length != TOTAL_BITS) {
+            throw new IllegalArgumentException("Esperados " + TOTAL_BITS + " totais, recebidos " + milesimos.length);
+        }
+        long[] dias = new long[TOTAL_BITS];
+        for (int i = 0; i < TOTAL_BITS; i++) {
+            dias[i] = milesimos[i] / UniaoPeriodos.FATOR_UNITARIO;
+        }
+        return new TempoAgregado(dias, convencao, fimUltimoVinculo, categoriasUltimoVinculo);
+    }
+
+    private static int fator(PeriodoServico periodo) {
+        return periodo.tempoConvertido && periodo.fatorConversao != null
+                ? UniaoPeriodos.fatorEmMilesimos(periodo.fatorConversao)
+                : UniaoPeriodos.FATOR_UNITARIO;
+    }
+
+    /**
+     * Bit que identifica o tipo de serviço na máscara do período
+     */
+    static int mascaraTipo(PeriodoServico.TipoServico tipoServico) {
+        return tipoServico != null ? 1 << (PRIMEIRO_BIT_TIPO + tipoServico.ordinal()) : 0;
+    }
+
+    /**
+     * Máscara com as categorias de tempo para as quais o período conta
+     */
+    public static int categorias(PeriodoServico periodo, String cargoAtual) {
+        return categorias(periodo.tipoServico, cargoAtual != null && cargoAtual.equals(periodo.cargo),
+                Boolean.TRUE.equals(periodo.insalubridade));
+    }
+
+    static int categorias(PeriodoServico.TipoServico tipoServico, boolean cargoAtual, boolean insalubridade) {
+        int categorias = Categoria.CONTRIBUICAO.mascara();
+        if (isServicoPublico(tipoServico)) {
+            categorias |= Categoria.SERVICO_PUBLICO.mascara();
+        }
+        if (cargoAtual) {
+            categorias |= Categoria.CARGO.mascara();
+        }
+        if (tipoServico == PeriodoServico.TipoServico.MAGISTERIO) {
+            categorias |= Categoria.MAGISTERIO.mascara();
+        }
+        if (tipoServico == PeriodoServico.TipoServico.INSALUBRE || insalubridade) {
+            categorias |= Categoria.INSALUBRE.mascara();
+        }
+        return categorias;
+    }
+
+    /**
+     * Indica se o tipo de serviço conta como tempo de serviço público
+     */
+    public static boolean isServicoPublico(PeriodoServico.TipoServico tipoServico) {
+        if (tipoServico == null) {
+            return false;
+        }
+        switch (tipoServico) {
+            case ESTATUTARIO:
+            case SERVICO_PUBLICO_FEDERAL:
+            case SERVICO_PUBLICO_ESTADUAL:
+            case SERVICO_PUBLICO_MUNICIPAL:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Total de dias de uma categoria
+     */
+    public long dias(Categoria categoria) {
+        return dias[categoria.ordinal()];
+    }
+
+    /**
+     * Total de anos completos de uma categoria, sem alocações
+     */
+    public int anos(Categoria categoria) {
+        return convencao.anos(dias[categoria.ordinal()]);
+    }
+
+    public PeriodoTempo tempo(Categoria categoria) {
+        return convencao.paraPeriodo(dias[categoria.ordinal()]);
+    }
+
+    /**
+     * Total de dias cobertos por períodos de um tipo de serviço
+     */
+    public long dias(PeriodoServico.TipoServico tipoServico) {
+        return dias[PRIMEIRO_BIT_TIPO + tipoServico.ordinal()];
+    }
+
+    public ConvencaoTempo getConvencao() {
+        return convencao;
+    }
+
+    public PeriodoTempo tempoContribuicao() {
+        return tempo(Categoria.CONTRIBUICAO);
+    }
+
+    public PeriodoTempo tempoServicoPublico() {
+        return tempo(Categoria.SERVICO_PUBLICO);
+    }
+
+    public PeriodoTempo tempoCargo() {
+        return tempo(Categoria.CARGO);
+    }
+
+    public PeriodoTempo tempoMagisterio() {
+        return tempo(Categoria.MAGISTERIO);
+    }
+
+    public PeriodoTempo tempoInsalubre() {
+        return tempo(Categoria.INSALUBRE);
+    }
+
+    /**
+     * Data de fim do período mais recente considerado, ou null se não houver períodos
+     */
+    public LocalDate getFimUltimoVinculo() {
+        return fimUltimoVinculo;
+    }
+
+    /**
+     * Indica se o período mais recente conta para a categoria informada
+     */
+    public boolean ultimoVinculoPertence(Categoria categoria) {
+        return (categoriasUltimoVinculo & categoria.mascara()) != 0;
+    }
+
+    /**
+     * Mesmos dias em cada categoria e tipo e mesmo último vínculo
+     */
+    @Override
+    public boolean equals(Object outro) {
+        return outro instanceof TempoAgregado tempos
+                && Arrays.equals(dias, tempos.dias)
+                && convencao == tempos.convencao
+                && Objects.equals(fimUltimoVinculo, tempos.fimUltimoVinculo)
+                && categoriasUltimoVinculo == tempos.categoriasUltimoVinculo;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(Arrays.hashCode(dias), convencao, fimUltimoVinculo, categoriasUltimoVinculo);
+    }
+}
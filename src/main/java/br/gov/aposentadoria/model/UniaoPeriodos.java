@@ -0,0 +1,133 @@
+package br.gov.aposentadoria.model;
+
+import java.util.Arrays;
+
+/**
+ * Calcula, por varredura de eventos, a união dos dias cobertos pelos períodos
+ * de serviço de um usuário em cada categoria de tempo.
+ *
+ * Cada período é descrito por seu dia inicial, seu dia final exclusivo (ambos
+ * em dias desde a época), uma máscara com as categorias para as quais conta e
+ * seu fator de conversão em milésimos. Dias cobertos por mais de um período
+ * são contados uma única vez, com o maior fator de conversão entre os
+ * períodos ativos naquele trecho, de modo que o resultado não depende da
+ * ordem de cadastro dos períodos. A ordenação dos eventos domina o custo,
+ * O(n log n).
+ *
+ * Os totais são devolvidos em milésimos de dia, o que mantém a soma exata
+ * mesmo com fatores como 1,4 e 1,2.
+ */
+public final class UniaoPeriodos {
+
+    /**
+     * Fator de conversão neutro, em milésimos
+     */
+    public static final int FATOR_UNITARIO = 1000;
+
+    private static final int BITS_INDICE = 20;
+    private static final long MASCARA_INDICE = (1L << BITS_INDICE) - 1;
+    private static final long EVENTO_FIM = 1L << BITS_INDICE;
+    private static final int BITS_EVENTO = BITS_INDICE + 1;
+    private static final long DESLOCAMENTO_DIA = 1L << 22;
+
+    private UniaoPeriodos() {
+    }
+
+    /**
+     * Calcula a união ponderada de dias por categoria, em milésimos de dia
+     *
+     * @param quantidade      número de períodos
+     * @param inicios         dia inicial de cada período (inclusive)
+     * @param finsExclusivos  dia seguinte ao último dia de cada período
+     * @param mascaras        categorias de cada período, um bit por categoria
+     * @param fatores         fator de conversão de cada período, em milésimos
+     * @param totalCategorias número de categorias (bits) considerados
+     */
+    public static long[] calcular(int quantidade, long[] inicios, long[] finsExclusivos,
+                                  int[] mascaras, int[] fatores, int totalCategorias) {
+        if (quantidade > MASCARA_INDICE) {
+            throw new IllegalArgumentException("Quantidade de períodos excede o limite suportado");
+        }
+
+        long[] totais = new long[totalCategorias];
+
+        // Fatores distintos em ordem crescente; cada período aponta para o seu índice
+        int[] fatoresDistintos = distintos(fatores, quantidade);
+        int[] indiceFator = new int[quantidade];
+
+        long[] eventos = new long[quantidade * 2];
+        int totalEventos = 0;
+        for (int i = 0; i < quantidade; i++) {
+            if (finsExclusivos[i] <= inicios[i] || mascaras[i] == 0) {
+                continue;
+            }
+            indiceFator[i] = Arrays.binarySearch(fatoresDistintos, fatores[i]);
+            eventos[totalEventos++] = ((inicios[i] + DESLOCAMENTO_DIA) << BITS_EVENTO) | i;
+            eventos[totalEventos++] = ((finsExclusivos[i] + DESLOCAMENTO_DIA) << BITS_EVENTO) | EVENTO_FIM | i;
+        }
+        Arrays.sort(eventos, 0, totalEventos);
+
+        // Para cada categoria, quantos períodos ativos existem com cada fator
+        int[] ativosPorFator = new int[totalCategorias * fatoresDistintos.length];
+        int[] ativos = new int[totalCategorias];
+        long diaAnterior = 0;
+
+        for (int e = 0; e < totalEventos; e++) {
+            long evento = eventos[e];
+            long dia = (evento >>> BITS_EVENTO) - DESLOCAMENTO_DIA;
+
+            if (e > 0 && dia != diaAnterior) {
+                long comprimento = dia - diaAnterior;
+                for (int categoria = 0; categoria < totalCategorias; categoria++) {
+                    if (ativos[categoria] > 0) {
+                        totais[categoria] += comprimento * maiorFatorAtivo(ativosPorFator, categoria, fatoresDistintos);
+                    }
+                }
+            }
+
+            int indice = (int) (evento & MASCARA_INDICE);
+            int delta = (evento & EVENTO_FIM) != 0 ? -1 : 1;
+            int mascara = mascaras[indice];
+            while (mascara != 0) {
+                int categoria = Integer.numberOfTrailingZeros(mascara);
+                mascara &= mascara - 1;
+                if (categoria < totalCategorias) {
+                    ativos[categoria] += delta;
+                    ativosPorFator[categoria * fatoresDistintos.length + indiceFator[indice]] += delta;
+                }
+            }
+            diaAnterior = dia;
+        }
+
+        return totais;
+    }
+
+    /**
+     * Converte um fator de conversão em milésimos; nulo equivale ao fator unitário
+     */
+    public static int fatorEmMilesimos(Double fator) {
+        return fator != null ? (int) Math.round(fator * FATOR_UNITARIO) : FATOR_UNITARIO;
+    }
+
+    private static int maiorFatorAtivo(int[] ativosPorFator, int categoria, int[] fatoresDistintos) {
+        int base = categoria * fatoresDistintos.length;
+        for (int f = fatoresDistintos.length - 1; f >= 0; f--) {
+            if (ativosPorFator[base + f] > 0) {
+                return fatoresDistintos[f];
+            }
+        }
+        return 0;
+    }
+
+    private static int[] distintos(int[] valores, int quantidade) {
+        int[] ordenados = Arrays.copyOf(valores, quantidade);
+        Arrays.sort(ordenados);
+        int distintos = 0;
+        for (int i = 0; i < quantidade; i++) {
+            if (i == 0 || ordenados[i] != ordenados[i - 1]) {
+                ordenados[distintos++] = ordenados[i];
+            }
+        }
+        return Arrays.copyOf(ordenados, distintos);
+    }
+}
@@ -1,5 +1,6 @@
 package br.gov.aposentadoria.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.quarkus.hibernate.orm.panache.PanacheEntity;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
@@ -47,9 +48,12 @@ public class Usuario extends PanacheEntity {
     @Column(name = "sexo")
     public String sexo;
     
+    // Coleções não serializadas: carregá-las a cada usuário listado não tem limite de tamanho
+    @JsonIgnore
     @OneToMany(mappedBy = "usuario")
     public List<PeriodoServico> periodosServico;
     
+    @JsonIgnore
     @OneToMany(mappedBy = "usuario")
     public List<Simulacao> simulacoes;
 }
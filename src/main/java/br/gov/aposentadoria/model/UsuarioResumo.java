@@ -0,0 +1,30 @@
+package br.gov.aposentadoria.model;
+
+import java.time.LocalDate;
+
+/**
+ * Projeção de leitura de um usuário, sem senha e sem as coleções de períodos
+ * e simulações
+ */
+public record UsuarioResumo(
+        Long id,
+        String nome,
+        String cpf,
+        LocalDate dataNascimento,
+        String email,
+        LocalDate dataIngressoServicoPublico,
+        String cargoAtual,
+        String sexo) {
+
+    public static UsuarioResumo de(Usuario usuario) {
+        return new UsuarioResumo(
+                usuario.id,
+                usuario.nome,
+                usuario.cpf,
+                usuario.dataNascimento,
+                usuario.email,
+                usuario.dataIngressoServicoPublico,
+                usuario.cargoAtual,
+                usuario.sexo);
+    }
+}
@@ -0,0 +1,22 @@
+package br.gov.aposentadoria.repository;
+
+import io.quarkus.hibernate.orm.PersistenceUnitExtension;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Conta os comandos SQL preparados pelo Hibernate na requisição corrente
+ */
+@PersistenceUnitExtension
+@ApplicationScoped
+public class ContadorConsultas implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        EstatisticasRequisicao estatisticas = EstatisticasRequisicao.atual();
+        if (estatisticas != null) {
+            estatisticas.registrarConsulta();
+        }
+        return sql;
+    }
+}
@@ -0,0 +1,23 @@
+package br.gov.aposentadoria.repository;
+
+import io.quarkus.hibernate.orm.PersistenceUnitExtension;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.hibernate.Interceptor;
+import org.hibernate.type.Type;
+
+/**
+ * Conta as entidades hidratadas pelo Hibernate na requisição corrente
+ */
+@PersistenceUnitExtension
+@ApplicationScoped
+public class ContadorEntidadesCarregadas implements Interceptor {
+
+    @Override
+    public boolean onLoad(Object entity, Object id, Object[] state, String[] propertyNames, Type[] types) {
+        EstatisticasRequisicao estatisticas = EstatisticasRequisicao.atual();
+        if (estatisticas != null) {
+            estatisticas.registrarEntidadeCarregada();
+        }
+        return false;
+    }
+}
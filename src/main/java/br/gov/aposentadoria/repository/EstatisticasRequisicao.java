@@ -0,0 +1,41 @@
+package br.gov.aposentadoria.repository;
+
+import io.quarkus.arc.Arc;
+import io.quarkus.arc.ManagedContext;
+import jakarta.enterprise.context.RequestScoped;
+
+/**
+ * Contadores de acesso ao banco da requisição HTTP corrente: comandos SQL
+ * executados e entidades carregadas (linhas hidratadas).
+ */
+@RequestScoped
+public class EstatisticasRequisicao {
+
+    private int consultas;
+    private int entidadesCarregadas;
+
+    public int getConsultas() {
+        return consultas;
+    }
+
+    public int getEntidadesCarregadas() {
+        return entidadesCarregadas;
+    }
+
+    void registrarConsulta() {
+        consultas++;
+    }
+
+    void registrarEntidadeCarregada() {
+        entidadesCarregadas++;
+    }
+
+    /**
+     * Estatísticas da requisição corrente, ou null fora de uma requisição
+     * (por exemplo, em simulações em lote)
+     */
+    static EstatisticasRequisicao atual() {
+        ManagedContext contexto = Arc.container().requestContext();
+        return contexto.isActive() ? Arc.container().instance(EstatisticasRequisicao.class).get() : null;
+    }
+}
@@ -0,0 +1,234 @@
+package br.gov.aposentadoria.repository;
+
+import br.gov.aposentadoria.model.PeriodoServico;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Índice em memória dos períodos de serviço de um usuário para detecção de
+ * concomitância.
+ *
+ * Os períodos são mantidos em uma árvore balanceada (treap) ordenada pela data
+ * de início, em que cada nó guarda também a maior data de fim da sua
+ * subárvore. Assim, subárvores que terminam antes do intervalo consultado são
+ * descartadas sem serem visitadas: verificar se existe sobreposição custa
+ * O(log n) e listar os períodos sobrepostos custa O(log n + k).
+ *
+ * As datas são copiadas no momento da inserção; se um período indexado for
+ * alterado, ele deve ser removido e adicionado novamente.
+ */
+public class IndicePeriodos {
+
+    private No raiz;
+    private long proximaSequencia;
+    private final Map<PeriodoServico, No> nos = new IdentityHashMap<>();
+
+    /**
+     * Cria um índice com os períodos informados
+     */
+    public static IndicePeriodos de(Collection<PeriodoServico> periodos) {
+        IndicePeriodos indice = new IndicePeriodos();
+        for (PeriodoServico periodo : periodos) {
+            indice.adicionar(periodo);
+        }
+        return indice;
+    }
+
+    /**
+     * Adiciona um período ao índice
+     */
+    public void adicionar(PeriodoServico periodo) {
+        if (nos.containsKey(periodo)) {
+            throw new IllegalArgumentException("Período já indexado");
+        }
+        No no = new No(periodo, proximaSequencia++);
+        nos.put(periodo, no);
+        raiz = inserir(raiz, no);
+    }
+
+    /**
+     * Remove um período do índice
+     */
+    public boolean remover(PeriodoServico periodo) {
+        No no = nos.remove(periodo);
+        if (no == null) {
+            return false;
+        }
+        raiz = remover(raiz, no);
+        return true;
+    }
+
+    public int tamanho() {
+        return nos.size();
+    }
+
+    /**
+     * Verifica se algum período indexado, exceto o informado, se sobrepõe ao período
+     */
+    public boolean verificarConcomitancia(PeriodoServico periodo) {
+        return possuiSobreposicao(periodo.dataInicio, periodo.dataFim, periodo);
+    }
+
+    /**
+     * Lista os períodos indexados, exceto o informado, que se sobrepõem ao período
+     */
+    public List<PeriodoServico> listarSobrepostos(PeriodoServico periodo) {
+        return listarSobrepostos(periodo.dataInicio, periodo.dataFim, periodo);
+    }
+
+    /**
+     * Verifica se algum período indexado se sobrepõe ao intervalo [dataInicio, dataFim]
+     */
+    public boolean possuiSobreposicao(LocalDate dataInicio, LocalDate dataFim, PeriodoServico ignorar) {
+        return buscar(raiz, dataInicio.toEpochDay(), dataFim.toEpochDay(), ignorar, null);
+    }
+
+    /**
+     * Lista os períodos indexados que se sobrepõem ao intervalo [dataInicio, dataFim],
+     * em ordem de data de início
+     */
+    public List<PeriodoServico> listarSobrepostos(LocalDate dataInicio, LocalDate dataFim, PeriodoServico ignorar) {
+        List<PeriodoServico> sobrepostos = new ArrayList<>();
+        buscar(raiz, dataInicio.toEpochDay(), dataFim.toEpochDay(), ignorar, sobrepostos);
+        return sobrepostos;
+    }
+
+    /**
+     * Percorre apenas as subárvores que podem conter sobreposições. Quando
+     * nenhuma lista é informada, retorna na primeira sobreposição encontrada.
+     */
+    private static boolean buscar(No no, long inicio, long fim, PeriodoServico ignorar,
+                                  List<PeriodoServico> resultado) {
+        if (no == null || no.maiorFim < inicio) {
+            return false;
+        }
+        boolean encontrado = buscar(no.esquerda, inicio, fim, ignorar, resultado);
+        if (encontrado && resultado == null) {
+            return true;
+        }
+        if (no.inicio > fim) {
+            // Todos os nós à direita começam depois do fim do intervalo
+            return encontrado;
+        }
+        if (no.fim >= inicio && no.periodo != ignorar) {
+            if (resultado == null) {
+                return true;
+            }
+            resultado.add(no.periodo);
+            encontrado = true;
+        }
+        return buscar(no.direita, inicio, fim, ignorar, resultado) || encontrado;
+    }
+
+    private static No inserir(No raiz, No no) {
+        if (raiz == null) {
+            return no;
+        }
+        if (no.compareTo(raiz) < 0) {
+            raiz.esquerda = inserir(raiz.esquerda, no);
+            if (raiz.esquerda.prioridade > raiz.prioridade) {
+                raiz = rotacionarDireita(raiz);
+            }
+        } else {
+            raiz.direita = inserir(raiz.direita, no);
+            if (raiz.direita.prioridade > raiz.prioridade) {
+                raiz = rotacionarEsquerda(raiz);
+            }
+        }
+        raiz.atualizar();
+        return raiz;
+    }
+
+    private static No remover(No raiz, No no) {
+        if (raiz == null) {
+            return null;
+        }
+        int comparacao = no.compareTo(raiz);
+        if (comparacao < 0) {
+            raiz.esquerda = remover(raiz.esquerda, no);
+        } else if (comparacao > 0) {
+            raiz.direita = remover(raiz.direita, no);
+        } else {
+            raiz = unir(raiz.esquerda, raiz.direita);
+        }
+        if (raiz != null) {
+            raiz.atualizar();
+        }
+        return raiz;
+    }
+
+    private static No unir(No esquerda, No direita) {
+        if (esquerda == null) {
+            return direita;
+        }
+        if (direita == null) {
+            return esquerda;
+        }
+        if (esquerda.prioridade > direita.prioridade) {
+            esquerda.direita = unir(esquerda.direita, direita);
+            esquerda.atualizar();
+            return esquerda;
+        }
+        direita.esquerda = unir(esquerda, direita.esquerda);
+        direita.atualizar();
+        return direita;
+    }
+
+    private static No rotacionarDireita(No no) {
+        No esquerda = no.esquerda;
+        no.esquerda = esquerda.direita;
+        esquerda.direita = no;
+        no.atualizar();
+        return esquerda;
+    }
+
+    private static No rotacionarEsquerda(No no) {
+        No direita = no.direita;
+        no.direita = direita.esquerda;
+        direita.esquerda = no;
+        no.atualizar();
+        return direita;
+    }
+
+    private static final class No implements Comparable<No> {
+        final PeriodoServico periodo;
+        final long inicio;
+        final long fim;
+        final long sequencia;
+        final int prioridade = ThreadLocalRandom.current().nextInt();
+        long maiorFim;
+        No esquerda;
+        No direita;
+
+        No(PeriodoServico periodo, long sequencia) {
+            this.periodo = periodo;
+            this.inicio = periodo.dataInicio.toEpochDay();
+            this.fim = periodo.dataFim.toEpochDay();
+            this.sequencia = sequencia;
+            this.maiorFim = fim;
+        }
+
+        void atualizar() {
+            long maior = fim;
+            if (esquerda != null && esquerda.maiorFim > maior) {
+                maior = esquerda.maiorFim;
+            }
+            if (direita != null && direita.maiorFim > maior) {
+                maior = direita.maiorFim;
+            }
+            maiorFim = maior;
+        }
+
+        @Override
+        public int compareTo(No outro) {
+            int comparacao = Long.compare(inicio, outro.inicio);
+            return comparacao != 0 ? comparacao : Long.compare(sequencia, outro.sequencia);
+        }
+    }
+}
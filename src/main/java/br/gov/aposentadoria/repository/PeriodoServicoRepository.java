@@ -1,24 +1,132 @@
 package br.gov.aposentadoria.repository;
 
+import br.gov.aposentadoria.model.CarreirasColunares;
+import br.gov.aposentadoria.model.ConvencaoTempo;
 import br.gov.aposentadoria.model.PeriodoServico;
 import br.gov.aposentadoria.model.PeriodoTempo;
+import br.gov.aposentadoria.model.TempoAgregado;
 import br.gov.aposentadoria.model.Usuario;
+import br.gov.aposentadoria.service.MotorRegrasAposentadoria;
+import io.micrometer.core.annotation.Timed;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.Session;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 @ApplicationScoped
 public class PeriodoServicoRepository implements PanacheRepository<PeriodoServico> {
     
+    private static final int TAMANHO_BUSCA_CARREIRAS = 10_000;
+    
+    private static final String CONSULTA_CARREIRAS = "select u.id, u.sexo, u.data_nascimento, u.cargo_atual,"
+            + " p.data_inicio, p.data_fim, p.tipo_servico, p.cargo, p.fator_conversao, p.tempo_convertido, p.insalubridade,"
+            + " p.orgao_empregador"
+            + " from usuarios u left join periodos_servico p on p.usuario_id = u.id";
+    
+    private static final String SOBREPOSICAO_VIZINHOS = "exists (select 1 from periodos_servico o"
+            + " where o.usuario_id = p.usuario_id and o.id <> p.id"
+            + " and o.data_inicio <= p.data_fim and o.data_fim >= p.data_inicio)";
+    
+    /**
+     * Só as linhas cujo indicador muda são gravadas
+     */
+    private static final String ATUALIZACAO_CONCOMITANCIA = "update periodos_servico p"
+            + " set concomitante = " + SOBREPOSICAO_VIZINHOS
+            + " where p.usuario_id = ?1 and p.data_inicio <= ?2 and p.data_fim >= ?3 and p.id <> ?4"
+            + " and p.concomitante is distinct from " + SOBREPOSICAO_VIZINHOS;
+    
+    @ConfigProperty(name = "simulador.tempo.convencao", defaultValue = "LEGAL")
+    ConvencaoTempo convencaoTempo;
+    
+    @Inject
+    MotorRegrasAposentadoria motorRegras;
+    
+    @Inject
+    ResumoTempoRepository resumoTempoRepository;
+    
     /**
      * Lista todos os períodos de serviço não concomitantes de um usuário
      */
+    @Timed(value = "simulador.repositorio", description = "Tempo das consultas de períodos de serviço")
     public List<PeriodoServico> listarPeriodosNaoConcomitantes(Usuario usuario) {
         return list("usuario = ?1 and concomitante = false", usuario);
     }
     
+    /**
+     * Carrega as carreiras dos usuários informados (ou de todos, se a lista
+     * for nula) em formato colunar. A projeção é lida diretamente do JDBC, em
+     * blocos e em ordem de usuário, sem criar entidades nem ocupar o contexto
+     * de persistência. Deve ser chamado em uma transação, para que o driver
+     * leia o resultado em blocos.
+     */
+    @Timed(value = "simulador.repositorio", description = "Tempo das consultas de períodos de serviço")
+    public CarreirasColunares carregarCarreiras(Collection<Long> usuarioIds) {
+        return getEntityManager().unwrap(Session.class).doReturningWork(conexao -> usuarioIds == null
+                ? lerCarreiras(conexao, "", consulta -> { })
+                : lerCarreiras(conexao, " where u.id = any(?)",
+                        consulta -> consulta.setArray(1, conexao.createArrayOf("bigint", usuarioIds.toArray()))));
+    }
+    
+    /**
+     * Carrega as carreiras dos próximos usuários em ordem de id, a partir do
+     * id informado (exclusivo), para percorrer toda a população em blocos de
+     * tamanho fixo
+     */
+    @Timed(value = "simulador.repositorio", description = "Tempo das consultas de períodos de serviço")
+    public CarreirasColunares carregarCarreiras(long aposUsuarioId, int quantidade) {
+        return getEntityManager().unwrap(Session.class).doReturningWork(conexao -> lerCarreiras(conexao,
+                " where u.id in (select id from usuarios where id > ? order by id limit ?)",
+                consulta -> {
+                    consulta.setLong(1, aposUsuarioId);
+                    consulta.setInt(2, quantidade);
+                }));
+    }
+    
+    private static CarreirasColunares lerCarreiras(Connection conexao, String filtro, ParametrosConsulta parametros)
+            throws SQLException {
+        CarreirasColunares.Construtor construtor = new CarreirasColunares.Construtor();
+        try (PreparedStatement consulta = conexao.prepareStatement(CONSULTA_CARREIRAS + filtro + " order by u.id, p.id")) {
+            parametros.definir(consulta);
+            consulta.setFetchSize(TAMANHO_BUSCA_CARREIRAS);
+            try (ResultSet linhas = consulta.executeQuery()) {
+                long usuarioAtual = Long.MIN_VALUE;
+                while (linhas.next()) {
+                    long usuarioId = linhas.getLong(1);
+                    if (usuarioId != usuarioAtual) {
+                        construtor.adicionarUsuario(usuarioId, linhas.getString(2),
+                                linhas.getObject(3, LocalDate.class), linhas.getString(4));
+                        usuarioAtual = usuarioId;
+                    }
+                    LocalDate inicio = linhas.getObject(5, LocalDate.class);
+                    if (inicio == null) {
+                        // Usuário sem períodos
+                        continue;
+                    }
+                    String tipo = linhas.getString(7);
+                    double fator = linhas.getDouble(9);
+                    Double fatorConversao = linhas.wasNull() ? null : fator;
+                    construtor.adicionarPeriodo(inicio, linhas.getObject(6, LocalDate.class),
+                            tipo != null ? PeriodoServico.TipoServico.valueOf(tipo) : null,
+                            linhas.getString(8),
+                            linhas.getString(12),
+                            fatorConversao,
+                            linhas.getBoolean(10),
+                            linhas.getBoolean(11));
+                }
+            }
+        }
+        return construtor.construir();
+    }
+    
     /**
      * Adiciona um novo período de serviço
      */
@@ -28,28 +136,121 @@ public class PeriodoServicoRepository implements PanacheRepository<PeriodoServic
         periodoServico.concomitante = isConcomitante;
         
         persist(periodoServico);
+        if (isConcomitante) {
+            // Os períodos sobrepostos passam a ser concomitantes com o novo
+            atualizarConcomitancia(periodoServico.usuario, periodoServico.dataInicio, periodoServico.dataFim,
+                    periodoServico.id);
+        }
+        resumoTempoRepository.incluir(periodoServico);
         return periodoServico;
     }
     
     /**
-     * Verifica se um período é concomitante com outros períodos já registrados
+     * Grava um período já alterado, reavalia a concomitância dele e dos
+     * períodos que se sobrepunham ao intervalo anterior ou se sobrepõem ao
+     * novo e atualiza o resumo de tempo do usuário
+     *
+     * @param anterior cópia do período antes da alteração ({@link PeriodoServico#copiar})
      */
-    public boolean verificarConcomitancia(PeriodoServico novoPeriodo) {
-        List<PeriodoServico> periodosExistentes = list(
-            "usuario = ?1 and id != ?2", 
-            novoPeriodo.usuario, 
-            novoPeriodo.id != null ? novoPeriodo.id : -1
-        );
+    public PeriodoServico atualizarPeriodo(PeriodoServico periodo, PeriodoServico anterior) {
+        periodo.concomitante = verificarConcomitancia(periodo);
+        persist(periodo);
         
-        for (PeriodoServico periodoExistente : periodosExistentes) {
-            // Se há sobreposição de datas, é concomitante
-            if (!(novoPeriodo.dataFim.isBefore(periodoExistente.dataInicio) || 
-                  novoPeriodo.dataInicio.isAfter(periodoExistente.dataFim))) {
-                return true;
-            }
+        if (!periodo.dataInicio.equals(anterior.dataInicio) || !periodo.dataFim.equals(anterior.dataFim)) {
+            atualizarConcomitancia(periodo.usuario, anterior.dataInicio, anterior.dataFim, periodo.id);
+            atualizarConcomitancia(periodo.usuario, periodo.dataInicio, periodo.dataFim, periodo.id);
         }
-        
-        return false;
+        resumoTempoRepository.alterar(anterior, periodo);
+        return periodo;
+    }
+    
+    /**
+     * Remove um período, reavalia a concomitância dos que se sobrepunham a ele
+     * e atualiza o resumo de tempo do usuário
+     */
+    public void removerPeriodo(PeriodoServico periodo) {
+        delete(periodo);
+        atualizarConcomitancia(periodo.usuario, periodo.dataInicio, periodo.dataFim, periodo.id);
+        resumoTempoRepository.remover(periodo);
+    }
+    
+    /**
+     * Período do usuário que termina por último; no empate, o de menor id
+     */
+    public PeriodoServico buscarUltimoVinculo(Usuario usuario) {
+        return find("usuario = ?1 order by dataFim desc, id", usuario).firstResult();
+    }
+    
+    /**
+     * Reavalia o indicador de concomitância dos períodos do usuário que se
+     * sobrepõem ao intervalo informado, exceto o período indicado. Apenas
+     * esses vizinhos são consultados, cada um pelo índice de (usuario_id,
+     * data_inicio, data_fim), sem carregar os demais períodos. As alterações
+     * pendentes do contexto de persistência são gravadas antes.
+     *
+     * @return quantidade de períodos cujo indicador mudou
+     */
+    @Timed(value = "simulador.repositorio", description = "Tempo das consultas de períodos de serviço")
+    public int atualizarConcomitancia(Usuario usuario, LocalDate dataInicio, LocalDate dataFim, Long ignorar) {
+        flush();
+        return getEntityManager().createNativeQuery(ATUALIZACAO_CONCOMITANCIA)
+                .setParameter(1, usuario.id)
+                .setParameter(2, dataFim)
+                .setParameter(3, dataInicio)
+                .setParameter(4, ignorar != null ? ignorar : -1L)
+                .executeUpdate();
+    }
+    
+    /**
+     * Verifica se um período é concomitante com outros períodos já registrados.
+     * A sobreposição é resolvida pelo banco, sem carregar os demais períodos.
+     */
+    @Timed(value = "simulador.repositorio", description = "Tempo das consultas de períodos de serviço")
+    public boolean verificarConcomitancia(PeriodoServico novoPeriodo) {
+        return count(
+            "usuario = ?1 and id != ?2 and dataInicio <= ?3 and dataFim >= ?4",
+            novoPeriodo.usuario,
+            novoPeriodo.id != null ? novoPeriodo.id : -1L,
+            novoPeriodo.dataFim,
+            novoPeriodo.dataInicio
+        ) > 0;
+    }
+    
+    /**
+     * Verifica se um período é concomitante usando um índice em memória,
+     * evitando consultas ao banco durante importações em lote
+     */
+    public boolean verificarConcomitancia(PeriodoServico novoPeriodo, IndicePeriodos indice) {
+        return indice.verificarConcomitancia(novoPeriodo);
+    }
+    
+    /**
+     * Lista os períodos já registrados que se sobrepõem ao período informado
+     */
+    @Timed(value = "simulador.repositorio", description = "Tempo das consultas de períodos de serviço")
+    public List<PeriodoServico> listarPeriodosSobrepostos(PeriodoServico periodo) {
+        return list(
+            "usuario = ?1 and id != ?2 and dataInicio <= ?3 and dataFim >= ?4 order by dataInicio",
+            periodo.usuario,
+            periodo.id != null ? periodo.id : -1L,
+            periodo.dataFim,
+            periodo.dataInicio
+        );
+    }
+    
+    /**
+     * Carrega todos os períodos de um usuário em um índice de intervalos
+     */
+    @Timed(value = "simulador.repositorio", description = "Tempo das consultas de períodos de serviço")
+    public IndicePeriodos carregarIndice(Usuario usuario) {
+        return IndicePeriodos.de(list("usuario", usuario));
+    }
+    
+    /**
+     * Busca um período já com o usuário carregado, em uma única consulta
+     */
+    public PeriodoServico buscarComUsuario(Long id) {
+        return find("from PeriodoServico p join fetch p.usuario where p.id = ?1", id).firstResult();
     }
     
     /**
@@ -69,55 +270,42 @@ public class PeriodoServicoRepository implements PanacheRepository<PeriodoServic
             return periodo;
         }
         
-        // Fator de conversão: 1.4 para homens e 1.2 para mulheres
-        Usuario usuario = periodo.usuario;
-        double fator = "M".equals(usuario.sexo) ? 1.4 : 1.2;
+        // Fator de conversão por sexo, definido nas regras de aposentadoria
+        double fator = motorRegras.atual().fatorConversao(periodo.usuario.sexo);
         
+        PeriodoServico anterior = periodo.copiar();
         periodo.tempoConvertido = true;
         periodo.fatorConversao = fator;
         
         persist(periodo);
+        resumoTempoRepository.alterar(anterior, periodo);
         return periodo;
     }
     
     /**
-     * Calcula o tempo total de serviço em uma determinada categoria
+     * Calcula o tempo total de serviço em uma determinada categoria.
+     * Dias cobertos por períodos concomitantes são contados uma única vez.
      */
+    @Timed(value = "simulador.repositorio", description = "Tempo das consultas de períodos de serviço")
     public PeriodoTempo calcularTempoTotal(Usuario usuario, PeriodoServico.TipoServico tipoServico) {
-        List<PeriodoServico> periodos = list(
-            "usuario = ?1 and tipoServico = ?2 and concomitante = false", 
-            usuario, 
-            tipoServico
-        );
-        
-        return periodos.stream()
-                .map(PeriodoServico::calcularTempoComConversao)
-                .reduce(new PeriodoTempo(0, 0, 0), PeriodoTempo::somar);
+        // O resumo de tempo já traz o total de cada tipo de serviço
+        TempoAgregado tempos = resumoTempoRepository.obterTempos(usuario);
+        return convencaoTempo.paraPeriodo(tempos.dias(tipoServico));
     }
     
     /**
      * Calcula o tempo de serviço até uma data específica
      */
+    @Timed(value = "simulador.repositorio", description = "Tempo das consultas de períodos de serviço")
     public PeriodoTempo calcularTempoAteData(Usuario usuario, LocalDate dataLimite) {
-        List<PeriodoServico> periodos = list(
-            "usuario = ?1 and dataInicio <= ?2 and concomitante = false", 
-            usuario, 
-            dataLimite
-        );
+        List<PeriodoServico> periodos = list("usuario = ?1 and dataInicio <= ?2", usuario, dataLimite);
         
-        return periodos.stream()
-                .map(p -> {
-                    // Se o período termina após a data limite, ajustamos a data fim
-                    if (p.dataFim.isAfter(dataLimite)) {
-                        LocalDate dataFimOriginal = p.dataFim;
-                        p.dataFim = dataLimite;
-                        PeriodoTempo resultado = p.calcularTempoComConversao();
-                        p.dataFim = dataFimOriginal; // restauramos o valor original
-                        return resultado;
-                    } else {
-                        return p.calcularTempoComConversao();
-                    }
-                })
-                .reduce(new PeriodoTempo(0, 0, 0), PeriodoTempo::somar);
+        // Períodos que terminam após a data limite são contados apenas até ela
+        return TempoAgregado.calcular(null, periodos, convencaoTempo, dataLimite).tempoContribuicao();
+    }
+    
+    @FunctionalInterface
+    private interface ParametrosConsulta {
+        void definir(PreparedStatement consulta) throws SQLException;
     }
 }
@@ -0,0 +1,193 @@
+package br.gov.aposentadoria.repository;
+
+import br.gov.aposentadoria.model.ConvencaoTempo;
+import br.gov.aposentadoria.model.PeriodoServico;
+import br.gov.aposentadoria.model.ResumoTempoUsuario;
+import br.gov.aposentadoria.model.TempoAgregado;
+import br.gov.aposentadoria.model.Usuario;
+import br.gov.aposentadoria.service.ResumoTempoAtualizado;
+import io.micrometer.core.annotation.Timed;
+import io.quarkus.hibernate.orm.panache.PanacheRepositoryBase;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import jakarta.persistence.LockModeType;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Manutenção dos resumos de tempo ({@link ResumoTempoUsuario}) na mesma
+ * transação que altera os períodos.
+ *
+ * Cada alteração trava a linha do resumo antes de consultar os períodos
+ * sobrepostos, de modo que alterações simultâneas nos períodos do mesmo
+ * usuário são aplicadas uma de cada vez e cada uma vê as anteriores já
+ * gravadas. Para que a trava sempre encontre a linha, ela é criada antes com
+ * {@code insert ... on conflict do nothing}: quem a cria calcula o resumo a
+ * partir de todos os períodos e as transações simultâneas esperam por ela em
+ * vez de falhar na chave primária.
+ */
+@ApplicationScoped
+public class ResumoTempoRepository implements PanacheRepositoryBase<ResumoTempoUsuario, Long> {
+
+    private static final String CRIACAO_RESUMO = "insert into resumo_tempo_usuario (usuario_id,"
+            + " contribuicao, servico_publico, cargo, magisterio, insalubre,"
+            + " tipo_estatutario, tipo_clt, tipo_cres, tipo_servico_publico_federal, tipo_servico_publico_estadual,"
+            + " tipo_servico_publico_municipal, tipo_servico_militar, tipo_insalubre, tipo_magisterio,"
+            + " categorias_ultimo_vinculo, data_atualizacao)"
+            + " values (?1, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, ?2)"
+            + " on conflict (usuario_id) do nothing";
+
+    @ConfigProperty(name = "simulador.tempo.convencao", defaultValue = "LEGAL")
+    ConvencaoTempo convencaoTempo;
+
+    @Inject
+    PeriodoServicoRepository periodoServicoRepository;
+
+    @Inject
+    Event<ResumoTempoAtualizado> resumoAtualizado;
+
+    /**
+     * Tempos do usuário lidos do resumo; se não houver resumo, os períodos
+     * são agregados
+     */
+    @Timed(value = "simulador.repositorio", description = "Tempo das consultas de períodos de serviço")
+    public TempoAgregado obterTempos(Usuario usuario) {
+        ResumoTempoUsuario resumo = findById(usuario.id);
+        if (resumo != null) {
+            return resumo.tempos(convencaoTempo);
+        }
+        return TempoAgregado.calcular(usuario, periodoServicoRepository.list("usuario", usuario), convencaoTempo);
+    }
+
+    /**
+     * Soma ao resumo um período recém-incluído
+     */
+    public void incluir(PeriodoServico periodo) {
+        Usuario usuario = periodo.usuario;
+        if (criar(usuario)) {
+            reconstruir(usuario);
+            return;
+        }
+        ResumoTempoUsuario resumo = travar(usuario);
+
+        resumo.somar(periodo, periodoServicoRepository.listarPeriodosSobrepostos(periodo), usuario.cargoAtual, 1);
+        resumo.considerarUltimoVinculo(periodo, usuario.cargoAtual);
+        gravar(resumo);
+    }
+
+    /**
+     * Substitui no resumo os valores anteriores de um período pelos atuais
+     *
+     * @param anterior cópia do período antes da alteração ({@link PeriodoServico#copiar})
+     */
+    public void alterar(PeriodoServico anterior, PeriodoServico periodo) {
+        Usuario usuario = periodo.usuario;
+        if (criar(usuario)) {
+            reconstruir(usuario);
+            return;
+        }
+        ResumoTempoUsuario resumo = travar(usuario);
+
+        resumo.somar(anterior, periodoServicoRepository.listarPeriodosSobrepostos(anterior), usuario.cargoAtual, -1);
+        resumo.somar(periodo, periodoServicoRepository.listarPeriodosSobrepostos(periodo), usuario.cargoAtual, 1);
+        if (periodo.id.equals(resumo.ultimoVinculoId)) {
+            // O período pode ter deixado de ser o último
+            resumo.definirUltimoVinculo(periodoServicoRepository.buscarUltimoVinculo(usuario), usuario.cargoAtual);
+        } else {
+            resumo.considerarUltimoVinculo(periodo, usuario.cargoAtual);
+        }
+        gravar(resumo);
+    }
+
+    /**
+     * Retira do resumo um período já removido
+     */
+    public void remover(PeriodoServico periodo) {
+        Usuario usuario = periodo.usuario;
+        if (criar(usuario)) {
+            reconstruir(usuario);
+            return;
+        }
+        ResumoTempoUsuario resumo = travar(usuario);
+
+        resumo.somar(periodo, periodoServicoRepository.listarPeriodosSobrepostos(periodo), usuario.cargoAtual, -1);
+        if (periodo.id.equals(resumo.ultimoVinculoId)) {
+            resumo.definirUltimoVinculo(periodoServicoRepository.buscarUltimoVinculo(usuario), usuario.cargoAtual);
+        }
+        gravar(resumo);
+    }
+
+    /**
+     * Recalcula o resumo a partir de todos os períodos do usuário
+     */
+    @Timed(value = "simulador.repositorio", description = "Tempo das consultas de períodos de serviço")
+    public ResumoTempoUsuario reconstruir(Usuario usuario) {
+        ResumoTempoUsuario resumo = travar(usuario);
+        return reconstruir(usuario, resumo, periodoServicoRepository.list("usuario", usuario));
+    }
+
+    /**
+     * Recalcula o resumo a partir dos períodos informados, que devem ser
+     * todos os períodos do usuário já carregados na transação
+     */
+    public ResumoTempoUsuario reconstruir(Usuario usuario, List<PeriodoServico> periodos) {
+        return reconstruir(usuario, travar(usuario), periodos);
+    }
+
+    /**
+     * Próximos usuários sem resumo, em ordem de id, a partir do id informado
+     * (exclusivo)
+     */
+    public List<Long> listarUsuariosSemResumo(long aposUsuarioId, int quantidade) {
+        return getEntityManager().createQuery("select u.id from Usuario u where u.id > ?1"
+                        + " and not exists (select 1 from ResumoTempoUsuario r where r.usuarioId = u.id)"
+                        + " order by u.id", Long.class)
+                .setParameter(1, aposUsuarioId)
+                .setMaxResults(quantidade)
+                .getResultList();
+    }
+
+    /**
+     * Cria o resumo vazio de um usuário que ainda não tem períodos
+     */
+    public void criarVazio(Usuario usuario) {
+        reconstruir(usuario, List.of());
+    }
+
+    private ResumoTempoUsuario reconstruir(Usuario usuario, ResumoTempoUsuario resumo, List<PeriodoServico> periodos) {
+        resumo.recalcular(periodos, usuario.cargoAtual);
+        gravar(resumo);
+        return resumo;
+    }
+
+    /**
+     * Cria a linha do resumo zerada, se ainda não existir. Se outra transação
+     * a estiver criando, espera por ela.
+     *
+     * @return true se a linha foi criada agora e ainda precisa ser calculada
+     */
+    private boolean criar(Usuario usuario) {
+        flush();
+        return getEntityManager().createNativeQuery(CRIACAO_RESUMO)
+                .setParameter(1, usuario.id)
+                .setParameter(2, LocalDateTime.now())
+                .executeUpdate() > 0;
+    }
+
+    /**
+     * Trava a linha do resumo, criando-a antes se necessário
+     */
+    private ResumoTempoUsuario travar(Usuario usuario) {
+        criar(usuario);
+        return findById(usuario.id, LockModeType.PESSIMISTIC_WRITE);
+    }
+
+    private void gravar(ResumoTempoUsuario resumo) {
+        resumo.dataAtualizacao = LocalDateTime.now();
+        persist(resumo);
+        resumoAtualizado.fire(new ResumoTempoAtualizado(resumo.usuarioId, resumo.tempos(convencaoTempo)));
+    }
+}
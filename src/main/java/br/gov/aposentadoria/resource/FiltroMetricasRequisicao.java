@@ -0,0 +1,48 @@
+package br.gov.aposentadoria.resource;
+
+import br.gov.aposentadoria.repository.EstatisticasRequisicao;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.ext.Provider;
+
+/**
+ * Registra, por endpoint, quantos comandos SQL foram executados e quantas
+ * entidades foram carregadas em cada requisição
+ */
+@Provider
+public class FiltroMetricasRequisicao implements ContainerResponseFilter {
+
+    @Inject
+    MeterRegistry registry;
+
+    @Inject
+    EstatisticasRequisicao estatisticas;
+
+    @Context
+    ResourceInfo resourceInfo;
+
+    @Override
+    public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
+        if (resourceInfo.getResourceMethod() == null) {
+            return;
+        }
+        String endpoint = resourceInfo.getResourceClass().getSimpleName() + "." + resourceInfo.getResourceMethod().getName();
+
+        DistributionSummary.builder("simulador.requisicao.consultas")
+                .description("Comandos SQL executados por requisição")
+                .tag("endpoint", endpoint)
+                .register(registry)
+                .record(estatisticas.getConsultas());
+        DistributionSummary.builder("simulador.requisicao.entidades")
+                .description("Entidades carregadas do banco por requisição")
+                .tag("endpoint", endpoint)
+                .register(registry)
+                .record(estatisticas.getEntidadesCarregadas());
+    }
+}
@@ -0,0 +1,135 @@
+package br.gov.aposentadoria.resource;
+
+import br.gov.aposentadoria.model.ImportacaoPeriodos;
+import br.gov.aposentadoria.service.ImportacaoPeriodosService;
+import br.gov.aposentadoria.service.ResultadoImportacao;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.UriInfo;
+import org.eclipse.microprofile.openapi.annotations.Operation;
+import org.eclipse.microprofile.openapi.annotations.tags.Tag;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+
+@Path("/api/periodos-servico/importacoes")
+@Produces(MediaType.APPLICATION_JSON)
+@Tag(name = "Importação de Períodos", description = "Importação em massa de históricos funcionais")
+public class ImportacaoPeriodosResource {
+
+    static final String TIPO_CSV = "text/csv";
+
+    @Inject
+    ImportacaoPeriodosService importacaoPeriodosService;
+
+    @Context
+    UriInfo uriInfo;
+
+    @POST
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Operation(summary = "Criar importação", description = "Registra uma importação vazia, para que o arquivo seja enviado depois em /{id}/registros")
+    public Response criarImportacao(ImportacaoRequest request) {
+        ImportacaoPeriodos.Formato formato = request != null && request.formato != null
+                ? request.formato
+                : ImportacaoPeriodos.Formato.CSV;
+        ImportacaoPeriodos importacao = importacaoPeriodosService.criar(formato);
+        return Response.created(localizacao(importacao)).entity(importacao).build();
+    }
+
+    @POST
+    @Consumes({TIPO_CSV, SaidaNdjson.TIPO})
+    @Operation(summary = "Importar arquivo", description = "Cria uma importação e processa o arquivo CSV ou NDJSON enviado")
+    public Response importar(InputStream entrada, @Context HttpHeaders headers) throws IOException {
+        ImportacaoPeriodos importacao = importacaoPeriodosService.criar(formato(headers.getMediaType()));
+        return processar(importacao, entrada);
+    }
+
+    @POST
+    @Path("/{id}/registros")
+    @Consumes({TIPO_CSV, SaidaNdjson.TIPO})
+    @Operation(summary = "Enviar ou retomar importação", description = "Processa o arquivo a partir do último bloco gravado da importação")
+    public Response retomar(@PathParam("id") Long id, InputStream entrada, @Context HttpHeaders headers) throws IOException {
+        ImportacaoPeriodos importacao = importacaoPeriodosService.buscar(id).orElse(null);
+        if (importacao == null) {
+            return Response.status(Response.Status.NOT_FOUND)
+                    .entity("Importação não encontrada")
+                    .build();
+        }
+
+        if (importacao.status == ImportacaoPeriodos.Status.CONCLUIDA) {
+            return Response.status(Response.Status.CONFLICT)
+                    .entity("Importação já concluída")
+                    .build();
+        }
+
+        if (importacao.formato != formato(headers.getMediaType())) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("O arquivo deve estar no formato " + importacao.formato)
+                    .build();
+        }
+
+        return processar(importacao, entrada);
+    }
+
+    @GET
+    @Path("/{id}")
+    @Operation(summary = "Consultar importação", description = "Consulta o ponto de controle e os totais de uma importação")
+    public Response consultar(@PathParam("id") Long id) {
+        return importacaoPeriodosService.buscar(id)
+                .map(importacao -> Response.ok(importacao).build())
+                .orElseGet(() -> Response.status(Response.Status.NOT_FOUND)
+                        .entity("Importação não encontrada")
+                        .build());
+    }
+
+    private Response processar(ImportacaoPeriodos importacao, InputStream entrada) throws IOException {
+        ResultadoImportacao resultado;
+        try {
+            resultado = importacaoPeriodosService.importar(importacao, entrada);
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(e.getMessage())
+                    .build();
+        } catch (IllegalStateException e) {
+            return Response.status(Response.Status.CONFLICT)
+                    .entity(e.getMessage())
+                    .build();
+        }
+
+        // Em caso de falha o resultado informa até onde o arquivo foi gravado
+        Response.Status status = resultado.status == ImportacaoPeriodos.Status.CONCLUIDA
+                ? Response.Status.OK
+                : Response.Status.INTERNAL_SERVER_ERROR;
+        return Response.status(status)
+                .location(localizacao(importacao))
+                .entity(resultado)
+                .build();
+    }
+
+    private URI localizacao(ImportacaoPeriodos importacao) {
+        return uriInfo.getBaseUriBuilder()
+                .path(ImportacaoPeriodosResource.class)
+                .path(String.valueOf(importacao.id))
+                .build();
+    }
+
+    private static ImportacaoPeriodos.Formato formato(MediaType tipo) {
+        return tipo != null && tipo.isCompatible(MediaType.valueOf(SaidaNdjson.TIPO))
+                ? ImportacaoPeriodos.Formato.NDJSON
+                : ImportacaoPeriodos.Formato.CSV;
+    }
+
+    public static class ImportacaoRequest {
+        public ImportacaoPeriodos.Formato formato;
+    }
+}
@@ -0,0 +1,114 @@
+package br.gov.aposentadoria.resource;
+
+import br.gov.aposentadoria.model.Simulacao;
+import br.gov.aposentadoria.service.LoteSimulacao;
+import br.gov.aposentadoria.service.LoteSimulacaoService;
+import jakarta.inject.Inject;
+import jakarta.validation.Valid;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.UriInfo;
+import org.eclipse.microprofile.openapi.annotations.Operation;
+import org.eclipse.microprofile.openapi.annotations.tags.Tag;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@Path("/api/simulador/lotes")
+@Produces(MediaType.APPLICATION_JSON)
+@Consumes(MediaType.APPLICATION_JSON)
+@Tag(name = "Simulação em Lote", description = "Execução de simulações para todos os usuários de um órgão")
+public class LoteSimulacaoResource {
+
+    @Inject
+    LoteSimulacaoService loteSimulacaoService;
+
+    @POST
+    @Operation(summary = "Submeter lote", description = "Submete a simulação de todos os usuários de um órgão para execução assíncrona")
+    public Response submeterLote(@Valid LoteSimulacaoRequest request, @Context UriInfo uriInfo) {
+        LocalDate dataReferencia = request.dataReferencia != null
+                ? request.dataReferencia
+                : LocalDate.now();
+        boolean persistir = request.persistir == null || request.persistir;
+
+        LoteSimulacao lote = loteSimulacaoService.submeter(
+                request.orgaoEmpregador,
+                request.regras,
+                dataReferencia,
+                persistir);
+
+        return Response.accepted(lote)
+                .location(uriInfo.getAbsolutePathBuilder().path(lote.id).build())
+                .build();
+    }
+
+    @GET
+    @Path("/{id}")
+    @Operation(summary = "Consultar lote", description = "Consulta o andamento de um lote de simulações")
+    public Response consultarLote(@PathParam("id") String id) {
+        return loteSimulacaoService.buscar(id)
+                .map(lote -> Response.ok(lote).build())
+                .orElseGet(() -> Response.status(Response.Status.NOT_FOUND)
+                        .entity("Lote não encontrado")
+                        .build());
+    }
+
+    @GET
+    @Path("/{id}/resultado")
+    @Operation(summary = "Resultado do lote", description = "Retorna o resultado consolidado de um lote finalizado")
+    public Response resultadoLote(@PathParam("id") String id) {
+        LoteSimulacao lote = loteSimulacaoService.buscar(id).orElse(null);
+        if (lote == null) {
+            return Response.status(Response.Status.NOT_FOUND)
+                    .entity("Lote não encontrado")
+                    .build();
+        }
+
+        if (!lote.isFinalizado()) {
+            return Response.status(Response.Status.CONFLICT)
+                    .entity("Lote ainda em execução")
+                    .build();
+        }
+
+        return Response.ok(new LoteSimulacaoResultado(lote)).build();
+    }
+
+    public static class LoteSimulacaoRequest {
+        public String orgaoEmpregador;
+        public List<Simulacao.RegraAposentadoria> regras;
+        public LocalDate dataReferencia;
+        public Boolean persistir;
+    }
+
+    public static class LoteSimulacaoResultado {
+        public String id;
+        public LoteSimulacao.Status status;
+        public int totalUsuarios;
+        public int usuariosProcessados;
+        public int usuariosComFalha;
+        public double usuariosPorSegundo;
+        public Map<Simulacao.RegraAposentadoria, Long> elegiveisPorRegra;
+        public List<Long> usuariosFalhos;
+        public String erro;
+
+        public LoteSimulacaoResultado(LoteSimulacao lote) {
+            this.id = lote.id;
+            this.status = lote.getStatus();
+            this.totalUsuarios = lote.getTotalUsuarios();
+            this.usuariosProcessados = lote.getUsuariosProcessados();
+            this.usuariosComFalha = lote.getUsuariosComFalha();
+            this.usuariosPorSegundo = lote.getUsuariosPorSegundo();
+            this.elegiveisPorRegra = lote.getElegiveisPorRegra();
+            this.usuariosFalhos = lote.getUsuariosFalhos();
+            this.erro = lote.getErro();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package br.gov.aposentadoria.resource;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Página de uma listagem paginada por cursor (keyset). O cursor é o id do
+ * último item retornado; a próxima página começa no primeiro id maior que ele,
+ * de modo que o custo de cada página independe da sua posição na listagem.
+ */
+public class PaginaResponse<T> {
+
+    /**
+     * Maior número de itens aceito por página
+     */
+    static final int LIMITE_MAXIMO = 500;
+
+    public List<T> itens;
+    public Long proximoCursor;
+
+    /**
+     * Monta a página a partir de uma consulta que buscou até limite + 1 itens;
+     * o item excedente apenas indica que há uma próxima página
+     */
+    static <T> PaginaResponse<T> de(List<T> resultado, int limite, Function<T, Long> id) {
+        PaginaResponse<T> pagina = new PaginaResponse<>();
+        if (resultado.size() > limite) {
+            pagina.itens = resultado.subList(0, limite);
+            pagina.proximoCursor = id.apply(pagina.itens.get(limite - 1));
+        } else {
+            pagina.itens = resultado;
+        }
+        return pagina;
+    }
+
+    /**
+     * Ajusta o limite solicitado ao intervalo aceito
+     */
+    static int limite(int limite) {
+        return Math.max(1, Math.min(limite, LIMITE_MAXIMO));
+    }
+
+    /**
+     * Cursor inicial quando nenhum é informado
+     */
+    static long cursor(Long cursor) {
+        return cursor != null ? cursor : Long.MIN_VALUE;
+    }
+}
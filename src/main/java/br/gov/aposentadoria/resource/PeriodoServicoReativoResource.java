@@ -0,0 +1,86 @@
+package br.gov.aposentadoria.resource;
+
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import jakarta.inject.Inject;
+import jakarta.validation.Valid;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.DELETE;
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.PUT;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import org.eclipse.microprofile.openapi.annotations.Operation;
+import org.eclipse.microprofile.openapi.annotations.tags.Tag;
+
+/**
+ * Caminho alternativo dos endpoints de períodos de serviço, atendido em
+ * threads virtuais. As alterações usam as mesmas transações e invalidações
+ * de {@link PeriodoServicoResource}.
+ */
+@Path("/api/reativo/periodos-servico")
+@Produces(MediaType.APPLICATION_JSON)
+@Consumes(MediaType.APPLICATION_JSON)
+@Tag(name = "Períodos de Serviço (threads virtuais)", description = "API de períodos de serviço atendida em threads virtuais")
+public class PeriodoServicoReativoResource {
+
+    @Inject
+    PeriodoServicoResource periodos;
+
+    @GET
+    @Path("/usuario/{id}")
+    @Operation(summary = "Listar períodos de serviço", description = "Lista os períodos de serviço de um usuário, paginados por cursor")
+    @RunOnVirtualThread
+    public Response listarPeriodosPorUsuario(
+            @PathParam("id") Long usuarioId,
+            @QueryParam("cursor") Long cursor,
+            @QueryParam("limite") @DefaultValue("50") int limite) {
+        return periodos.listarPeriodosPorUsuario(usuarioId, cursor, limite);
+    }
+
+    @POST
+    @Operation(summary = "Adicionar período de serviço", description = "Adiciona um novo período de serviço para um usuário")
+    @RunOnVirtualThread
+    public Response adicionarPeriodo(@Valid PeriodoServicoResource.PeriodoServicoRequest request) {
+        return periodos.adicionarPeriodo(request);
+    }
+
+    @PUT
+    @Path("/{id}")
+    @Operation(summary = "Atualizar período de serviço", description = "Atualiza um período de serviço existente")
+    @RunOnVirtualThread
+    public Response atualizarPeriodo(
+            @PathParam("id") Long periodoId,
+            @Valid PeriodoServicoResource.PeriodoServicoRequest request) {
+        return periodos.atualizarPeriodo(periodoId, request);
+    }
+
+    @DELETE
+    @Path("/{id}")
+    @Operation(summary = "Remover período de serviço", description = "Remove um período de serviço existente")
+    @RunOnVirtualThread
+    public Response removerPeriodo(@PathParam("id") Long periodoId) {
+        return periodos.removerPeriodo(periodoId);
+    }
+
+    @POST
+    @Path("/{id}/converter-tempo")
+    @Operation(summary = "Converter tempo especial", description = "Aplica fatores de conversão de tempo especial para tempo comum")
+    @RunOnVirtualThread
+    public Response converterTempoEspecial(@PathParam("id") Long periodoId) {
+        return periodos.converterTempoEspecial(periodoId);
+    }
+
+    @GET
+    @Path("/usuario/{id}/tempo-total")
+    @Operation(summary = "Calcular tempo total", description = "Calcula o tempo total de serviço de um usuário, contando uma única vez os dias de períodos concomitantes")
+    @RunOnVirtualThread
+    public Response calcularTempoTotal(@PathParam("id") Long usuarioId) {
+        return periodos.calcularTempoTotal(usuarioId);
+    }
+}
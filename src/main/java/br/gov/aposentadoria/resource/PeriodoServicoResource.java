@@ -1,24 +1,32 @@
 package br.gov.aposentadoria.resource;
 
+import br.gov.aposentadoria.model.PeriodoServicoResumo;
 import br.gov.aposentadoria.model.PeriodoServico;
 import br.gov.aposentadoria.model.PeriodoTempo;
 import br.gov.aposentadoria.model.Usuario;
 import br.gov.aposentadoria.repository.PeriodoServicoRepository;
+import br.gov.aposentadoria.service.ResumoTempoService;
+import br.gov.aposentadoria.service.SimuladorService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.quarkus.panache.common.Sort;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 import jakarta.validation.Valid;
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.DELETE;
+import jakarta.ws.rs.DefaultValue;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.PUT;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import org.eclipse.microprofile.openapi.annotations.Operation;
 import org.eclipse.microprofile.openapi.annotations.tags.Tag;
+import org.hibernate.jpa.HibernateHints;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -31,11 +39,23 @@ public class PeriodoServicoResource {
 
     @Inject
     PeriodoServicoRepository periodoServicoRepository;
+    
+    @Inject
+    SimuladorService simuladorService;
+    
+    @Inject
+    ResumoTempoService resumoTempoService;
+    
+    @Inject
+    ObjectMapper objectMapper;
 
     @GET
     @Path("/usuario/{id}")
-    @Operation(summary = "Listar períodos de serviço", description = "Lista todos os períodos de serviço de um usuário")
-    public Response listarPeriodosPorUsuario(@PathParam("id") Long usuarioId) {
+    @Operation(summary = "Listar períodos de serviço", description = "Lista os períodos de serviço de um usuário, paginados por cursor")
+    public Response listarPeriodosPorUsuario(
+            @PathParam("id") Long usuarioId,
+            @QueryParam("cursor") Long cursor,
+            @QueryParam("limite") @DefaultValue("50") int limite) {
         Usuario usuario = Usuario.findById(usuarioId);
         if (usuario == null) {
             return Response.status(Response.Status.NOT_FOUND)
@@ -43,8 +63,30 @@ public class PeriodoServicoResource {
                     .build();
         }
         
-        List<PeriodoServico> periodos = PeriodoServico.list("usuario.id", usuarioId);
-        return Response.ok(periodos).build();
+        int tamanho = PaginaResponse.limite(limite);
+        List<PeriodoServicoResumo> periodos = PeriodoServico.find("usuario.id = ?1 and id > ?2", Sort.by("id"),
+                        usuarioId, PaginaResponse.cursor(cursor))
+                .project(PeriodoServicoResumo.class)
+                .range(0, tamanho)
+                .list();
+        return Response.ok(PaginaResponse.de(periodos, tamanho, PeriodoServicoResumo::id)).build();
+    }
+    
+    @GET
+    @Path("/usuario/{id}/stream")
+    @Produces(SaidaNdjson.TIPO)
+    @Operation(summary = "Exportar períodos de serviço", description = "Transmite os períodos de serviço de um usuário como NDJSON, um por linha")
+    public Response exportarPeriodosPorUsuario(@PathParam("id") Long usuarioId) {
+        if (Usuario.findById(usuarioId) == null) {
+            return Response.status(Response.Status.NOT_FOUND)
+                    .entity("Usuário não encontrado")
+                    .build();
+        }
+        
+        return Response.ok(SaidaNdjson.de(objectMapper, () -> PeriodoServico.find("usuario.id = ?1 order by id", usuarioId)
+                .project(PeriodoServicoResumo.class)
+                .withHint(HibernateHints.HINT_FETCH_SIZE, SaidaNdjson.TAMANHO_BUSCA)
+                .stream())).build();
     }
     
     @POST
@@ -78,7 +120,7 @@ public class PeriodoServicoResource {
         PeriodoServico periodoSalvo = periodoServicoRepository.adicionarPeriodo(periodo);
         
         return Response.status(Response.Status.CREATED)
-                .entity(periodoSalvo)
+                .entity(PeriodoServicoResumo.de(periodoSalvo))
                 .build();
     }
     
@@ -104,6 +146,7 @@ public class PeriodoServicoResource {
                     .build();
         }
         
+        PeriodoServico anterior = periodo.copiar();
         periodo.dataInicio = request.dataInicio;
         periodo.dataFim = request.dataFim;
         periodo.orgaoEmpregador = request.orgaoEmpregador;
@@ -112,13 +155,10 @@ public class PeriodoServicoResource {
         periodo.numeroPortaria = request.numeroPortaria;
         periodo.insalubridade = request.insalubridade != null ? request.insalubridade : false;
         
-        // Verificar concomitância novamente
-        boolean isConcomitante = periodoServicoRepository.verificarConcomitancia(periodo);
-        periodo.concomitante = isConcomitante;
-        
-        periodo.persist();
+        // Reavalia a concomitância do período e dos vizinhos e atualiza o resumo de tempo
+        periodoServicoRepository.atualizarPeriodo(periodo, anterior);
         
-        return Response.ok(periodo).build();
+        return Response.ok(PeriodoServicoResumo.de(periodo)).build();
     }
     
     @DELETE
@@ -133,7 +173,7 @@ public class PeriodoServicoResource {
                     .build();
         }
         
-        periodo.delete();
+        periodoServicoRepository.removerPeriodo(periodo);
         
         return Response.noContent().build();
     }
@@ -143,7 +183,7 @@ public class PeriodoServicoResource {
     @Transactional
     @Operation(summary = "Converter tempo especial", description = "Aplica fatores de conversão de tempo especial para tempo comum")
     public Response converterTempoEspecial(@PathParam("id") Long periodoId) {
-        PeriodoServico periodo = PeriodoServico.findById(periodoId);
+        PeriodoServico periodo = periodoServicoRepository.buscarComUsuario(periodoId);
         if (periodo == null) {
             return Response.status(Response.Status.NOT_FOUND)
                     .entity("Período de serviço não encontrado")
@@ -158,12 +198,12 @@ public class PeriodoServicoResource {
         
         PeriodoServico periodoConvertido = periodoServicoRepository.aplicarConversaoTempo(periodo);
         
-        return Response.ok(periodoConvertido).build();
+        return Response.ok(PeriodoServicoResumo.de(periodoConvertido)).build();
     }
     
     @GET
     @Path("/usuario/{id}/tempo-total")
-    @Operation(summary = "Calcular tempo total", description = "Calcula o tempo total de serviço não concomitante de um usuário")
+    @Operation(summary = "Calcular tempo total", description = "Calcula o tempo total de serviço de um usuário, contando uma única vez os dias de períodos concomitantes")
     public Response calcularTempoTotal(@PathParam("id") Long usuarioId) {
         Usuario usuario = Usuario.findById(usuarioId);
         if (usuario == null) {
@@ -172,15 +212,19 @@ public class PeriodoServicoResource {
                     .build();
         }
         
-        List<PeriodoServico> periodos = periodoServicoRepository.listarPeriodosNaoConcomitantes(usuario);
-        
-        PeriodoTempo tempoTotal = periodos.stream()
-                .map(PeriodoServico::calcularTempoComConversao)
-                .reduce(new PeriodoTempo(0, 0, 0), PeriodoTempo::somar);
+        // Dias cobertos por períodos concomitantes são contados uma única vez
+        PeriodoTempo tempoTotal = simuladorService.obterTempos(usuario).tempoContribuicao();
         
         return Response.ok(new TempoTotalResponse(tempoTotal)).build();
     }
     
+    @POST
+    @Path("/resumos/verificacao")
+    @Operation(summary = "Verificar resumos de tempo", description = "Compara o resumo de tempo de cada usuário com a agregação dos seus períodos e, com corrigir=true, reconstrói os resumos ausentes ou divergentes")
+    public Response verificarResumos(@QueryParam("corrigir") @DefaultValue("false") boolean corrigir) {
+        return Response.ok(resumoTempoService.verificar(corrigir)).build();
+    }
+    
     public static class PeriodoServicoRequest {
         public Long usuarioId;
         public LocalDate dataInicio;
@@ -0,0 +1,53 @@
+package br.gov.aposentadoria.resource;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.quarkus.hibernate.orm.panache.Panache;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.ws.rs.core.StreamingOutput;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Escreve o resultado de uma consulta como NDJSON (um objeto JSON por linha)
+ * à medida que as linhas são lidas do banco.
+ *
+ * A consulta é percorrida por cursor dentro de uma transação própria, aberta
+ * durante a escrita da resposta, e o contexto de persistência é limpo a cada
+ * bloco de itens, de modo que a memória usada não depende do tamanho da tabela.
+ */
+final class SaidaNdjson {
+
+    static final String TIPO = "application/x-ndjson";
+
+    /**
+     * Linhas buscadas do banco a cada ida e volta
+     */
+    static final int TAMANHO_BUSCA = 500;
+
+    private SaidaNdjson() {
+    }
+
+    static StreamingOutput de(ObjectMapper objectMapper, Supplier<? extends Stream<?>> consulta) {
+        return saida -> QuarkusTransaction.requiringNew().run(() -> {
+            try (Stream<?> itens = consulta.get()) {
+                Iterator<?> iterador = itens.iterator();
+                int escritos = 0;
+                while (iterador.hasNext()) {
+                    saida.write(objectMapper.writeValueAsBytes(iterador.next()));
+                    saida.write('\n');
+                    if (++escritos % TAMANHO_BUSCA == 0) {
+                        saida.flush();
+                        Panache.getEntityManager().clear();
+                    }
+                }
+                saida.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+}
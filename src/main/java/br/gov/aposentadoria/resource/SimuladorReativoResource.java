@@ -0,0 +1,95 @@
+package br.gov.aposentadoria.resource;
+
+import br.gov.aposentadoria.model.Simulacao;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import jakarta.inject.Inject;
+import jakarta.validation.Valid;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import org.eclipse.microprofile.openapi.annotations.Operation;
+import org.eclipse.microprofile.openapi.annotations.tags.Tag;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Caminho alternativo dos endpoints do simulador, atendido em threads
+ * virtuais em vez das threads de trabalho, com as mesmas regras e respostas
+ * de {@link SimuladorResource}. Existe para comparar os dois modelos sob
+ * carga (ver {@link br.gov.aposentadoria.cli.TesteCarga}); os endpoints
+ * originais continuam bloqueantes.
+ */
+@Path("/api/reativo/simulador")
+@Produces(MediaType.APPLICATION_JSON)
+@Consumes(MediaType.APPLICATION_JSON)
+@Tag(name = "Simulador de Aposentadoria (threads virtuais)", description = "API de simulação de aposentadoria atendida em threads virtuais")
+public class SimuladorReativoResource {
+
+    @Inject
+    SimuladorResource simulador;
+
+    @POST
+    @Path("/executar")
+    @Operation(summary = "Executar simulação", description = "Executa uma simulação de aposentadoria com base nos parâmetros fornecidos")
+    @RunOnVirtualThread
+    public Response executarSimulacao(@Valid SimuladorResource.SimulacaoRequest request) {
+        return simulador.executarSimulacao(request);
+    }
+
+    @POST
+    @Path("/executar-todas")
+    @Operation(summary = "Executar simulação de todas as regras", description = "Executa a simulação de aposentadoria para todas as regras disponíveis")
+    @RunOnVirtualThread
+    public Response executarSimulacaoTodasRegras(@Valid SimuladorResource.SimulacaoTodasRegrasRequest request) {
+        return simulador.executarSimulacaoTodasRegras(request);
+    }
+
+    @GET
+    @Path("/usuario/{id}/previsao")
+    @Operation(summary = "Prever aposentadoria", description = "Calcula a data mais próxima em que cada regra de aposentadoria será cumprida, sem registrar simulações")
+    @RunOnVirtualThread
+    public Response preverAposentadoria(
+            @PathParam("id") Long usuarioId,
+            @QueryParam("dataReferencia") LocalDate dataReferencia) {
+        return simulador.preverAposentadoria(usuarioId, dataReferencia);
+    }
+
+    @GET
+    @Path("/usuario/{id}/linha-tempo")
+    @Operation(summary = "Linha do tempo de elegibilidade", description = "Indica, mês a mês, em quais regras o usuário seria elegível, sem registrar simulações")
+    @RunOnVirtualThread
+    public Response linhaTempo(
+            @PathParam("id") Long usuarioId,
+            @QueryParam("inicio") String inicio,
+            @QueryParam("meses") @DefaultValue("180") int meses,
+            @QueryParam("regra") List<Simulacao.RegraAposentadoria> regras) {
+        return simulador.linhaTempo(usuarioId, inicio, meses, regras);
+    }
+
+    @GET
+    @Path("/usuario/{id}/simulacoes")
+    @Operation(summary = "Listar simulações", description = "Lista as simulações realizadas por um usuário, paginadas por cursor")
+    @RunOnVirtualThread
+    public Response listarSimulacoes(
+            @PathParam("id") Long usuarioId,
+            @QueryParam("cursor") Long cursor,
+            @QueryParam("limite") @DefaultValue("50") int limite) {
+        return simulador.listarSimulacoes(usuarioId, cursor, limite);
+    }
+
+    @GET
+    @Path("/simulacao/{id}")
+    @Operation(summary = "Buscar simulação", description = "Busca uma simulação pelo ID")
+    @RunOnVirtualThread
+    public Response buscarSimulacao(@PathParam("id") Long simulacaoId) {
+        return simulador.buscarSimulacao(simulacaoId);
+    }
+}
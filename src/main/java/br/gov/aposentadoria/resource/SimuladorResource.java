@@ -1,13 +1,26 @@
 package br.gov.aposentadoria.resource;
 
-import br.gov.aposentadoria.model.PeriodoServico;
+import br.gov.aposentadoria.model.SimulacaoResumo;
 import br.gov.aposentadoria.model.Simulacao;
+import br.gov.aposentadoria.model.TempoAgregado;
 import br.gov.aposentadoria.model.Usuario;
+import br.gov.aposentadoria.service.AvaliacaoElegibilidadeService;
+import br.gov.aposentadoria.service.CacheTemposUsuario;
+import br.gov.aposentadoria.service.GravacaoSimulacoes;
+import br.gov.aposentadoria.service.LinhaTempoAposentadoria;
+import br.gov.aposentadoria.service.MatrizElegibilidade;
+import br.gov.aposentadoria.service.MotorRegrasAposentadoria;
+import br.gov.aposentadoria.service.RegrasAposentadoria;
+import br.gov.aposentadoria.service.RelatorioElegibilidade;
+import br.gov.aposentadoria.service.ProjecaoAposentadoria;
 import br.gov.aposentadoria.service.SimuladorService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.quarkus.panache.common.Sort;
 import jakarta.inject.Inject;
-import jakarta.transaction.Transactional;
 import jakarta.validation.Valid;
 import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.DefaultValue;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
@@ -18,9 +31,20 @@ import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import org.eclipse.microprofile.openapi.annotations.Operation;
 import org.eclipse.microprofile.openapi.annotations.tags.Tag;
+import org.hibernate.jpa.HibernateHints;
 
+import java.io.IOException;
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.IntStream;
 
 @Path("/api/simulador")
 @Produces(MediaType.APPLICATION_JSON)
@@ -28,8 +52,27 @@ import java.util.List;
 @Tag(name = "Simulador de Aposentadoria", description = "API para simulação de aposentadoria")
 public class SimuladorResource {
 
+    static final int MAXIMO_MESES_LINHA_TEMPO = 600;
+
+    static final int MAXIMO_ANOS_RELATORIO = 50;
+
     @Inject
     SimuladorService simuladorService;
+    
+    @Inject
+    CacheTemposUsuario cacheTemposUsuario;
+    
+    @Inject
+    AvaliacaoElegibilidadeService avaliacaoElegibilidadeService;
+    
+    @Inject
+    MotorRegrasAposentadoria motorRegras;
+    
+    @Inject
+    GravacaoSimulacoes gravacaoSimulacoes;
+    
+    @Inject
+    ObjectMapper objectMapper;
 
     @GET
     @Operation(summary = "Endpoint de teste", description = "Verifica se o serviço está disponível")
@@ -40,7 +83,6 @@ public class SimuladorResource {
     @POST
     @Path("/executar")
     @Operation(summary = "Executar simulação", description = "Executa uma simulação de aposentadoria com base nos parâmetros fornecidos")
-    @Transactional
     public Response executarSimulacao(
             @Valid SimulacaoRequest request) {
         
@@ -52,33 +94,205 @@ public class SimuladorResource {
                     .build();
         }
         
-        // Buscar períodos de serviço
-        List<PeriodoServico> periodosServico = PeriodoServico.list("usuario.id", usuario.id);
-        
         // Data de referência (hoje se não fornecida)
         LocalDate dataReferencia = request.dataReferencia != null 
                 ? request.dataReferencia 
                 : LocalDate.now();
         
         // Executar simulação
-        Simulacao simulacao = simuladorService.executarSimulacao(
-                usuario, 
-                periodosServico, 
-                request.regraAposentadoria,
-                dataReferencia);
+        // Tempos agregados (períodos carregados apenas se não estiverem em cache)
+        TempoAgregado tempos = simuladorService.obterTempos(usuario);
+        String nomeSimulacao = request.nomeSimulacao != null && !request.nomeSimulacao.isEmpty() ? request.nomeSimulacao : null;
+        Simulacao simulacao;
+        if (gravacaoSimulacoes.assincrona()) {
+            // Calculada fora de transação e gravada em segundo plano
+            try {
+                simulacao = simuladorService.executarSimulacaoAssincrona(usuario, tempos,
+                        request.regraAposentadoria, dataReferencia, request.remuneracao, nomeSimulacao);
+            } catch (RejectedExecutionException e) {
+                return filaCheia(e);
+            }
+        } else {
+            simulacao = simuladorService.executarSimulacao(usuario, tempos,
+                    request.regraAposentadoria, dataReferencia, request.remuneracao, nomeSimulacao);
+        }
+        
+        return Response.ok(SimulacaoResumo.de(simulacao)).build();
+    }
+    
+    @POST
+    @Path("/executar-todas")
+    @Operation(summary = "Executar simulação de todas as regras", description = "Executa a simulação de aposentadoria para todas as regras disponíveis, carregando os dados do usuário uma única vez")
+    public Response executarSimulacaoTodasRegras(
+            @Valid SimulacaoTodasRegrasRequest request) {
         
-        if (request.nomeSimulacao != null && !request.nomeSimulacao.isEmpty()) {
-            simulacao.nomeSimulacao = request.nomeSimulacao;
-            simulacao.persist();
+        // Buscar usuário
+        Usuario usuario = Usuario.findById(request.usuarioId);
+        if (usuario == null) {
+            return Response.status(Response.Status.NOT_FOUND)
+                    .entity("Usuário não encontrado")
+                    .build();
         }
         
-        return Response.ok(simulacao).build();
+        // Data de referência (hoje se não fornecida)
+        LocalDate dataReferencia = request.dataReferencia != null 
+                ? request.dataReferencia 
+                : LocalDate.now();
+        
+        // Tempos agregados uma única vez para todas as regras
+        TempoAgregado tempos = simuladorService.obterTempos(usuario);
+        String nomeSimulacao = request.nomeSimulacao != null && !request.nomeSimulacao.isEmpty() ? request.nomeSimulacao : null;
+        List<Simulacao> simulacoes;
+        if (gravacaoSimulacoes.assincrona()) {
+            try {
+                simulacoes = simuladorService.executarSimulacaoTodasRegrasAssincrona(
+                        usuario, tempos, dataReferencia, nomeSimulacao, request.remuneracao);
+            } catch (RejectedExecutionException e) {
+                return filaCheia(e);
+            }
+        } else {
+            simulacoes = simuladorService.executarSimulacaoTodasRegras(
+                    usuario, tempos, dataReferencia, nomeSimulacao, request.remuneracao);
+        }
+        
+        return Response.ok(simulacoes.stream().map(SimulacaoResumo::de).toList()).build();
+    }
+    
+    @GET
+    @Path("/usuario/{id}/previsao")
+    @Operation(summary = "Prever aposentadoria", description = "Calcula a data mais próxima em que cada regra de aposentadoria será cumprida, sem registrar simulações")
+    public Response preverAposentadoria(
+            @PathParam("id") Long usuarioId,
+            @QueryParam("dataReferencia") LocalDate dataReferencia) {
+        Usuario usuario = Usuario.findById(usuarioId);
+        if (usuario == null) {
+            return Response.status(Response.Status.NOT_FOUND)
+                    .entity("Usuário não encontrado")
+                    .build();
+        }
+        
+        LocalDate referencia = dataReferencia != null ? dataReferencia : LocalDate.now();
+        
+        ProjecaoAposentadoria projecao = simuladorService.projetar(
+                usuario, simuladorService.obterTempos(usuario), referencia);
+        
+        Map<Simulacao.RegraAposentadoria, LocalDate> previsoes = new EnumMap<>(Simulacao.RegraAposentadoria.class);
+        for (Simulacao.RegraAposentadoria regra : Simulacao.RegraAposentadoria.values()) {
+            previsoes.put(regra, projecao.calcularDataPrevisao(regra));
+        }
+        
+        return Response.ok(previsoes).build();
+    }
+    
+    @GET
+    @Path("/usuario/{id}/linha-tempo")
+    @Operation(summary = "Linha do tempo de elegibilidade", description = "Indica, mês a mês, em quais regras o usuário seria elegível, sem registrar simulações")
+    public Response linhaTempo(
+            @PathParam("id") Long usuarioId,
+            @QueryParam("inicio") String inicio,
+            @QueryParam("meses") @DefaultValue("180") int meses,
+            @QueryParam("regra") List<Simulacao.RegraAposentadoria> regras) {
+        if (meses < 1 || meses > MAXIMO_MESES_LINHA_TEMPO) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("O número de meses deve estar entre 1 e " + MAXIMO_MESES_LINHA_TEMPO)
+                    .build();
+        }
+        
+        YearMonth mesInicial;
+        try {
+            mesInicial = inicio != null ? YearMonth.parse(inicio) : YearMonth.now();
+        } catch (DateTimeParseException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("Mês inicial inválido, use o formato AAAA-MM")
+                    .build();
+        }
+        
+        Usuario usuario = Usuario.findById(usuarioId);
+        if (usuario == null) {
+            return Response.status(Response.Status.NOT_FOUND)
+                    .entity("Usuário não encontrado")
+                    .build();
+        }
+        
+        // Os tempos são agregados uma única vez e projetados a partir do mês inicial
+        ProjecaoAposentadoria projecao = simuladorService.projetar(
+                usuario, simuladorService.obterTempos(usuario), mesInicial.atDay(1));
+        List<Simulacao.RegraAposentadoria> regrasLinhaTempo = regras == null || regras.isEmpty()
+                ? Arrays.asList(Simulacao.RegraAposentadoria.values())
+                : regras.stream().distinct().toList();
+        
+        return Response.ok(LinhaTempoAposentadoria.calcular(projecao, mesInicial, meses, regrasLinhaTempo)).build();
+    }
+    
+    @POST
+    @Path("/avaliacoes")
+    @Operation(summary = "Avaliar elegibilidade", description = "Avalia em paralelo a elegibilidade de cada combinação de usuário, regra e data de referência, sem registrar simulações")
+    public Response avaliarElegibilidade(AvaliacaoRequest request) {
+        if (request == null || request.usuarioIds == null || request.usuarioIds.isEmpty()
+                || request.datasReferencia == null || request.datasReferencia.isEmpty()) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("Informe ao menos um usuário e uma data de referência")
+                    .build();
+        }
+        
+        List<Simulacao.RegraAposentadoria> regras = request.regras == null || request.regras.isEmpty()
+                ? Arrays.asList(Simulacao.RegraAposentadoria.values())
+                : request.regras.stream().distinct().toList();
+        
+        MatrizElegibilidade matriz;
+        try {
+            matriz = avaliacaoElegibilidadeService.avaliar(
+                    request.usuarioIds.stream().distinct().toList(), regras, request.datasReferencia);
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(e.getMessage())
+                    .build();
+        }
+        
+        return Response.ok(new AvaliacaoResponse(matriz)).build();
+    }
+    
+    @GET
+    @Path("/relatorios/elegibilidade")
+    @Operation(summary = "Relatório de elegibilidade", description = "Percorre toda a população e conta, por ano, quantos usuários passam a cumprir cada regra, por sexo, órgão empregador e tipo de serviço do vínculo mais recente, sem registrar simulações")
+    public Response relatorioElegibilidade(
+            @QueryParam("regra") List<Simulacao.RegraAposentadoria> regras,
+            @QueryParam("dataReferencia") LocalDate dataReferencia,
+            @QueryParam("anoFinal") Integer anoFinal) {
+        LocalDate referencia = dataReferencia != null ? dataReferencia : LocalDate.now();
+        int ano = anoFinal != null ? anoFinal : referencia.getYear() + 10;
+        if (ano < referencia.getYear() || ano > referencia.getYear() + MAXIMO_ANOS_RELATORIO) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("O ano final deve estar entre " + referencia.getYear() + " e "
+                            + (referencia.getYear() + MAXIMO_ANOS_RELATORIO))
+                    .build();
+        }
+        
+        List<Simulacao.RegraAposentadoria> regrasRelatorio = regras == null || regras.isEmpty()
+                ? Arrays.asList(Simulacao.RegraAposentadoria.values())
+                : regras.stream().distinct().toList();
+        
+        return Response.ok(new RelatorioElegibilidadeResponse(
+                avaliacaoElegibilidadeService.gerarRelatorio(regrasRelatorio, referencia, ano))).build();
+    }
+    
+    @GET
+    @Path("/avaliacoes/carreiras")
+    @Produces(MediaType.APPLICATION_OCTET_STREAM)
+    @Operation(summary = "Exportar carreiras", description = "Exporta usuários e períodos de toda a população no formato binário de ArquivoCarreiras, para avaliações fora do servidor")
+    public Response exportarCarreiras() throws IOException {
+        return Response.ok(avaliacaoElegibilidadeService.exportarCarreiras().toFile())
+                .header("Content-Disposition", "attachment; filename=\"carreiras.bin\"")
+                .build();
     }
     
     @GET
     @Path("/usuario/{id}/simulacoes")
-    @Operation(summary = "Listar simulações", description = "Lista todas as simulações realizadas por um usuário")
-    public Response listarSimulacoes(@PathParam("id") Long usuarioId) {
+    @Operation(summary = "Listar simulações", description = "Lista as simulações realizadas por um usuário, paginadas por cursor")
+    public Response listarSimulacoes(
+            @PathParam("id") Long usuarioId,
+            @QueryParam("cursor") Long cursor,
+            @QueryParam("limite") @DefaultValue("50") int limite) {
         Usuario usuario = Usuario.findById(usuarioId);
         if (usuario == null) {
             return Response.status(Response.Status.NOT_FOUND)
@@ -86,15 +300,45 @@ public class SimuladorResource {
                     .build();
         }
         
-        List<Simulacao> simulacoes = Simulacao.list("usuario.id", usuarioId);
-        return Response.ok(simulacoes).build();
+        int tamanho = PaginaResponse.limite(limite);
+        List<SimulacaoResumo> simulacoes = Simulacao.find("usuario.id = ?1 and id > ?2", Sort.by("id"),
+                        usuarioId, PaginaResponse.cursor(cursor))
+                .project(SimulacaoResumo.class)
+                .range(0, tamanho)
+                .list();
+        return Response.ok(PaginaResponse.de(simulacoes, tamanho, SimulacaoResumo::id)).build();
+    }
+    
+    @GET
+    @Path("/usuario/{id}/simulacoes/stream")
+    @Produces(SaidaNdjson.TIPO)
+    @Operation(summary = "Exportar simulações", description = "Transmite as simulações de um usuário como NDJSON, uma por linha")
+    public Response exportarSimulacoes(@PathParam("id") Long usuarioId) {
+        if (Usuario.findById(usuarioId) == null) {
+            return Response.status(Response.Status.NOT_FOUND)
+                    .entity("Usuário não encontrado")
+                    .build();
+        }
+        
+        return Response.ok(SaidaNdjson.de(objectMapper, () -> Simulacao.find("usuario.id = ?1 order by id", usuarioId)
+                .project(SimulacaoResumo.class)
+                .withHint(HibernateHints.HINT_FETCH_SIZE, SaidaNdjson.TAMANHO_BUSCA)
+                .stream())).build();
     }
     
     @GET
     @Path("/simulacao/{id}")
     @Operation(summary = "Buscar simulação", description = "Busca uma simulação pelo ID")
     public Response buscarSimulacao(@PathParam("id") Long simulacaoId) {
-        Simulacao simulacao = Simulacao.findById(simulacaoId);
+        // Aceita e ainda na fila de gravação
+        Simulacao pendente = gravacaoSimulacoes.buscarPendente(simulacaoId);
+        if (pendente != null) {
+            return Response.ok(SimulacaoResumo.de(pendente)).build();
+        }
+        
+        SimulacaoResumo simulacao = Simulacao.find("id", simulacaoId)
+                .project(SimulacaoResumo.class)
+                .firstResult();
         if (simulacao == null) {
             return Response.status(Response.Status.NOT_FOUND)
                     .entity("Simulação não encontrada")
@@ -104,10 +348,176 @@ public class SimuladorResource {
         return Response.ok(simulacao).build();
     }
     
+    @GET
+    @Path("/cache/tempos")
+    @Operation(summary = "Estatísticas do cache de tempos", description = "Retorna acertos, falhas e remoções do cache de tempos agregados por usuário")
+    public Response estatisticasCacheTempos() {
+        return Response.ok(new EstatisticasCacheResponse(cacheTemposUsuario)).build();
+    }
+    
+    @GET
+    @Path("/regras")
+    @Operation(summary = "Regras em vigor", description = "Retorna a versão e a definição das regras de aposentadoria em vigor")
+    public Response regrasEmVigor() {
+        return Response.ok(motorRegras.atual().definicao()).build();
+    }
+    
+    @POST
+    @Path("/regras/recarregar")
+    @Operation(summary = "Recarregar regras", description = "Relê o arquivo de regras de aposentadoria sem reiniciar a aplicação")
+    public Response recarregarRegras() throws IOException {
+        RegrasAposentadoria regras;
+        try {
+            regras = motorRegras.recarregar();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(e.getMessage())
+                    .build();
+        }
+        
+        return Response.ok(regras.definicao()).build();
+    }
+    
+    /**
+     * Fila de gravação cheia: o cliente deve tentar novamente em instantes
+     */
+    private static Response filaCheia(RejectedExecutionException e) {
+        return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                .header("Retry-After", 1)
+                .entity(e.getMessage())
+                .build();
+    }
+    
     public static class SimulacaoRequest {
         public Long usuarioId;
         public String nomeSimulacao;
         public Simulacao.RegraAposentadoria regraAposentadoria;
         public LocalDate dataReferencia;
+        public Double remuneracao;
+    }
+    
+    public static class SimulacaoTodasRegrasRequest {
+        public Long usuarioId;
+        public String nomeSimulacao;
+        public LocalDate dataReferencia;
+        public Double remuneracao;
+    }
+    
+    public static class AvaliacaoRequest {
+        public List<Long> usuarioIds;
+        public List<Simulacao.RegraAposentadoria> regras;
+        public List<LocalDate> datasReferencia;
+    }
+    
+    /**
+     * Para cada usuário e regra, a elegibilidade em cada data, na ordem de
+     * {@code datasReferencia}; {@code elegiveisPorRegra} soma os usuários
+     * elegíveis em cada data
+     */
+    public static class AvaliacaoResponse {
+        public List<LocalDate> datasReferencia;
+        public Map<Simulacao.RegraAposentadoria, int[]> elegiveisPorRegra = new EnumMap<>(Simulacao.RegraAposentadoria.class);
+        public List<AvaliacaoUsuario> usuarios;
+        
+        public AvaliacaoResponse(MatrizElegibilidade matriz) {
+            List<Simulacao.RegraAposentadoria> regras = matriz.getRegras();
+            int datas = matriz.getDatas().size();
+            this.datasReferencia = matriz.getDatas();
+            this.usuarios = new ArrayList<>(matriz.getUsuarioIds().size());
+            for (int u = 0; u < matriz.getUsuarioIds().size(); u++) {
+                AvaliacaoUsuario usuario = new AvaliacaoUsuario();
+                usuario.usuarioId = matriz.getUsuarioIds().get(u);
+                for (int r = 0; r < regras.size(); r++) {
+                    boolean[] elegivel = new boolean[datas];
+                    for (int d = 0; d < datas; d++) {
+                        elegivel[d] = matriz.elegivel(u, r, d);
+                    }
+                    usuario.elegibilidade.put(regras.get(r), elegivel);
+                }
+                this.usuarios.add(usuario);
+            }
+            for (int r = 0; r < regras.size(); r++) {
+                int[] elegiveis = new int[datas];
+                for (int d = 0; d < datas; d++) {
+                    elegiveis[d] = matriz.contarElegiveis(r, d);
+                }
+                this.elegiveisPorRegra.put(regras.get(r), elegiveis);
+            }
+        }
+    }
+    
+    public static class AvaliacaoUsuario {
+        public Long usuarioId;
+        public Map<Simulacao.RegraAposentadoria, boolean[]> elegibilidade = new EnumMap<>(Simulacao.RegraAposentadoria.class);
+    }
+    
+    /**
+     * Para cada regra, quantos usuários passam a cumprir a regra em cada ano,
+     * na ordem de {@code anos}, no total e por sexo, órgão empregador e tipo de
+     * serviço do vínculo mais recente
+     */
+    public static class RelatorioElegibilidadeResponse {
+        public LocalDate dataReferencia;
+        public String versaoRegras;
+        public long usuarios;
+        public int[] anos;
+        public Map<Simulacao.RegraAposentadoria, RelatorioRegra> regras = new EnumMap<>(Simulacao.RegraAposentadoria.class);
+        
+        public RelatorioElegibilidadeResponse(RelatorioElegibilidade relatorio) {
+            this.dataReferencia = relatorio.getDataReferencia();
+            this.versaoRegras = relatorio.getVersaoRegras();
+            this.usuarios = relatorio.getUsuarios();
+            this.anos = IntStream.rangeClosed(relatorio.getAnoInicial(), relatorio.getAnoFinal()).toArray();
+            for (int r = 0; r < relatorio.getRegras().size(); r++) {
+                RelatorioRegra regra = new RelatorioRegra();
+                regra.total = new Histograma(relatorio.total(r));
+                relatorio.porSexo(r).forEach((sexo, contagem) -> regra.porSexo.put(sexo, new Histograma(contagem)));
+                relatorio.porOrgao(r).forEach((orgao, contagem) -> regra.porOrgao.put(orgao, new Histograma(contagem)));
+                relatorio.porTipoServico(r).forEach((tipo, contagem) -> regra.porTipoServico.put(tipo, new Histograma(contagem)));
+                this.regras.put(relatorio.getRegras().get(r), regra);
+            }
+        }
+    }
+    
+    public static class RelatorioRegra {
+        public Histograma total;
+        public Map<String, Histograma> porSexo = new LinkedHashMap<>();
+        public Map<String, Histograma> porOrgao = new LinkedHashMap<>();
+        public Map<String, Histograma> porTipoServico = new LinkedHashMap<>();
+    }
+    
+    /**
+     * Usuários que passam a cumprir a regra em cada ano do relatório e os que
+     * não a cumprem até o ano final
+     */
+    public static class Histograma {
+        public long[] elegiveisPorAno;
+        public long naoElegiveis;
+        
+        public Histograma(long[] contagem) {
+            this.elegiveisPorAno = Arrays.copyOf(contagem, contagem.length - 1);
+            this.naoElegiveis = contagem[contagem.length - 1];
+        }
+    }
+    
+    public static class EstatisticasCacheResponse {
+        public long tamanho;
+        public long acertos;
+        public long falhas;
+        public double taxaAcerto;
+        public long remocoesPorLimite;
+        public long invalidacoes;
+        public long atualizacoesIncrementais;
+        
+        public EstatisticasCacheResponse(CacheTemposUsuario cache) {
+            CacheStats estatisticas = cache.estatisticas();
+            this.tamanho = cache.tamanho();
+            this.acertos = estatisticas.hitCount();
+            this.falhas = estatisticas.missCount();
+            this.taxaAcerto = estatisticas.hitRate();
+            this.remocoesPorLimite = estatisticas.evictionCount();
+            this.invalidacoes = cache.invalidacoes();
+            this.atualizacoesIncrementais = cache.atualizacoes();
+        }
     }
 }
@@ -1,22 +1,33 @@
 package br.gov.aposentadoria.resource;
 
+import br.gov.aposentadoria.model.UsuarioResumo;
 import br.gov.aposentadoria.model.Usuario;
+import br.gov.aposentadoria.repository.ResumoTempoRepository;
+import br.gov.aposentadoria.service.PeriodosUsuarioAlterados;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.quarkus.panache.common.Sort;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 import jakarta.validation.Valid;
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.DELETE;
+import jakarta.ws.rs.DefaultValue;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.PUT;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import org.eclipse.microprofile.openapi.annotations.Operation;
+import org.hibernate.jpa.HibernateHints;
 import org.eclipse.microprofile.openapi.annotations.tags.Tag;
 
 import java.util.List;
+import java.util.Objects;
 
 @Path("/api/usuarios")
 @Produces(MediaType.APPLICATION_JSON)
@@ -24,11 +35,37 @@ import java.util.List;
 @Tag(name = "Usuários", description = "Gerenciamento de usuários do sistema")
 public class UsuarioResource {
 
+    @Inject
+    Event<PeriodosUsuarioAlterados> periodosAlterados;
+    
+    @Inject
+    ResumoTempoRepository resumoTempoRepository;
+    
+    @Inject
+    ObjectMapper objectMapper;
+
+    @GET
+    @Operation(summary = "Listar usuários", description = "Lista os usuários cadastrados, paginados por cursor")
+    public Response listarUsuarios(
+            @QueryParam("cursor") Long cursor,
+            @QueryParam("limite") @DefaultValue("50") int limite) {
+        int tamanho = PaginaResponse.limite(limite);
+        List<UsuarioResumo> usuarios = Usuario.find("id > ?1", Sort.by("id"), PaginaResponse.cursor(cursor))
+                .project(UsuarioResumo.class)
+                .range(0, tamanho)
+                .list();
+        return Response.ok(PaginaResponse.de(usuarios, tamanho, UsuarioResumo::id)).build();
+    }
+    
     @GET
-    @Operation(summary = "Listar usuários", description = "Lista todos os usuários cadastrados")
-    public Response listarUsuarios() {
-        List<Usuario> usuarios = Usuario.listAll();
-        return Response.ok(usuarios).build();
+    @Path("/stream")
+    @Produces(SaidaNdjson.TIPO)
+    @Operation(summary = "Exportar usuários", description = "Transmite todos os usuários como NDJSON, um por linha")
+    public Response exportarUsuarios() {
+        return Response.ok(SaidaNdjson.de(objectMapper, () -> Usuario.find("order by id")
+                .project(UsuarioResumo.class)
+                .withHint(HibernateHints.HINT_FETCH_SIZE, SaidaNdjson.TAMANHO_BUSCA)
+                .stream())).build();
     }
     
     @GET
@@ -42,7 +79,7 @@ public class UsuarioResource {
                     .build();
         }
         
-        return Response.ok(usuario).build();
+        return Response.ok(UsuarioResumo.de(usuario)).build();
     }
     
     @POST
@@ -64,9 +101,10 @@ public class UsuarioResource {
         }
         
         usuario.persist();
+        resumoTempoRepository.criarVazio(usuario);
         
         return Response.status(Response.Status.CREATED)
-                .entity(usuario)
+                .entity(UsuarioResumo.de(usuario))
                 .build();
     }
     
@@ -96,6 +134,9 @@ public class UsuarioResource {
                     .build();
         }
         
+        // O cargo atual determina o tempo no cargo
+        boolean cargoAlterado = !Objects.equals(usuario.cargoAtual, novoUsuario.cargoAtual);
+        
         // Atualizar campos
         usuario.nome = novoUsuario.nome;
         usuario.cpf = novoUsuario.cpf;
@@ -107,8 +148,12 @@ public class UsuarioResource {
         usuario.sexo = novoUsuario.sexo;
         
         usuario.persist();
+        if (cargoAlterado) {
+            resumoTempoRepository.reconstruir(usuario);
+        }
+        periodosAlterados.fire(new PeriodosUsuarioAlterados(id));
         
-        return Response.ok(usuario).build();
+        return Response.ok(UsuarioResumo.de(usuario)).build();
     }
     
     @DELETE
@@ -124,6 +169,7 @@ public class UsuarioResource {
         }
         
         usuario.delete();
+        periodosAlterados.fire(new PeriodosUsuarioAlterados(id));
         
         return Response.noContent().build();
     }
@@ -0,0 +1,179 @@
+package br.gov.aposentadoria.service;
+
+import br.gov.aposentadoria.model.ArquivoCarreiras;
+import br.gov.aposentadoria.model.CarreirasColunares;
+import br.gov.aposentadoria.model.Simulacao;
+import br.gov.aposentadoria.model.Usuario;
+import br.gov.aposentadoria.repository.PeriodoServicoRepository;
+import io.micrometer.core.annotation.Timed;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Avalia a elegibilidade de vários usuários, regras e datas de referência de
+ * uma vez, para análises do tipo "e se".
+ *
+ * Usuários e períodos são carregados com uma única projeção JDBC, em formato
+ * colunar ({@link CarreirasColunares}); em seguida as células são calculadas
+ * em um {@link ForkJoinPool} dedicado, fora da transação e sem gravar
+ * simulações.
+ */
+@ApplicationScoped
+public class AvaliacaoElegibilidadeService {
+
+    @Inject
+    SimuladorService simuladorService;
+
+    @Inject
+    PeriodoServicoRepository periodoServicoRepository;
+
+    /**
+     * Threads do pool de avaliação; 0 usa o número de processadores
+     */
+    @ConfigProperty(name = "simulador.avaliacao.paralelismo", defaultValue = "0")
+    int paralelismo;
+
+    @ConfigProperty(name = "simulador.avaliacao.maximo-celulas", defaultValue = "200000")
+    int maximoCelulas;
+
+    /**
+     * Usuários lidos do banco a cada bloco do relatório de elegibilidade
+     */
+    @ConfigProperty(name = "simulador.relatorio.tamanho-bloco", defaultValue = "2000")
+    int tamanhoBlocoRelatorio;
+
+    /**
+     * Arquivo da última exportação de carreiras; sem ele, fica no diretório
+     * temporário
+     */
+    @ConfigProperty(name = "simulador.exportacao.arquivo")
+    Optional<Path> arquivoExportacao;
+
+    @ConfigProperty(name = "simulador.exportacao.validade", defaultValue = "PT10M")
+    Duration validadeExportacao;
+
+    @ConfigProperty(name = "simulador.exportacao.tamanho-bloco", defaultValue = "5000")
+    int tamanhoBlocoExportacao;
+
+    private ForkJoinPool pool;
+
+    @PostConstruct
+    void inicializar() {
+        pool = new ForkJoinPool(paralelismo > 0 ? paralelismo : Runtime.getRuntime().availableProcessors());
+    }
+
+    @PreDestroy
+    void finalizar() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Avalia todas as combinações dos usuários, regras e datas informados.
+     * Usuários inexistentes são ignorados.
+     *
+     * @throws IllegalArgumentException se a matriz exceder o número máximo de células
+     */
+    @Timed(value = "simulador.avaliar-matriz", description = "Tempo de avaliação de uma matriz de elegibilidade")
+    public MatrizElegibilidade avaliar(List<Long> usuarioIds, List<Simulacao.RegraAposentadoria> regras,
+                                       List<LocalDate> datas) {
+        long celulas = (long) usuarioIds.size() * regras.size() * datas.size();
+        if (celulas > maximoCelulas) {
+            throw new IllegalArgumentException("A avaliação excede o limite de " + maximoCelulas + " combinações");
+        }
+
+        CarreirasColunares carreiras = QuarkusTransaction.requiringNew()
+                .call(() -> periodoServicoRepository.carregarCarreiras(usuarioIds));
+
+        return pool.submit(() -> MatrizElegibilidade.calcular(simuladorService, carreiras, regras, datas)).join();
+    }
+
+    /**
+     * Percorre toda a população em blocos de tamanho fixo, cada um lido em uma
+     * transação própria e avaliado em paralelo, e acumula os histogramas do
+     * relatório. Apenas um bloco fica em memória por vez, e todos os blocos
+     * usam a mesma versão das regras.
+     */
+    @Timed(value = "simulador.relatorio-elegibilidade", description = "Tempo de geração do relatório de elegibilidade da população")
+    public RelatorioElegibilidade gerarRelatorio(List<Simulacao.RegraAposentadoria> regras, LocalDate dataReferencia,
+                                                 int anoFinal) {
+        RegrasAposentadoria regrasAposentadoria = simuladorService.regras();
+        RelatorioElegibilidade relatorio = new RelatorioElegibilidade(regras, dataReferencia, anoFinal,
+                regrasAposentadoria.versao());
+
+        long ultimoUsuario = Long.MIN_VALUE;
+        while (true) {
+            long aposUsuario = ultimoUsuario;
+            CarreirasColunares bloco = QuarkusTransaction.requiringNew()
+                    .call(() -> periodoServicoRepository.carregarCarreiras(aposUsuario, tamanhoBlocoRelatorio));
+            int usuarios = bloco.quantidadeUsuarios();
+            if (usuarios == 0) {
+                return relatorio;
+            }
+
+            relatorio.somar(pool.submit(() -> IntStream.range(0, usuarios).parallel().collect(
+                    relatorio::vazio,
+                    (parcial, u) -> {
+                        Usuario usuario = bloco.usuario(u);
+                        int ultimoVinculo = bloco.ultimoVinculo(u);
+                        parcial.registrar(usuario,
+                                ultimoVinculo >= 0 ? bloco.orgaoEmpregador(ultimoVinculo) : null,
+                                ultimoVinculo >= 0 ? bloco.tipoServico(ultimoVinculo) : null,
+                                new ProjecaoAposentadoria(regrasAposentadoria, usuario,
+                                        simuladorService.agregarTempos(bloco, u), dataReferencia));
+                    },
+                    RelatorioElegibilidade::somar)).join());
+            ultimoUsuario = bloco.usuarioId(usuarios - 1);
+        }
+    }
+
+    /**
+     * Arquivo ({@link ArquivoCarreiras}) com as carreiras de todos os usuários.
+     *
+     * A última exportação é reaproveitada enquanto tiver menos de
+     * {@code simulador.exportacao.validade}. Para gerar outra, a população é
+     * lida em blocos, cada um em uma transação própria, e gravada coluna a
+     * coluna em disco, de modo que apenas um bloco fica em memória por vez.
+     * As exportações são feitas uma de cada vez; quem pede durante uma
+     * exportação espera por ela e recebe o mesmo arquivo.
+     */
+    @Timed(value = "simulador.exportar-carreiras", description = "Tempo de exportação das carreiras de todos os usuários")
+    public synchronized Path exportarCarreiras() throws IOException {
+        Path arquivo = arquivoExportacao.orElseGet(() -> Path.of(System.getProperty("java.io.tmpdir"), "simulador-carreiras.bin"));
+        if (Files.exists(arquivo)
+                && Files.getLastModifiedTime(arquivo).toInstant().plus(validadeExportacao).isAfter(Instant.now())) {
+            return arquivo;
+        }
+
+        try (ArquivoCarreiras.Gravador gravador = new ArquivoCarreiras.Gravador(arquivo)) {
+            long ultimoUsuario = Long.MIN_VALUE;
+            while (true) {
+                long aposUsuario = ultimoUsuario;
+                CarreirasColunares bloco = QuarkusTransaction.requiringNew()
+                        .call(() -> periodoServicoRepository.carregarCarreiras(aposUsuario, tamanhoBlocoExportacao));
+                int usuarios = bloco.quantidadeUsuarios();
+                if (usuarios == 0) {
+                    break;
+                }
+                gravador.adicionar(bloco);
+                ultimoUsuario = bloco.usuarioId(usuarios - 1);
+            }
+            gravador.concluir();
+        }
+        return arquivo;
+    }
+}
@@ -0,0 +1,95 @@
+package br.gov.aposentadoria.service;
+
+import br.gov.aposentadoria.model.CarreirasColunares;
+import br.gov.aposentadoria.model.ConvencaoTempo;
+import br.gov.aposentadoria.model.Simulacao;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Número de usuários elegíveis em cada regra e data de referência, para toda
+ * uma população, com regras que podem ser diferentes das que estão em vigor.
+ *
+ * Diferente de {@link MatrizElegibilidade}, não guarda a elegibilidade de cada
+ * usuário: cada thread soma os elegíveis dos usuários que avalia em um vetor
+ * próprio, e os vetores são somados no fim. A memória usada não depende do
+ * tamanho da população, e as carreiras podem vir de um arquivo mapeado
+ * ({@link br.gov.aposentadoria.model.ArquivoCarreiras}) sem acessar o banco.
+ */
+public final class AvaliacaoPopulacao {
+
+    private final String versaoRegras;
+    private final List<Simulacao.RegraAposentadoria> regras;
+    private final List<LocalDate> datas;
+    private final int usuarios;
+    private final long[] elegiveis;
+
+    private AvaliacaoPopulacao(String versaoRegras, List<Simulacao.RegraAposentadoria> regras,
+                               List<LocalDate> datas, int usuarios, long[] elegiveis) {
+        this.versaoRegras = versaoRegras;
+        this.regras = regras;
+        this.datas = datas;
+        this.usuarios = usuarios;
+        this.elegiveis = elegiveis;
+    }
+
+    /**
+     * Avalia todos os usuários usando o pool de fork-join da thread atual (ou
+     * o pool comum, fora de um pool)
+     */
+    public static AvaliacaoPopulacao avaliar(CarreirasColunares carreiras, RegrasAposentadoria regrasAposentadoria,
+                                             ConvencaoTempo convencao, List<Simulacao.RegraAposentadoria> regras,
+                                             List<LocalDate> datas) {
+        LocalDate inicio = Collections.min(datas);
+        long[] dias = datas.stream().mapToLong(LocalDate::toEpochDay).toArray();
+        Simulacao.RegraAposentadoria[] regrasAvaliadas = regras.toArray(Simulacao.RegraAposentadoria[]::new);
+
+        long[] elegiveis = IntStream.range(0, carreiras.quantidadeUsuarios()).parallel().collect(
+                () -> new long[regrasAvaliadas.length * dias.length],
+                (contagem, usuario) -> {
+                    ProjecaoAposentadoria projecao = new ProjecaoAposentadoria(regrasAposentadoria,
+                            carreiras.usuario(usuario), carreiras.agregar(usuario, convencao, null), inicio);
+                    for (int r = 0; r < regrasAvaliadas.length; r++) {
+                        for (int d = 0; d < dias.length; d++) {
+                            if (projecao.elegivel(regrasAvaliadas[r], dias[d])) {
+                                contagem[r * dias.length + d]++;
+                            }
+                        }
+                    }
+                },
+                (total, parcial) -> {
+                    for (int i = 0; i < total.length; i++) {
+                        total[i] += parcial[i];
+                    }
+                });
+
+        return new AvaliacaoPopulacao(regrasAposentadoria.versao(), List.copyOf(regras), List.copyOf(datas),
+                carreiras.quantidadeUsuarios(), elegiveis);
+    }
+
+    public String getVersaoRegras() {
+        return versaoRegras;
+    }
+
+    public List<Simulacao.RegraAposentadoria> getRegras() {
+        return regras;
+    }
+
+    public List<LocalDate> getDatas() {
+        return datas;
+    }
+
+    public int quantidadeUsuarios() {
+        return usuarios;
+    }
+
+    /**
+     * Número de usuários elegíveis pelas posições da regra e da data
+     */
+    public long elegiveis(int regra, int data) {
+        return elegiveis[regra * datas.size() + data];
+    }
+}
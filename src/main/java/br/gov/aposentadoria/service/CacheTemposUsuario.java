@@ -0,0 +1,129 @@
+package br.gov.aposentadoria.service;
+
+import br.gov.aposentadoria.model.TempoAgregado;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Mantém os tempos agregados de cada usuário, com limite de tamanho e
+ * expiração por tempo.
+ *
+ * Quando o resumo de tempo do usuário é atualizado
+ * ({@link ResumoTempoAtualizado}), a entrada passa a ter os novos tempos após
+ * o commit; outras alterações ({@link PeriodosUsuarioAlterados}) removem a
+ * entrada ao fim da transação. Em ambos os casos nenhuma leitura posterior vê
+ * dados anteriores ao commit, e um contador de versão impede que um cálculo
+ * iniciado antes da alteração seja guardado depois dela.
+ */
+@ApplicationScoped
+public class CacheTemposUsuario {
+
+    @ConfigProperty(name = "simulador.cache.tempos.tamanho-maximo", defaultValue = "10000")
+    long tamanhoMaximo;
+
+    @ConfigProperty(name = "simulador.cache.tempos.expiracao", defaultValue = "PT30M")
+    Duration expiracao;
+
+    private Cache<Long, TempoAgregado> tempos;
+    private ConcurrentMap<Long, TempoAgregado> mapa;
+    private final AtomicLong versao = new AtomicLong();
+    private final AtomicLong invalidacoes = new AtomicLong();
+    private final AtomicLong atualizacoes = new AtomicLong();
+
+    @PostConstruct
+    void inicializar() {
+        tempos = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterWrite(expiracao)
+                .recordStats()
+                .build();
+        mapa = tempos.asMap();
+        // Acertos, falhas e remoções publicados em /q/metrics
+        CaffeineCacheMetrics.monitor(Metrics.globalRegistry, tempos, "tempos-usuario");
+    }
+
+    /**
+     * Retorna os tempos do usuário, calculando-os se não estiverem em cache
+     */
+    public TempoAgregado obter(Long usuarioId, Supplier<TempoAgregado> calculo) {
+        TempoAgregado existente = tempos.getIfPresent(usuarioId);
+        if (existente != null) {
+            return existente;
+        }
+
+        long versaoInicial = versao.get();
+        TempoAgregado calculado = calculo.get();
+        // Verificação e gravação atômicas em relação à invalidação do mesmo usuário
+        mapa.compute(usuarioId, (id, atual) -> versao.get() == versaoInicial ? calculado : atual);
+        return calculado;
+    }
+
+    /**
+     * Substitui os tempos do usuário, se estiverem em cache, pelos já
+     * calculados
+     */
+    public void atualizar(Long usuarioId, TempoAgregado calculado) {
+        mapa.compute(usuarioId, (id, atual) -> {
+            versao.incrementAndGet();
+            if (atual == null) {
+                return null;
+            }
+            atualizacoes.incrementAndGet();
+            return calculado;
+        });
+    }
+
+    public void invalidar(Long usuarioId) {
+        mapa.compute(usuarioId, (id, atual) -> {
+            versao.incrementAndGet();
+            return null;
+        });
+        invalidacoes.incrementAndGet();
+    }
+
+    /**
+     * Estatísticas de acertos, falhas e remoções desde a inicialização
+     */
+    public CacheStats estatisticas() {
+        return tempos.stats();
+    }
+
+    /**
+     * Número de entradas removidas por alteração dos períodos do usuário
+     */
+    public long invalidacoes() {
+        return invalidacoes.get();
+    }
+
+    /**
+     * Número de entradas substituídas pelos tempos de um resumo atualizado
+     */
+    public long atualizacoes() {
+        return atualizacoes.get();
+    }
+
+    public long tamanho() {
+        return tempos.estimatedSize();
+    }
+
+    void aoAlterarPeriodos(@Observes(during = TransactionPhase.AFTER_COMPLETION) PeriodosUsuarioAlterados evento) {
+        invalidar(evento.usuarioId());
+    }
+
+    void aoAtualizarResumo(@Observes(during = TransactionPhase.AFTER_SUCCESS) ResumoTempoAtualizado evento) {
+        atualizar(evento.usuarioId(), evento.tempos());
+    }
+}
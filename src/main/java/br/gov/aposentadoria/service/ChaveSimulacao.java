@@ -0,0 +1,81 @@
+package br.gov.aposentadoria.service;
+
+import br.gov.aposentadoria.model.PeriodoServico;
+import br.gov.aposentadoria.model.Simulacao;
+import br.gov.aposentadoria.model.TempoAgregado;
+import br.gov.aposentadoria.model.Usuario;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.util.HexFormat;
+
+/**
+ * Resumo SHA-256 de tudo o que determina o resultado de uma simulação: sexo,
+ * data de nascimento e cargo do usuário, os tempos agregados de seus períodos
+ * (que mudam sempre que um período relevante muda), a regra, a data de
+ * referência, a remuneração e o conteúdo das regras
+ * ({@link RegrasAposentadoria#hashDefinicao}). Simulações com a mesma chave
+ * têm o mesmo resultado.
+ */
+public final class ChaveSimulacao {
+
+    private static final TempoAgregado.Categoria[] CATEGORIAS = TempoAgregado.Categoria.values();
+    private static final PeriodoServico.TipoServico[] TIPOS = PeriodoServico.TipoServico.values();
+
+    private ChaveSimulacao() {
+    }
+
+    public static String calcular(Usuario usuario, TempoAgregado tempos,
+                                  Simulacao.RegraAposentadoria regra, LocalDate dataReferencia,
+                                  Double remuneracao, String hashRegras) {
+        ByteBuffer buffer = ByteBuffer.allocate(8 * (CATEGORIAS.length + TIPOS.length + 8));
+        for (TempoAgregado.Categoria categoria : CATEGORIAS) {
+            buffer.putLong(tempos.dias(categoria));
+            buffer.put((byte) (tempos.ultimoVinculoPertence(categoria) ? 1 : 0));
+        }
+        for (PeriodoServico.TipoServico tipo : TIPOS) {
+            buffer.putLong(tempos.dias(tipo));
+        }
+        buffer.putLong(dia(tempos.getFimUltimoVinculo()));
+        buffer.putInt(tempos.getConvencao().ordinal());
+        buffer.putLong(dia(usuario.dataNascimento));
+        buffer.putInt(regra.ordinal());
+        buffer.putLong(dataReferencia.toEpochDay());
+        buffer.putDouble(remuneracao != null ? remuneracao : Double.NaN);
+
+        MessageDigest digest = sha256();
+        digest.update(buffer.array(), 0, buffer.position());
+        texto(digest, usuario.sexo);
+        texto(digest, usuario.cargoAtual);
+        texto(digest, hashRegras);
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static long dia(LocalDate data) {
+        return data != null ? data.toEpochDay() : Long.MIN_VALUE;
+    }
+
+    /**
+     * Texto prefixado pelo tamanho, para que campos vizinhos não se confundam
+     */
+    private static void texto(MessageDigest digest, String valor) {
+        if (valor == null) {
+            digest.update(new byte[] {-1, -1, -1, -1});
+            return;
+        }
+        byte[] bytes = valor.getBytes(StandardCharsets.UTF_8);
+        digest.update(ByteBuffer.allocate(4).putInt(bytes.length).array());
+        digest.update(bytes);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
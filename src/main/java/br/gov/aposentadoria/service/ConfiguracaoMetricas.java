@@ -0,0 +1,33 @@
+package br.gov.aposentadoria.service;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Singleton;
+
+/**
+ * Publica percentis e histogramas para os tempos das requisições HTTP e para
+ * todas as métricas do simulador
+ */
+@Singleton
+public class ConfiguracaoMetricas {
+
+    @Produces
+    @Singleton
+    public MeterFilter percentis() {
+        return new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if (id.getName().startsWith("http.server.requests") || id.getName().startsWith("simulador.")) {
+                    return DistributionStatisticConfig.builder()
+                            .percentiles(0.5, 0.95, 0.99)
+                            .percentilesHistogram(true)
+                            .build()
+                            .merge(config);
+                }
+                return config;
+            }
+        };
+    }
+}
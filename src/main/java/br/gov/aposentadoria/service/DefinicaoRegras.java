@@ -0,0 +1,47 @@
+package br.gov.aposentadoria.service;
+
+import br.gov.aposentadoria.model.Simulacao;
+import br.gov.aposentadoria.model.TempoAgregado;
+
+import java.util.Map;
+
+/**
+ * Forma declarativa das regras de aposentadoria, lida do arquivo de regras
+ * (por padrão {@code regras-aposentadoria.json}). Os requisitos são definidos
+ * separadamente para cada sexo, com as chaves "M" e "F". Regras ausentes são
+ * consideradas não implementadas.
+ */
+public class DefinicaoRegras {
+
+    public String versao;
+    public String descricao;
+    public Map<String, Double> fatorConversaoTempoEspecial;
+    public Map<Simulacao.RegraAposentadoria, Map<String, Requisitos>> regras;
+
+    public static class Requisitos {
+        public Integer idadeMinima;
+        public MudancaIdade idadeMinimaAPartirDe;
+        public Map<TempoAgregado.Categoria, Integer> tempoMinimoAnos;
+        public Pontuacao pontuacao;
+        public boolean exigePedagio;
+    }
+
+    /**
+     * Idade mínima que passa a valer a partir de um ano
+     */
+    public static class MudancaIdade {
+        public int ano;
+        public int idade;
+    }
+
+    /**
+     * Pontuação mínima (idade + tempo de contribuição) que cresce a cada ano
+     * a partir do ano base, até o máximo
+     */
+    public static class Pontuacao {
+        public int base;
+        public int anoBase;
+        public int incrementoAnual;
+        public int maximo;
+    }
+}
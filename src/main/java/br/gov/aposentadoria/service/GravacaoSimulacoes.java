@@ -0,0 +1,242 @@
+package br.gov.aposentadoria.service;
+
+import br.gov.aposentadoria.model.Simulacao;
+import io.micrometer.core.instrument.Metrics;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.Session;
+import org.jboss.logging.Logger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gravação em segundo plano das simulações executadas sem transação.
+ *
+ * Cada simulação recebe um id reservado na sequência {@code simulacoes_SEQ}
+ * e entra em uma fila limitada. Uma única thread grava a fila em lotes de
+ * {@code simulador.gravacao.tamanho-lote}, com um insert em lote por
+ * transação. Com a fila cheia, quem enfileira espera até
+ * {@code simulador.gravacao.espera-maxima} e então recebe
+ * {@link RejectedExecutionException}. No encerramento da aplicação a fila é
+ * esvaziada antes da conexão com o banco ser fechada.
+ */
+@ApplicationScoped
+public class GravacaoSimulacoes {
+
+    private static final Logger LOG = Logger.getLogger(GravacaoSimulacoes.class);
+
+    /**
+     * Incremento de simulacoes_SEQ. Como no otimizador pooled, padrão do
+     * Hibernate, cada valor v lido da sequência reserva os ids de v - 49 a v,
+     * tanto para ele quanto para esta classe.
+     */
+    static final int INCREMENTO_SEQUENCIA = 50;
+
+    private static final int TENTATIVAS = 3;
+
+    private static final String INSERT = "insert into simulacoes (id, usuario_id, data_simulacao, nome_simulacao,"
+            + " regra_aposentadoria, tempo_contribuicao_anos, tempo_contribuicao_meses, tempo_contribuicao_dias,"
+            + " tempo_servico_publico_anos, tempo_servico_publico_meses, tempo_servico_publico_dias,"
+            + " tempo_cargo_anos, tempo_cargo_meses, tempo_cargo_dias, data_previsao_aposentadoria,"
+            + " idade_aposentadoria, pontuacao, percentual_beneficio, elegivel, valor_beneficio_estimado,"
+            + " observacoes, hash_entrada) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Inject
+    EntityManager entityManager;
+
+    @ConfigProperty(name = "simulador.gravacao.assincrona", defaultValue = "false")
+    boolean assincrona;
+
+    @ConfigProperty(name = "simulador.gravacao.capacidade", defaultValue = "10000")
+    int capacidade;
+
+    @ConfigProperty(name = "simulador.gravacao.tamanho-lote", defaultValue = "500")
+    int tamanhoLote;
+
+    @ConfigProperty(name = "simulador.gravacao.intervalo", defaultValue = "PT0.2S")
+    Duration intervalo;
+
+    @ConfigProperty(name = "simulador.gravacao.espera-maxima", defaultValue = "PT2S")
+    Duration esperaMaxima;
+
+    @ConfigProperty(name = "simulador.gravacao.tempo-encerramento", defaultValue = "PT30S")
+    Duration tempoEncerramento;
+
+    private BlockingQueue<Simulacao> fila;
+    private final Map<Long, Simulacao> pendentes = new ConcurrentHashMap<>();
+    private Thread gravador;
+    private volatile boolean encerrando;
+
+    private long proximoId;
+    private long ultimoIdReservado = -1;
+
+    void iniciar(@Observes StartupEvent evento) {
+        if (!assincrona) {
+            return;
+        }
+        fila = new ArrayBlockingQueue<>(capacidade);
+        Metrics.gauge("simulador.gravacao.pendentes", pendentes, Map::size);
+        gravador = Thread.ofPlatform()
+                .name("gravacao-simulacoes")
+                .daemon()
+                .start(this::gravarFila);
+    }
+
+    /**
+     * Espera a gravação das simulações já aceitas antes que o banco seja fechado
+     */
+    void encerrar(@Observes ShutdownEvent evento) throws InterruptedException {
+        if (gravador == null) {
+            return;
+        }
+        // Sem interromper a thread, para não abortar um lote em gravação
+        encerrando = true;
+        gravador.join(tempoEncerramento.toMillis());
+        if (!pendentes.isEmpty()) {
+            LOG.errorf("%d simulações não foram gravadas em %s e foram descartadas no encerramento",
+                    pendentes.size(), tempoEncerramento);
+        }
+    }
+
+    /**
+     * Indica se as simulações do simulador são gravadas em segundo plano
+     */
+    public boolean assincrona() {
+        return assincrona;
+    }
+
+    /**
+     * Atribui um id à simulação e a coloca na fila de gravação
+     *
+     * @throws RejectedExecutionException se a fila continuar cheia após a espera máxima
+     */
+    public void enfileirar(Simulacao simulacao) {
+        if (encerrando) {
+            throw new RejectedExecutionException("Aplicação em encerramento");
+        }
+        simulacao.id = reservarId();
+        pendentes.put(simulacao.id, simulacao);
+        try {
+            if (fila.offer(simulacao, esperaMaxima.toMillis(), TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        pendentes.remove(simulacao.id);
+        Metrics.counter("simulador.gravacao.simulacoes", "resultado", "recusada").increment();
+        throw new RejectedExecutionException("Fila de gravação de simulações cheia");
+    }
+
+    /**
+     * Simulação aceita que ainda não foi gravada, para que possa ser
+     * consultada logo após a resposta
+     */
+    public Simulacao buscarPendente(Long id) {
+        return pendentes.get(id);
+    }
+
+    private synchronized long reservarId() {
+        if (proximoId > ultimoIdReservado) {
+            ultimoIdReservado = QuarkusTransaction.requiringNew().call(() -> ((Number) entityManager
+                    .createNativeQuery("select nextval('simulacoes_SEQ')")
+                    .getSingleResult()).longValue());
+            // O primeiro valor da sequência (1) reserva apenas o próprio id
+            proximoId = Math.max(1, ultimoIdReservado - INCREMENTO_SEQUENCIA + 1);
+        }
+        return proximoId++;
+    }
+
+    private void gravarFila() {
+        List<Simulacao> lote = new ArrayList<>(tamanhoLote);
+        while (!encerrando || !fila.isEmpty()) {
+            try {
+                Simulacao primeira = encerrando ? fila.poll() : fila.poll(intervalo.toMillis(), TimeUnit.MILLISECONDS);
+                if (primeira == null) {
+                    continue;
+                }
+                lote.add(primeira);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                LOG.errorf("Gravação de simulações interrompida com %d simulações na fila", fila.size());
+                return;
+            }
+            fila.drainTo(lote, tamanhoLote - 1);
+            gravar(lote);
+            lote.clear();
+        }
+    }
+
+    private void gravar(List<Simulacao> lote) {
+        for (int tentativa = 1; ; tentativa++) {
+            try {
+                QuarkusTransaction.requiringNew().run(() -> entityManager.unwrap(Session.class)
+                        .doWork(conexao -> inserir(conexao, lote)));
+                Metrics.counter("simulador.gravacao.simulacoes", "resultado", "gravada").increment(lote.size());
+                break;
+            } catch (Exception e) {
+                if (tentativa < TENTATIVAS) {
+                    LOG.warnf(e, "Falha ao gravar %d simulações (tentativa %d de %d)", lote.size(), tentativa, TENTATIVAS);
+                    continue;
+                }
+                LOG.errorf(e, "Descartadas %d simulações após %d tentativas de gravação (ids %d a %d)",
+                        lote.size(), TENTATIVAS, lote.get(0).id, lote.get(lote.size() - 1).id);
+                Metrics.counter("simulador.gravacao.simulacoes", "resultado", "falha").increment(lote.size());
+                break;
+            }
+        }
+        for (Simulacao simulacao : lote) {
+            pendentes.remove(simulacao.id);
+        }
+    }
+
+    private static void inserir(Connection conexao, List<Simulacao> lote) throws SQLException {
+        try (PreparedStatement insert = conexao.prepareStatement(INSERT)) {
+            for (Simulacao simulacao : lote) {
+                int i = 1;
+                insert.setLong(i++, simulacao.id);
+                insert.setLong(i++, simulacao.usuario.id);
+                insert.setObject(i++, simulacao.dataSimulacao, Types.TIMESTAMP);
+                insert.setObject(i++, simulacao.nomeSimulacao, Types.VARCHAR);
+                insert.setObject(i++, simulacao.regraAposentadoria.name(), Types.VARCHAR);
+                insert.setObject(i++, simulacao.tempoContribuicaoAnos, Types.INTEGER);
+                insert.setObject(i++, simulacao.tempoContribuicaoMeses, Types.INTEGER);
+                insert.setObject(i++, simulacao.tempoContribuicaoDias, Types.INTEGER);
+                insert.setObject(i++, simulacao.tempoServicoPublicoAnos, Types.INTEGER);
+                insert.setObject(i++, simulacao.tempoServicoPublicoMeses, Types.INTEGER);
+                insert.setObject(i++, simulacao.tempoServicoPublicoDias, Types.INTEGER);
+                insert.setObject(i++, simulacao.tempoCargoAnos, Types.INTEGER);
+                insert.setObject(i++, simulacao.tempoCargoMeses, Types.INTEGER);
+                insert.setObject(i++, simulacao.tempoCargoDias, Types.INTEGER);
+                insert.setObject(i++, simulacao.dataPrevisaoAposentadoria, Types.DATE);
+                insert.setObject(i++, simulacao.idadeAposentadoria, Types.INTEGER);
+                insert.setObject(i++, simulacao.pontuacao, Types.INTEGER);
+                insert.setObject(i++, simulacao.percentualBeneficio, Types.DOUBLE);
+                insert.setObject(i++, simulacao.elegivel, Types.BOOLEAN);
+                insert.setObject(i++, simulacao.valorBeneficioEstimado, Types.DOUBLE);
+                insert.setObject(i++, simulacao.observacoes, Types.VARCHAR);
+                insert.setObject(i, simulacao.hashEntrada, Types.VARCHAR);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+    }
+}
@@ -0,0 +1,363 @@
+package br.gov.aposentadoria.service;
+
+import br.gov.aposentadoria.model.ImportacaoPeriodos;
+import br.gov.aposentadoria.model.PeriodoServico;
+import br.gov.aposentadoria.model.Usuario;
+import br.gov.aposentadoria.repository.IndicePeriodos;
+import br.gov.aposentadoria.repository.PeriodoServicoRepository;
+import br.gov.aposentadoria.repository.ResumoTempoRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Metrics;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Importa históricos funcionais completos (CSV ou NDJSON) enviados pelos
+ * órgãos de pessoal.
+ *
+ * O arquivo é lido incrementalmente e dividido em blocos de registros, sem
+ * separar registros consecutivos do mesmo usuário. Cada bloco é gravado em
+ * uma transação própria: os usuários e os períodos já existentes são
+ * carregados com uma consulta cada, a concomitância é verificada em memória
+ * por um {@link IndicePeriodos} por usuário e os inserts são agrupados pelo
+ * batch JDBC do Hibernate. O ponto de controle da importação é atualizado na
+ * mesma transação, de modo que, após uma falha, reenviar o mesmo arquivo
+ * retoma a partir do primeiro bloco não gravado.
+ */
+@ApplicationScoped
+public class ImportacaoPeriodosService {
+
+    private static final Logger LOG = Logger.getLogger(ImportacaoPeriodosService.class);
+
+    private static final int MAXIMO_REJEICOES_REGISTRADAS = 1000;
+
+    private static final DateTimeFormatter DATA_BRASILEIRA = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    @Inject
+    PeriodoServicoRepository periodoServicoRepository;
+
+    @Inject
+    ResumoTempoRepository resumoTempoRepository;
+
+    @Inject
+    Event<PeriodosUsuarioAlterados> periodosAlterados;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @ConfigProperty(name = "simulador.importacao.tamanho-bloco", defaultValue = "500")
+    int tamanhoBloco;
+
+    private final Set<Long> emExecucao = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Registra uma nova importação, ainda sem registros gravados
+     */
+    public ImportacaoPeriodos criar(ImportacaoPeriodos.Formato formato) {
+        return QuarkusTransaction.requiringNew().call(() -> {
+            ImportacaoPeriodos importacao = new ImportacaoPeriodos();
+            importacao.formato = formato;
+            importacao.persist();
+            return importacao;
+        });
+    }
+
+    public Optional<ImportacaoPeriodos> buscar(Long id) {
+        return QuarkusTransaction.requiringNew().call(() -> ImportacaoPeriodos.<ImportacaoPeriodos>findByIdOptional(id));
+    }
+
+    /**
+     * Processa o arquivo a partir do ponto de controle da importação. As linhas
+     * já gravadas em execuções anteriores são lidas e descartadas.
+     *
+     * @throws IllegalArgumentException se o cabeçalho do arquivo for inválido
+     * @throws IllegalStateException se a importação já estiver em execução
+     */
+    public ResultadoImportacao importar(ImportacaoPeriodos importacao, InputStream entrada) throws IOException {
+        Long importacaoId = importacao.id;
+        LeitorImportacao leitor = LeitorImportacao.de(importacao.formato, entrada, objectMapper);
+        if (!emExecucao.add(importacaoId)) {
+            leitor.close();
+            throw new IllegalStateException("Importação já em execução");
+        }
+
+        ResultadoImportacao resultado = new ResultadoImportacao();
+        resultado.importacaoId = importacaoId;
+        resultado.rejeicoes = new ArrayList<>();
+        long inicio = System.nanoTime();
+        long linhasLidas = 0;
+        String erro = null;
+
+        try (leitor) {
+            long ultimaLinhaGravada = QuarkusTransaction.requiringNew().call(() -> iniciar(importacaoId));
+
+            List<RegistroImportacao> bloco = new ArrayList<>(tamanhoBloco);
+            String cpfAnterior = null;
+            RegistroImportacao registro;
+            while ((registro = leitor.proximo()) != null) {
+                if (registro.linha() <= ultimaLinhaGravada) {
+                    continue;
+                }
+                String cpf = registro.cpf();
+                if (bloco.size() >= tamanhoBloco && !Objects.equals(cpf, cpfAnterior)) {
+                    gravar(importacaoId, bloco, resultado);
+                    linhasLidas += bloco.size();
+                    bloco.clear();
+                }
+                bloco.add(registro);
+                cpfAnterior = cpf;
+            }
+            if (!bloco.isEmpty()) {
+                gravar(importacaoId, bloco, resultado);
+                linhasLidas += bloco.size();
+            }
+        } catch (Exception e) {
+            LOG.errorf(e, "Falha na importação %d", importacaoId);
+            erro = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        } finally {
+            emExecucao.remove(importacaoId);
+        }
+
+        String erroFinal = erro;
+        ImportacaoPeriodos finalizada = QuarkusTransaction.requiringNew().call(() -> finalizar(importacaoId, erroFinal));
+        double segundos = (System.nanoTime() - inicio) / 1_000_000_000.0;
+
+        resultado.status = finalizada.status;
+        resultado.ultimaLinha = finalizada.ultimaLinha;
+        resultado.linhasProcessadas = finalizada.linhasProcessadas;
+        resultado.linhasGravadas = finalizada.linhasGravadas;
+        resultado.linhasRejeitadas = finalizada.linhasRejeitadas;
+        resultado.linhasPorSegundo = segundos > 0 ? linhasLidas / segundos : 0;
+        resultado.erro = finalizada.erro;
+
+        LOG.infof("Importação %d: %s, %d linhas nesta execução, %d gravadas e %d rejeitadas no total, %.1f linhas/s",
+                importacaoId, finalizada.status, linhasLidas, finalizada.linhasGravadas,
+                finalizada.linhasRejeitadas, resultado.linhasPorSegundo);
+        return resultado;
+    }
+
+    private long iniciar(Long importacaoId) {
+        ImportacaoPeriodos importacao = ImportacaoPeriodos.findById(importacaoId);
+        importacao.status = ImportacaoPeriodos.Status.EM_EXECUCAO;
+        importacao.erro = null;
+        importacao.dataAtualizacao = LocalDateTime.now();
+        return importacao.ultimaLinha;
+    }
+
+    private ImportacaoPeriodos finalizar(Long importacaoId, String erro) {
+        ImportacaoPeriodos importacao = ImportacaoPeriodos.findById(importacaoId);
+        importacao.status = erro == null ? ImportacaoPeriodos.Status.CONCLUIDA : ImportacaoPeriodos.Status.FALHOU;
+        importacao.erro = erro == null ? null : erro.substring(0, Math.min(erro.length(), 1000));
+        importacao.dataAtualizacao = LocalDateTime.now();
+        return importacao;
+    }
+
+    private void gravar(Long importacaoId, List<RegistroImportacao> bloco, ResultadoImportacao resultado) {
+        List<ResultadoImportacao.Rejeicao> rejeicoes =
+                QuarkusTransaction.requiringNew().call(() -> gravarBloco(importacaoId, bloco));
+
+        // Contabiliza o bloco apenas após o commit da transação
+        Metrics.counter("simulador.importacao.linhas", "resultado", "gravada").increment(bloco.size() - rejeicoes.size());
+        Metrics.counter("simulador.importacao.linhas", "resultado", "rejeitada").increment(rejeicoes.size());
+        for (ResultadoImportacao.Rejeicao rejeicao : rejeicoes) {
+            if (resultado.rejeicoes.size() < MAXIMO_REJEICOES_REGISTRADAS) {
+                resultado.rejeicoes.add(rejeicao);
+            } else {
+                resultado.rejeicoesTruncadas = true;
+            }
+        }
+    }
+
+    /**
+     * Grava um bloco de registros e avança o ponto de controle. Retorna as
+     * linhas rejeitadas.
+     */
+    private List<ResultadoImportacao.Rejeicao> gravarBloco(Long importacaoId, List<RegistroImportacao> bloco) {
+        Set<String> cpfs = new LinkedHashSet<>();
+        for (RegistroImportacao registro : bloco) {
+            if (registro.erro() == null && registro.cpf() != null) {
+                cpfs.add(registro.cpf());
+            }
+        }
+
+        Map<String, Usuario> usuariosPorCpf = new HashMap<>();
+        Map<Long, IndicePeriodos> indices = new HashMap<>();
+        Map<Long, List<PeriodoServico>> periodosPorUsuario = new HashMap<>();
+        if (!cpfs.isEmpty()) {
+            List<Usuario> usuarios = Usuario.list("cpf in ?1", cpfs);
+            for (Usuario usuario : usuarios) {
+                usuariosPorCpf.put(usuario.cpf, usuario);
+            }
+            if (!usuarios.isEmpty()) {
+                List<PeriodoServico> existentes = PeriodoServico.list("usuario.id in ?1",
+                        usuarios.stream().map(usuario -> usuario.id).toList());
+                for (PeriodoServico periodo : existentes) {
+                    periodosPorUsuario.computeIfAbsent(periodo.usuario.id, id -> new ArrayList<>()).add(periodo);
+                }
+                for (Usuario usuario : usuarios) {
+                    indices.put(usuario.id, IndicePeriodos.de(periodosPorUsuario.getOrDefault(usuario.id, List.of())));
+                }
+            }
+        }
+
+        List<ResultadoImportacao.Rejeicao> rejeicoes = new ArrayList<>();
+        Map<Long, Usuario> usuariosAlterados = new LinkedHashMap<>();
+        for (RegistroImportacao registro : bloco) {
+            if (registro.erro() != null) {
+                rejeicoes.add(new ResultadoImportacao.Rejeicao(registro.linha(), registro.erro()));
+                continue;
+            }
+            Usuario usuario = usuariosPorCpf.get(registro.cpf());
+            if (usuario == null) {
+                rejeicoes.add(new ResultadoImportacao.Rejeicao(registro.linha(), "Usuário não encontrado para o CPF informado"));
+                continue;
+            }
+
+            PeriodoServico periodo;
+            try {
+                periodo = converter(registro, usuario);
+            } catch (IllegalArgumentException e) {
+                rejeicoes.add(new ResultadoImportacao.Rejeicao(registro.linha(), e.getMessage()));
+                continue;
+            }
+
+            IndicePeriodos indice = indices.get(usuario.id);
+            if (isDuplicado(periodo, indice)) {
+                rejeicoes.add(new ResultadoImportacao.Rejeicao(registro.linha(), "Período já registrado para o usuário"));
+                continue;
+            }
+
+            periodo.concomitante = periodoServicoRepository.verificarConcomitancia(periodo, indice);
+            if (periodo.concomitante) {
+                // Os períodos sobrepostos, gerenciados nesta transação, passam a ser concomitantes
+                indice.listarSobrepostos(periodo).forEach(sobreposto -> sobreposto.concomitante = true);
+            }
+            indice.adicionar(periodo);
+            periodoServicoRepository.persist(periodo);
+            periodosPorUsuario.computeIfAbsent(usuario.id, id -> new ArrayList<>()).add(periodo);
+            usuariosAlterados.put(usuario.id, usuario);
+        }
+
+        // Os resumos de tempo são recalculados uma vez por usuário, com os períodos já carregados
+        for (Usuario usuario : usuariosAlterados.values()) {
+            resumoTempoRepository.reconstruir(usuario, periodosPorUsuario.get(usuario.id));
+            periodosAlterados.fire(new PeriodosUsuarioAlterados(usuario.id));
+        }
+
+        ImportacaoPeriodos importacao = ImportacaoPeriodos.findById(importacaoId);
+        importacao.ultimaLinha = bloco.get(bloco.size() - 1).linha();
+        importacao.linhasProcessadas += bloco.size();
+        importacao.linhasGravadas += bloco.size() - rejeicoes.size();
+        importacao.linhasRejeitadas += rejeicoes.size();
+        importacao.dataAtualizacao = LocalDateTime.now();
+        return rejeicoes;
+    }
+
+    /**
+     * Um período com as mesmas datas e o mesmo órgão de um período já
+     * registrado é tratado como reenvio e não é gravado novamente
+     */
+    private static boolean isDuplicado(PeriodoServico periodo, IndicePeriodos indice) {
+        for (PeriodoServico existente : indice.listarSobrepostos(periodo)) {
+            if (existente.dataInicio.equals(periodo.dataInicio)
+                    && existente.dataFim.equals(periodo.dataFim)
+                    && Objects.equals(existente.orgaoEmpregador, periodo.orgaoEmpregador)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Converte os campos de um registro em um período de serviço
+     *
+     * @throws IllegalArgumentException com o motivo da rejeição
+     */
+    static PeriodoServico converter(RegistroImportacao registro, Usuario usuario) {
+        for (String campo : LeitorImportacao.CAMPOS_OBRIGATORIOS) {
+            if (registro.campo(campo) == null) {
+                throw new IllegalArgumentException("Campo obrigatório ausente: " + campo);
+            }
+        }
+
+        PeriodoServico periodo = new PeriodoServico();
+        periodo.usuario = usuario;
+        periodo.dataInicio = data(registro, "dataInicio");
+        periodo.dataFim = data(registro, "dataFim");
+        if (periodo.dataFim.isBefore(periodo.dataInicio)) {
+            throw new IllegalArgumentException("Data de fim anterior à data de início");
+        }
+        periodo.orgaoEmpregador = registro.campo("orgaoEmpregador");
+        try {
+            periodo.tipoServico = PeriodoServico.TipoServico.valueOf(registro.campo("tipoServico").toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Tipo de serviço inválido: " + registro.campo("tipoServico"));
+        }
+        periodo.cargo = registro.campo("cargo");
+        periodo.numeroPortaria = registro.campo("numeroPortaria");
+        periodo.insalubridade = logico(registro, "insalubridade");
+        periodo.tempoConvertido = logico(registro, "tempoConvertido");
+
+        String fator = registro.campo("fatorConversao");
+        if (fator != null) {
+            try {
+                periodo.fatorConversao = Double.parseDouble(fator.replace(',', '.'));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Fator de conversão inválido: " + fator);
+            }
+            if (periodo.fatorConversao <= 0) {
+                throw new IllegalArgumentException("Fator de conversão deve ser positivo");
+            }
+        }
+        if (periodo.tempoConvertido && periodo.fatorConversao == null) {
+            throw new IllegalArgumentException("Fator de conversão obrigatório para tempo convertido");
+        }
+        return periodo;
+    }
+
+    /**
+     * Aceita datas no formato ISO (2020-01-31) ou brasileiro (31/01/2020)
+     */
+    private static LocalDate data(RegistroImportacao registro, String campo) {
+        String valor = registro.campo(campo);
+        try {
+            return valor.indexOf('/') >= 0 ? LocalDate.parse(valor, DATA_BRASILEIRA) : LocalDate.parse(valor);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Data inválida em " + campo + ": " + valor);
+        }
+    }
+
+    private static boolean logico(RegistroImportacao registro, String campo) {
+        String valor = registro.campo(campo);
+        if (valor == null) {
+            return false;
+        }
+        return switch (valor.toLowerCase(Locale.ROOT)) {
+            case "true", "sim", "s", "1" -> true;
+            case "false", "nao", "não", "n", "0" -> false;
+            default -> throw new IllegalArgumentException("Valor inválido em " + campo + ": " + valor);
+        };
+    }
+}
@@ -0,0 +1,212 @@
+package br.gov.aposentadoria.service;
+
+import br.gov.aposentadoria.model.ImportacaoPeriodos;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Lê os registros de um arquivo de importação de períodos uma linha por vez,
+ * sem carregar o arquivo em memória.
+ *
+ * Cada registro guarda os campos como texto; a conversão e a validação ficam
+ * com o serviço de importação, para que um valor inválido rejeite apenas a
+ * própria linha. Linhas que não podem ser lidas (JSON malformado, número de
+ * colunas diferente do cabeçalho) são devolvidas com a descrição do erro.
+ */
+abstract class LeitorImportacao implements Closeable {
+
+    static final List<String> CAMPOS = List.of(
+            "cpf", "dataInicio", "dataFim", "orgaoEmpregador", "tipoServico", "cargo",
+            "numeroPortaria", "tempoConvertido", "fatorConversao", "insalubridade");
+
+    static final List<String> CAMPOS_OBRIGATORIOS = List.of(
+            "cpf", "dataInicio", "dataFim", "orgaoEmpregador", "tipoServico");
+
+    private final BufferedReader leitor;
+    private long linha;
+
+    private LeitorImportacao(InputStream entrada) {
+        this.leitor = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8));
+    }
+
+    static LeitorImportacao de(ImportacaoPeriodos.Formato formato, InputStream entrada, ObjectMapper objectMapper)
+            throws IOException {
+        return switch (formato) {
+            case CSV -> new Csv(entrada);
+            case NDJSON -> new Ndjson(entrada, objectMapper);
+        };
+    }
+
+    /**
+     * Próximo registro do arquivo, ou null ao final. Linhas em branco são
+     * ignoradas, mas contam na numeração.
+     */
+    RegistroImportacao proximo() throws IOException {
+        String texto;
+        while ((texto = proximaLinha()) != null) {
+            if (!texto.isBlank()) {
+                return ler(linha, texto);
+            }
+        }
+        return null;
+    }
+
+    abstract RegistroImportacao ler(long numeroLinha, String texto);
+
+    String proximaLinha() throws IOException {
+        String texto = leitor.readLine();
+        if (texto != null) {
+            linha++;
+            if (linha == 1 && !texto.isEmpty() && texto.charAt(0) == '\uFEFF') {
+                texto = texto.substring(1);
+            }
+        }
+        return texto;
+    }
+
+    @Override
+    public void close() throws IOException {
+        leitor.close();
+    }
+
+    /**
+     * CSV com cabeçalho na primeira linha, separado por vírgula ou
+     * ponto e vírgula (detectado pelo cabeçalho), com aspas duplas opcionais.
+     */
+    static final class Csv extends LeitorImportacao {
+
+        private final char separador;
+        private final String[] colunas;
+
+        Csv(InputStream entrada) throws IOException {
+            super(entrada);
+            String cabecalho = proximaLinha();
+            if (cabecalho == null || cabecalho.isBlank()) {
+                throw new IllegalArgumentException("Arquivo CSV sem cabeçalho");
+            }
+            separador = cabecalho.indexOf(';') >= 0 ? ';' : ',';
+
+            Map<String, String> nomes = new HashMap<>();
+            for (String campo : CAMPOS) {
+                nomes.put(campo.toLowerCase(Locale.ROOT), campo);
+            }
+            List<String> valores = separar(cabecalho, separador);
+            colunas = new String[valores.size()];
+            for (int i = 0; i < colunas.length; i++) {
+                colunas[i] = nomes.get(valores.get(i).trim().toLowerCase(Locale.ROOT));
+            }
+
+            List<String> ausentes = new ArrayList<>(CAMPOS_OBRIGATORIOS);
+            ausentes.removeAll(List.of(colunas));
+            if (!ausentes.isEmpty()) {
+                throw new IllegalArgumentException("Colunas obrigatórias ausentes no cabeçalho: " + String.join(", ", ausentes));
+            }
+        }
+
+        @Override
+        RegistroImportacao ler(long numeroLinha, String texto) {
+            List<String> valores;
+            try {
+                valores = separar(texto, separador);
+            } catch (IllegalArgumentException e) {
+                return RegistroImportacao.invalido(numeroLinha, e.getMessage());
+            }
+            if (valores.size() != colunas.length) {
+                return RegistroImportacao.invalido(numeroLinha,
+                        "Esperadas " + colunas.length + " colunas, encontradas " + valores.size());
+            }
+
+            Map<String, String> campos = new HashMap<>();
+            for (int i = 0; i < colunas.length; i++) {
+                String valor = valores.get(i).trim();
+                if (colunas[i] != null && !valor.isEmpty()) {
+                    campos.put(colunas[i], valor);
+                }
+            }
+            return new RegistroImportacao(numeroLinha, campos, null);
+        }
+
+        /**
+         * Separa os valores de uma linha. Aspas duplas delimitam valores que
+         * contêm o separador e são escapadas por duplicação.
+         */
+        static List<String> separar(String texto, char separador) {
+            List<String> valores = new ArrayList<>();
+            StringBuilder valor = new StringBuilder();
+            boolean entreAspas = false;
+            for (int i = 0; i < texto.length(); i++) {
+                char c = texto.charAt(i);
+                if (entreAspas) {
+                    if (c == '"' && i + 1 < texto.length() && texto.charAt(i + 1) == '"') {
+                        valor.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        entreAspas = false;
+                    } else {
+                        valor.append(c);
+                    }
+                } else if (c == '"') {
+                    entreAspas = true;
+                } else if (c == separador) {
+                    valores.add(valor.toString());
+                    valor.setLength(0);
+                } else {
+                    valor.append(c);
+                }
+            }
+            if (entreAspas) {
+                throw new IllegalArgumentException("Aspas não fechadas");
+            }
+            valores.add(valor.toString());
+            return valores;
+        }
+    }
+
+    /**
+     * Um objeto JSON por linha, com os mesmos nomes de campo do CSV
+     */
+    static final class Ndjson extends LeitorImportacao {
+
+        private final ObjectMapper objectMapper;
+
+        Ndjson(InputStream entrada, ObjectMapper objectMapper) {
+            super(entrada);
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        RegistroImportacao ler(long numeroLinha, String texto) {
+            JsonNode objeto;
+            try {
+                objeto = objectMapper.readTree(texto);
+            } catch (JsonProcessingException e) {
+                return RegistroImportacao.invalido(numeroLinha, "JSON inválido: " + e.getOriginalMessage());
+            }
+            if (!objeto.isObject()) {
+                return RegistroImportacao.invalido(numeroLinha, "A linha não contém um objeto JSON");
+            }
+
+            Map<String, String> campos = new HashMap<>();
+            for (String campo : CAMPOS) {
+                JsonNode valor = objeto.get(campo);
+                if (valor != null && !valor.isNull() && !valor.asText().isBlank()) {
+                    campos.put(campo, valor.asText().trim());
+                }
+            }
+            return new RegistroImportacao(numeroLinha, campos, null);
+        }
+    }
+}
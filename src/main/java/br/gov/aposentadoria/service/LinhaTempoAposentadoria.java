@@ -0,0 +1,71 @@
+package br.gov.aposentadoria.service;
+
+import br.gov.aposentadoria.model.Simulacao;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Elegibilidade mês a mês em cada regra, para responder "a partir de qual mês
+ * eu me aposentaria" sem registrar simulações.
+ *
+ * Cada mês é avaliado no seu último dia sobre a {@link ProjecaoAposentadoria},
+ * que guarda os tempos já agregados e apenas soma os dias decorridos desde o
+ * início do acúmulo: avançar um mês custa O(1), sem percorrer novamente os
+ * períodos de serviço. A série de cada regra é devolvida compactada em
+ * intervalos de meses consecutivos em que a regra é cumprida.
+ */
+public class LinhaTempoAposentadoria {
+
+    public final YearMonth inicio;
+    public final int meses;
+    public final Map<Simulacao.RegraAposentadoria, SerieRegra> regras = new EnumMap<>(Simulacao.RegraAposentadoria.class);
+
+    private LinhaTempoAposentadoria(YearMonth inicio, int meses) {
+        this.inicio = inicio;
+        this.meses = meses;
+    }
+
+    /**
+     * Calcula a série das regras informadas a partir do mês inicial. A projeção
+     * deve ter como data de referência um dia anterior ou igual ao fim do
+     * primeiro mês.
+     */
+    public static LinhaTempoAposentadoria calcular(ProjecaoAposentadoria projecao, YearMonth inicio, int meses,
+                                                   List<Simulacao.RegraAposentadoria> regras) {
+        LinhaTempoAposentadoria linhaTempo = new LinhaTempoAposentadoria(inicio, meses);
+        for (Simulacao.RegraAposentadoria regra : regras) {
+            List<Intervalo> intervalos = new ArrayList<>();
+            YearMonth inicioIntervalo = null;
+            YearMonth mes = inicio;
+            for (int i = 0; i < meses; i++, mes = mes.plusMonths(1)) {
+                boolean elegivel = projecao.elegivel(regra, mes.atEndOfMonth().toEpochDay());
+                if (elegivel && inicioIntervalo == null) {
+                    inicioIntervalo = mes;
+                } else if (!elegivel && inicioIntervalo != null) {
+                    intervalos.add(new Intervalo(inicioIntervalo, mes.minusMonths(1)));
+                    inicioIntervalo = null;
+                }
+            }
+            if (inicioIntervalo != null) {
+                intervalos.add(new Intervalo(inicioIntervalo, mes.minusMonths(1)));
+            }
+            linhaTempo.regras.put(regra, new SerieRegra(
+                    intervalos.isEmpty() ? null : intervalos.get(0).inicio(), intervalos));
+        }
+        return linhaTempo;
+    }
+
+    /**
+     * Primeiro mês em que a regra é cumprida (null se não for cumprida no
+     * período) e os intervalos de meses elegíveis
+     */
+    public record SerieRegra(YearMonth primeiroMesElegivel, List<Intervalo> mesesElegiveis) {
+    }
+
+    public record Intervalo(YearMonth inicio, YearMonth fim) {
+    }
+}
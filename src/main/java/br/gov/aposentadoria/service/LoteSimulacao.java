@@ -0,0 +1,131 @@
+package br.gov.aposentadoria.service;
+
+import br.gov.aposentadoria.model.Simulacao;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Estado de execução de um lote de simulações. Os usuários do lote são
+ * particionados em blocos consumidos por uma fila de trabalho.
+ */
+public class LoteSimulacao {
+
+    private static final int MAXIMO_FALHAS_REGISTRADAS = 100;
+
+    public enum Status {
+        PENDENTE,
+        EM_EXECUCAO,
+        CONCLUIDO,
+        FALHOU
+    }
+
+    public final String id = UUID.randomUUID().toString();
+    public final String orgaoEmpregador;
+    public final List<Simulacao.RegraAposentadoria> regras;
+    public final LocalDate dataReferencia;
+    public final boolean persistir;
+    public final Instant dataSubmissao = Instant.now();
+
+    volatile Status status = Status.PENDENTE;
+    volatile Instant dataInicio;
+    volatile Instant dataFim;
+    volatile int totalUsuarios;
+    volatile String erro;
+
+    final ConcurrentLinkedQueue<List<Long>> fila = new ConcurrentLinkedQueue<>();
+    final AtomicInteger usuariosProcessados = new AtomicInteger();
+    final AtomicInteger usuariosComFalha = new AtomicInteger();
+    final AtomicLongArray elegiveisPorRegra = new AtomicLongArray(Simulacao.RegraAposentadoria.values().length);
+    final List<Long> usuariosFalhos = Collections.synchronizedList(new ArrayList<>());
+
+    LoteSimulacao(String orgaoEmpregador, List<Simulacao.RegraAposentadoria> regras,
+                  LocalDate dataReferencia, boolean persistir) {
+        this.orgaoEmpregador = orgaoEmpregador;
+        this.regras = regras;
+        this.dataReferencia = dataReferencia;
+        this.persistir = persistir;
+    }
+
+    void registrarFalha(List<Long> usuarios) {
+        usuariosComFalha.addAndGet(usuarios.size());
+        synchronized (usuariosFalhos) {
+            for (Long usuarioId : usuarios) {
+                if (usuariosFalhos.size() >= MAXIMO_FALHAS_REGISTRADAS) {
+                    break;
+                }
+                usuariosFalhos.add(usuarioId);
+            }
+        }
+    }
+
+    public boolean isFinalizado() {
+        return status == Status.CONCLUIDO || status == Status.FALHOU;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public Instant getDataInicio() {
+        return dataInicio;
+    }
+
+    public Instant getDataFim() {
+        return dataFim;
+    }
+
+    public int getTotalUsuarios() {
+        return totalUsuarios;
+    }
+
+    public int getUsuariosProcessados() {
+        return usuariosProcessados.get();
+    }
+
+    public int getUsuariosComFalha() {
+        return usuariosComFalha.get();
+    }
+
+    public String getErro() {
+        return erro;
+    }
+
+    /**
+     * Vazão do lote em usuários por segundo, considerando o tempo decorrido até
+     * o momento ou até a conclusão
+     */
+    public double getUsuariosPorSegundo() {
+        Instant inicio = dataInicio;
+        if (inicio == null) {
+            return 0.0;
+        }
+        Instant fim = dataFim != null ? dataFim : Instant.now();
+        long milissegundos = Math.max(1, Duration.between(inicio, fim).toMillis());
+        return (usuariosProcessados.get() + usuariosComFalha.get()) * 1000.0 / milissegundos;
+    }
+
+    public Map<Simulacao.RegraAposentadoria, Long> getElegiveisPorRegra() {
+        Map<Simulacao.RegraAposentadoria, Long> elegiveis = new EnumMap<>(Simulacao.RegraAposentadoria.class);
+        for (Simulacao.RegraAposentadoria regra : regras) {
+            elegiveis.put(regra, elegiveisPorRegra.get(regra.ordinal()));
+        }
+        return elegiveis;
+    }
+
+    public List<Long> getUsuariosFalhos() {
+        synchronized (usuariosFalhos) {
+            return new ArrayList<>(usuariosFalhos);
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package br.gov.aposentadoria.service;
+
+import br.gov.aposentadoria.model.PeriodoServico;
+import br.gov.aposentadoria.model.Simulacao;
+import br.gov.aposentadoria.model.TempoAgregado;
+import br.gov.aposentadoria.model.Usuario;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Executa simulações em lote para todos os usuários de um órgão.
+ *
+ * Os usuários são divididos em blocos colocados em uma fila de trabalho
+ * consumida por threads virtuais. O número de blocos acessando o banco ao
+ * mesmo tempo, somando todos os lotes em execução, é limitado pelo tamanho do
+ * pool de conexões ({@code quarkus.datasource.jdbc.max-size}) menos as conexões
+ * reservadas para as requisições da API.
+ */
+@ApplicationScoped
+public class LoteSimulacaoService {
+
+    private static final Logger LOG = Logger.getLogger(LoteSimulacaoService.class);
+
+    private static final int MAXIMO_LOTES_RETIDOS = 100;
+
+    @Inject
+    SimuladorService simuladorService;
+
+    @Inject
+    EntityManager entityManager;
+
+    @ConfigProperty(name = "quarkus.datasource.jdbc.max-size")
+    int tamanhoPoolConexoes;
+
+    @ConfigProperty(name = "simulador.lote.conexoes-reservadas", defaultValue = "4")
+    int conexoesReservadas;
+
+    @ConfigProperty(name = "simulador.lote.tamanho-bloco", defaultValue = "200")
+    int tamanhoBloco;
+
+    private final Map<String, LoteSimulacao> lotes = new ConcurrentHashMap<>();
+    private ExecutorService executor;
+    private Semaphore conexoesDisponiveis;
+    private int maximoBlocosConcorrentes;
+
+    @PostConstruct
+    void inicializar() {
+        maximoBlocosConcorrentes = Math.max(1, tamanhoPoolConexoes - conexoesReservadas);
+        conexoesDisponiveis = new Semaphore(maximoBlocosConcorrentes, true);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    @PreDestroy
+    void finalizar() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Submete um novo lote para execução assíncrona
+     */
+    public LoteSimulacao submeter(String orgaoEmpregador, List<Simulacao.RegraAposentadoria> regras,
+                                  LocalDate dataReferencia, boolean persistir) {
+        List<Simulacao.RegraAposentadoria> regrasLote = regras == null || regras.isEmpty()
+                ? Arrays.asList(Simulacao.RegraAposentadoria.values())
+                : List.copyOf(regras);
+
+        LoteSimulacao lote = new LoteSimulacao(orgaoEmpregador, regrasLote, dataReferencia, persistir);
+        descartarLotesAntigos();
+        lotes.put(lote.id, lote);
+        executor.submit(() -> executar(lote));
+        return lote;
+    }
+
+    public Optional<LoteSimulacao> buscar(String id) {
+        return Optional.ofNullable(lotes.get(id));
+    }
+
+    private void executar(LoteSimulacao lote) {
+        lote.dataInicio = Instant.now();
+        lote.status = LoteSimulacao.Status.EM_EXECUCAO;
+        try {
+            List<Long> usuarios = QuarkusTransaction.requiringNew().call(() -> listarUsuarios(lote.orgaoEmpregador));
+            lote.totalUsuarios = usuarios.size();
+            for (int i = 0; i < usuarios.size(); i += tamanhoBloco) {
+                lote.fila.add(usuarios.subList(i, Math.min(i + tamanhoBloco, usuarios.size())));
+            }
+
+            int consumidores = Math.min(maximoBlocosConcorrentes, lote.fila.size());
+            List<Future<?>> tarefas = new ArrayList<>(consumidores);
+            for (int i = 0; i < consumidores; i++) {
+                tarefas.add(executor.submit(() -> consumirFila(lote)));
+            }
+            for (Future<?> tarefa : tarefas) {
+                tarefa.get();
+            }
+            lote.status = LoteSimulacao.Status.CONCLUIDO;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            lote.erro = "Execução interrompida";
+            lote.status = LoteSimulacao.Status.FALHOU;
+        } catch (Exception e) {
+            LOG.errorf(e, "Falha ao executar o lote %s", lote.id);
+            lote.erro = e.getMessage();
+            lote.status = LoteSimulacao.Status.FALHOU;
+        } finally {
+            lote.dataFim = Instant.now();
+            LOG.infof("Lote %s finalizado: %d usuários processados, %d com falha, %.1f usuários/s",
+                    lote.id, lote.getUsuariosProcessados(), lote.getUsuariosComFalha(), lote.getUsuariosPorSegundo());
+        }
+    }
+
+    private void consumirFila(LoteSimulacao lote) {
+        List<Long> bloco;
+        while ((bloco = lote.fila.poll()) != null) {
+            try {
+                conexoesDisponiveis.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            try {
+                List<Long> usuariosBloco = bloco;
+                long[] elegiveis = QuarkusTransaction.requiringNew().call(() -> processarBloco(lote, usuariosBloco));
+                // Contabiliza o bloco apenas após o commit da transação
+                for (int i = 0; i < elegiveis.length; i++) {
+                    lote.elegiveisPorRegra.addAndGet(i, elegiveis[i]);
+                }
+                lote.usuariosProcessados.addAndGet(bloco.size());
+            } catch (Exception e) {
+                LOG.warnf(e, "Falha ao processar bloco de %d usuários do lote %s", bloco.size(), lote.id);
+                lote.registrarFalha(bloco);
+            } finally {
+                conexoesDisponiveis.release();
+            }
+        }
+    }
+
+    /**
+     * Simula todas as regras do lote para um bloco de usuários, carregando
+     * usuários e períodos com uma consulta cada. Retorna o número de usuários
+     * elegíveis por regra.
+     */
+    private long[] processarBloco(LoteSimulacao lote, List<Long> usuarioIds) {
+        List<Usuario> usuarios = Usuario.list("id in ?1", usuarioIds);
+        List<PeriodoServico> periodos = PeriodoServico.list("usuario.id in ?1", usuarioIds);
+
+        Map<Long, List<PeriodoServico>> periodosPorUsuario = new HashMap<>();
+        for (PeriodoServico periodo : periodos) {
+            periodosPorUsuario.computeIfAbsent(periodo.usuario.id, id -> new ArrayList<>()).add(periodo);
+        }
+
+        long[] elegiveis = new long[Simulacao.RegraAposentadoria.values().length];
+        List<Simulacao> simulacoes = new ArrayList<>(usuarios.size() * lote.regras.size());
+        for (Usuario usuario : usuarios) {
+            TempoAgregado tempos = simuladorService.agregarTempos(usuario,
+                    periodosPorUsuario.getOrDefault(usuario.id, List.of()));
+            for (Simulacao.RegraAposentadoria regra : lote.regras) {
+                Simulacao simulacao = simuladorService.calcularSimulacao(usuario, tempos, regra, lote.dataReferencia);
+                simulacao.nomeSimulacao = "Lote " + lote.id;
+                if (Boolean.TRUE.equals(simulacao.elegivel)) {
+                    elegiveis[regra.ordinal()]++;
+                }
+                simulacoes.add(simulacao);
+            }
+        }
+
+        if (lote.persistir) {
+            Simulacao.persist(simulacoes);
+        }
+        return elegiveis;
+    }
+
+    private List<Long> listarUsuarios(String orgaoEmpregador) {
+        if (orgaoEmpregador == null || orgaoEmpregador.isBlank()) {
+            return entityManager.createQuery("select u.id from Usuario u order by u.id", Long.class)
+                    .getResultList();
+        }
+        return entityManager.createQuery(
+                        "select distinct p.usuario.id from PeriodoServico p where p.orgaoEmpregador = ?1 order by p.usuario.id",
+                        Long.class)
+                .setParameter(1, orgaoEmpregador)
+                .getResultList();
+    }
+
+    private void descartarLotesAntigos() {
+        if (lotes.size() < MAXIMO_LOTES_RETIDOS) {
+            return;
+        }
+        lotes.values().stream()
+                .filter(LoteSimulacao::isFinalizado)
+                .min(Comparator.comparing(LoteSimulacao::getDataFim))
+                .ifPresent(lote -> lotes.remove(lote.id));
+    }
+}
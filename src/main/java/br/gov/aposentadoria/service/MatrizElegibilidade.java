@@ -0,0 +1,125 @@
+package br.gov.aposentadoria.service;
+
+import br.gov.aposentadoria.model.CarreirasColunares;
+import br.gov.aposentadoria.model.PeriodoServico;
+import br.gov.aposentadoria.model.Simulacao;
+import br.gov.aposentadoria.model.Usuario;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Elegibilidade de cada combinação (usuário, regra, data de referência).
+ *
+ * O cálculo não acessa o banco nem altera estado compartilhado: os tempos de
+ * cada usuário são agregados e projetados a partir da data mais antiga da
+ * matriz, e cada célula avalia as funções puras de elegibilidade do
+ * {@link SimuladorService} sobre os tempos projetados. Por isso as células
+ * podem ser calculadas em paralelo, e o resultado é guardado em um único
+ * vetor, indexado por usuário, regra e data nessa ordem.
+ */
+public final class MatrizElegibilidade {
+
+    private final List<Long> usuarioIds;
+    private final List<Simulacao.RegraAposentadoria> regras;
+    private final List<LocalDate> datas;
+    private final boolean[] elegiveis;
+
+    private MatrizElegibilidade(List<Long> usuarioIds, List<Simulacao.RegraAposentadoria> regras,
+                                List<LocalDate> datas, boolean[] elegiveis) {
+        this.usuarioIds = usuarioIds;
+        this.regras = regras;
+        this.datas = datas;
+        this.elegiveis = elegiveis;
+    }
+
+    /**
+     * Calcula a matriz usando o pool de fork-join da thread atual (ou o pool
+     * comum, fora de um pool)
+     */
+    public static MatrizElegibilidade calcular(SimuladorService simuladorService, List<Usuario> usuarios,
+                                               Map<Long, List<PeriodoServico>> periodosPorUsuario,
+                                               List<Simulacao.RegraAposentadoria> regras, List<LocalDate> datas) {
+        LocalDate inicio = Collections.min(datas);
+
+        ProjecaoAposentadoria[] projecoes = new ProjecaoAposentadoria[usuarios.size()];
+        IntStream.range(0, projecoes.length).parallel().forEach(u -> {
+            Usuario usuario = usuarios.get(u);
+            projecoes[u] = simuladorService.projetar(usuario,
+                    simuladorService.agregarTempos(usuario, periodosPorUsuario.getOrDefault(usuario.id, List.of())),
+                    inicio);
+        });
+
+        return avaliar(usuarios.stream().map(usuario -> usuario.id).toList(), projecoes, regras, datas);
+    }
+
+    /**
+     * Calcula a matriz a partir das carreiras em formato colunar, sem
+     * entidades, usando o pool de fork-join da thread atual
+     */
+    public static MatrizElegibilidade calcular(SimuladorService simuladorService, CarreirasColunares carreiras,
+                                               List<Simulacao.RegraAposentadoria> regras, List<LocalDate> datas) {
+        LocalDate inicio = Collections.min(datas);
+
+        ProjecaoAposentadoria[] projecoes = new ProjecaoAposentadoria[carreiras.quantidadeUsuarios()];
+        IntStream.range(0, projecoes.length).parallel().forEach(u -> projecoes[u] = simuladorService.projetar(
+                carreiras.usuario(u), simuladorService.agregarTempos(carreiras, u), inicio));
+
+        return avaliar(IntStream.range(0, projecoes.length).mapToObj(carreiras::usuarioId).toList(),
+                projecoes, regras, datas);
+    }
+
+    private static MatrizElegibilidade avaliar(List<Long> usuarioIds, ProjecaoAposentadoria[] projecoes,
+                                               List<Simulacao.RegraAposentadoria> regras, List<LocalDate> datas) {
+        long[] dias = datas.stream().mapToLong(LocalDate::toEpochDay).toArray();
+        Simulacao.RegraAposentadoria[] regrasMatriz = regras.toArray(Simulacao.RegraAposentadoria[]::new);
+        int celulasPorUsuario = regrasMatriz.length * dias.length;
+        boolean[] elegiveis = new boolean[projecoes.length * celulasPorUsuario];
+        // Cada célula escreve em uma posição própria do vetor
+        IntStream.range(0, elegiveis.length).parallel().forEach(i -> {
+            int resto = i % celulasPorUsuario;
+            elegiveis[i] = projecoes[i / celulasPorUsuario].elegivel(regrasMatriz[resto / dias.length], dias[resto % dias.length]);
+        });
+
+        return new MatrizElegibilidade(usuarioIds, List.copyOf(regras), List.copyOf(datas), elegiveis);
+    }
+
+    public List<Long> getUsuarioIds() {
+        return usuarioIds;
+    }
+
+    public List<Simulacao.RegraAposentadoria> getRegras() {
+        return regras;
+    }
+
+    public List<LocalDate> getDatas() {
+        return datas;
+    }
+
+    public int tamanho() {
+        return elegiveis.length;
+    }
+
+    /**
+     * Elegibilidade pelas posições do usuário, da regra e da data na matriz
+     */
+    public boolean elegivel(int usuario, int regra, int data) {
+        return elegiveis[(usuario * regras.size() + regra) * datas.size() + data];
+    }
+
+    /**
+     * Número de usuários elegíveis em uma regra e data
+     */
+    public int contarElegiveis(int regra, int data) {
+        int total = 0;
+        for (int usuario = 0; usuario < usuarioIds.size(); usuario++) {
+            if (elegivel(usuario, regra, data)) {
+                total++;
+            }
+        }
+        return total;
+    }
+}
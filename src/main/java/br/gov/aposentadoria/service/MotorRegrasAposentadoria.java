@@ -0,0 +1,111 @@
+package br.gov.aposentadoria.service;
+
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mantém as regras de aposentadoria em vigor.
+ *
+ * Sem {@code simulador.regras.arquivo}, usa o arquivo distribuído com a
+ * aplicação. Com um arquivo externo configurado, as regras são recompiladas
+ * quando o arquivo é alterado (verificado a cada
+ * {@code simulador.regras.intervalo-verificacao}) ou pela API, sem reiniciar
+ * a aplicação. Se a nova definição for inválida, as regras anteriores
+ * continuam em vigor.
+ */
+@ApplicationScoped
+public class MotorRegrasAposentadoria {
+
+    private static final Logger LOG = Logger.getLogger(MotorRegrasAposentadoria.class);
+
+    @ConfigProperty(name = "simulador.regras.arquivo")
+    Optional<Path> arquivo;
+
+    @ConfigProperty(name = "simulador.regras.intervalo-verificacao", defaultValue = "PT30S")
+    Duration intervaloVerificacao;
+
+    private volatile RegrasAposentadoria regras = RegrasAposentadoria.padrao();
+    private volatile FileTime ultimaModificacao;
+    private ScheduledExecutorService verificador;
+
+    void iniciar(@Observes StartupEvent evento) throws IOException {
+        if (arquivo.isEmpty()) {
+            return;
+        }
+        recarregar();
+        verificador = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                .name("recarga-regras")
+                .daemon()
+                .factory());
+        verificador.scheduleWithFixedDelay(this::verificarAlteracao,
+                intervaloVerificacao.toMillis(), intervaloVerificacao.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void finalizar() {
+        if (verificador != null) {
+            verificador.shutdownNow();
+        }
+    }
+
+    /**
+     * Regras em vigor. Quem avalia várias datas para o mesmo cálculo deve
+     * guardar a instância retornada, para não misturar versões durante uma
+     * recarga.
+     */
+    public RegrasAposentadoria atual() {
+        return regras;
+    }
+
+    /**
+     * Relê e recompila as regras do arquivo configurado (ou do arquivo padrão)
+     *
+     * @throws IllegalArgumentException se a nova definição for inválida
+     */
+    public synchronized RegrasAposentadoria recarregar() throws IOException {
+        RegrasAposentadoria novas;
+        if (arquivo.isPresent()) {
+            // Uma versão inválida não é relida até o arquivo ser alterado novamente
+            ultimaModificacao = Files.getLastModifiedTime(arquivo.get());
+            try (InputStream entrada = Files.newInputStream(arquivo.get())) {
+                novas = RegrasAposentadoria.ler(entrada);
+            }
+        } else {
+            novas = RegrasAposentadoria.padrao();
+        }
+
+        if (!novas.versao().equals(regras.versao())) {
+            LOG.infof("Regras de aposentadoria atualizadas da versão %s para %s", regras.versao(), novas.versao());
+        } else if (!novas.hashDefinicao().equals(regras.hashDefinicao())) {
+            // Os resultados já calculados deixam de valer mesmo assim, pois são identificados pelo conteúdo
+            LOG.warnf("Regras de aposentadoria alteradas sem mudança da versão %s", novas.versao());
+        }
+        regras = novas;
+        return novas;
+    }
+
+    private void verificarAlteracao() {
+        try {
+            if (!Files.getLastModifiedTime(arquivo.get()).equals(ultimaModificacao)) {
+                recarregar();
+            }
+        } catch (Exception e) {
+            LOG.errorf(e, "Falha ao recarregar as regras de %s; a versão %s continua em vigor", arquivo.get(), regras.versao());
+        }
+    }
+}
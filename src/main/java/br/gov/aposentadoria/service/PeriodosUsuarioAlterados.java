@@ -0,0 +1,8 @@
+package br.gov.aposentadoria.service;
+
+/**
+ * Evento disparado quando os períodos de serviço de um usuário, ou os dados do
+ * usuário usados na agregação dos tempos, são alterados
+ */
+public record PeriodosUsuarioAlterados(Long usuarioId) {
+}
@@ -0,0 +1,146 @@
+package br.gov.aposentadoria.service;
+
+import br.gov.aposentadoria.model.ConvencaoTempo;
+import br.gov.aposentadoria.model.PeriodoTempo;
+import br.gov.aposentadoria.model.Simulacao;
+import br.gov.aposentadoria.model.TempoAgregado;
+import br.gov.aposentadoria.model.TempoAgregado.Categoria;
+import br.gov.aposentadoria.model.Usuario;
+
+import java.time.LocalDate;
+
+/**
+ * Projeta os tempos de um usuário para datas futuras e calcula a data mais
+ * próxima em que cada regra de aposentadoria passa a ser cumprida.
+ *
+ * A projeção considera que o usuário permanece no vínculo mais recente a
+ * partir da data de referência (ou do dia seguinte ao fim desse vínculo, se
+ * posterior), acumulando um dia de tempo por dia nas categorias em que o
+ * vínculo conta. Idade e tempos são, portanto, funções não decrescentes da
+ * data. Os únicos requisitos que dependem do calendário (pontuação mínima e
+ * mudança de idade mínima, definidas por ano em {@link RegrasAposentadoria})
+ * mudam apenas na virada do ano, então dentro de cada ano a elegibilidade é
+ * monótona. Por isso os anos são percorridos um a um, a partir da data de
+ * referência e por até {@link #HORIZONTE_ANOS} anos, testando apenas o último
+ * dia de cada ano; a busca binária é feita só dentro do primeiro ano em que a
+ * regra é cumprida. Entre anos não há busca binária, pois a pontuação mínima
+ * pode crescer mais rápido que a do usuário e tornar a regra cumprida em um
+ * ano e não no seguinte.
+ */
+public class ProjecaoAposentadoria {
+
+    /**
+     * Limite da projeção a partir da data de referência
+     */
+    static final int HORIZONTE_ANOS = 75;
+
+    private static final Categoria[] CATEGORIAS = Categoria.values();
+
+    private final RegrasAposentadoria regras;
+    private final Usuario usuario;
+    private final ConvencaoTempo convencao;
+    private final long dataReferencia;
+    private final long inicioAcumulo;
+    private final long[] diasBase = new long[CATEGORIAS.length];
+    private final boolean[] acumula = new boolean[CATEGORIAS.length];
+
+    public ProjecaoAposentadoria(SimuladorService simuladorService, Usuario usuario,
+                                 TempoAgregado tempos, LocalDate dataReferencia) {
+        // As regras são fixadas na criação, para não mudarem durante a busca
+        this(simuladorService.regras(), usuario, tempos, dataReferencia);
+    }
+
+    /**
+     * Projeção com regras informadas, para avaliações com requisitos
+     * alternativos aos que estão em vigor
+     */
+    public ProjecaoAposentadoria(RegrasAposentadoria regras, Usuario usuario,
+                                 TempoAgregado tempos, LocalDate dataReferencia) {
+        this.regras = regras;
+        this.usuario = usuario;
+        this.convencao = tempos.getConvencao();
+        this.dataReferencia = dataReferencia.toEpochDay();
+
+        LocalDate fimUltimoVinculo = tempos.getFimUltimoVinculo();
+        this.inicioAcumulo = fimUltimoVinculo != null
+                ? Math.max(this.dataReferencia, fimUltimoVinculo.toEpochDay() + 1)
+                : Long.MAX_VALUE;
+
+        for (Categoria categoria : CATEGORIAS) {
+            diasBase[categoria.ordinal()] = tempos.dias(categoria);
+            acumula[categoria.ordinal()] = fimUltimoVinculo != null && tempos.ultimoVinculoPertence(categoria);
+        }
+    }
+
+    /**
+     * Tempo projetado de uma categoria em uma data
+     */
+    public PeriodoTempo tempo(Categoria categoria, LocalDate data) {
+        return tempo(categoria, data.toEpochDay());
+    }
+
+    private PeriodoTempo tempo(Categoria categoria, long dia) {
+        long dias = diasBase[categoria.ordinal()];
+        if (acumula[categoria.ordinal()] && dia > inicioAcumulo) {
+            dias += dia - inicioAcumulo;
+        }
+        return convencao.paraPeriodo(dias);
+    }
+
+    /**
+     * Calcula a primeira data, a partir da data de referência, em que a regra é
+     * cumprida. Retorna null se a regra não for cumprida dentro do horizonte
+     * de projeção ou não estiver implementada.
+     */
+    public LocalDate calcularDataPrevisao(Simulacao.RegraAposentadoria regra) {
+        if (!regras.implementada(regra)) {
+            return null;
+        }
+
+        long inicio = dataReferencia;
+        long limite = LocalDate.ofEpochDay(dataReferencia).plusYears(HORIZONTE_ANOS).toEpochDay();
+
+        while (inicio <= limite) {
+            // Requisitos dependentes do ano são constantes até 31/12
+            long fimAno = Math.min(limite, LocalDate.ofEpochDay(inicio).withDayOfYear(1).plusYears(1).toEpochDay() - 1);
+            if (elegivel(regra, fimAno)) {
+                return LocalDate.ofEpochDay(primeiroDiaElegivel(regra, inicio, fimAno));
+            }
+            inicio = fimAno + 1;
+        }
+        return null;
+    }
+
+    /**
+     * Busca binária pelo primeiro dia elegível em um intervalo no qual a
+     * elegibilidade é monótona e o último dia é elegível
+     */
+    private long primeiroDiaElegivel(Simulacao.RegraAposentadoria regra, long inicio, long fim) {
+        while (inicio < fim) {
+            long meio = (inicio + fim) >>> 1;
+            if (elegivel(regra, meio)) {
+                fim = meio;
+            } else {
+                inicio = meio + 1;
+            }
+        }
+        return inicio;
+    }
+
+    /**
+     * Avalia a regra com os tempos projetados para o dia informado
+     */
+    boolean elegivel(Simulacao.RegraAposentadoria regra, long dia) {
+        int[] anos = new int[CATEGORIAS.length];
+        PeriodoTempo tempoContribuicao = null;
+        for (Categoria categoria : CATEGORIAS) {
+            PeriodoTempo tempo = tempo(categoria, dia);
+            anos[categoria.ordinal()] = tempo.anos();
+            if (categoria == Categoria.CONTRIBUICAO) {
+                tempoContribuicao = tempo;
+            }
+        }
+        // Para este exemplo, consideramos pedágio como zero (já cumprido)
+        return regras.elegivel(regra, usuario, LocalDate.ofEpochDay(dia), anos, tempoContribuicao, true);
+    }
+}
@@ -0,0 +1,26 @@
+package br.gov.aposentadoria.service;
+
+import java.util.Map;
+
+/**
+ * Uma linha do arquivo de importação, com os campos ainda como texto.
+ * Quando a linha não pôde ser lida, {@code erro} descreve o motivo.
+ */
+record RegistroImportacao(long linha, Map<String, String> campos, String erro) {
+
+    static RegistroImportacao invalido(long linha, String erro) {
+        return new RegistroImportacao(linha, Map.of(), erro);
+    }
+
+    String campo(String nome) {
+        return campos.get(nome);
+    }
+
+    /**
+     * CPF apenas com dígitos, usado para agrupar os registros por usuário
+     */
+    String cpf() {
+        String cpf = campos.get("cpf");
+        return cpf == null ? null : cpf.replaceAll("\\D", "");
+    }
+}
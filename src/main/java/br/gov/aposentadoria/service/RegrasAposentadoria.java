@@ -0,0 +1,248 @@
+package br.gov.aposentadoria.service;
+
+import br.gov.aposentadoria.model.PeriodoTempo;
+import br.gov.aposentadoria.model.Simulacao;
+import br.gov.aposentadoria.model.TempoAgregado;
+import br.gov.aposentadoria.model.Usuario;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Map;
+
+/**
+ * Regras de aposentadoria compiladas a partir de uma {@link DefinicaoRegras}.
+ *
+ * Cada combinação de regra e sexo ocupa uma posição fixa
+ * ({@code regra.ordinal() * 2 + sexo}) em vetores de inteiros, e os tempos
+ * mínimos ficam em um único vetor indexado também pela categoria. A avaliação
+ * é uma sequência de comparações entre inteiros, sem reflexão nem consultas a
+ * mapas. Uma instância é imutável; a recarga das regras cria outra.
+ */
+public final class RegrasAposentadoria {
+
+    static final String ARQUIVO_PADRAO = "regras-aposentadoria.json";
+
+    private static final Simulacao.RegraAposentadoria[] REGRAS = Simulacao.RegraAposentadoria.values();
+    private static final TempoAgregado.Categoria[] CATEGORIAS = TempoAgregado.Categoria.values();
+    private static final String[] SEXOS = {"M", "F"};
+
+    private final String versao;
+    private final String hashDefinicao;
+    private final DefinicaoRegras definicao;
+    private final double[] fatorConversao = new double[SEXOS.length];
+
+    private final boolean[] implementada = new boolean[REGRAS.length];
+    private final int[] idadeMinima = new int[REGRAS.length * SEXOS.length];
+    private final int[] anoMudancaIdade = new int[REGRAS.length * SEXOS.length];
+    private final int[] idadeMinimaAposMudanca = new int[REGRAS.length * SEXOS.length];
+    private final int[] tempoMinimoAnos = new int[REGRAS.length * SEXOS.length * CATEGORIAS.length];
+    private final boolean[] exigePontos = new boolean[REGRAS.length * SEXOS.length];
+    private final int[] pontosBase = new int[REGRAS.length * SEXOS.length];
+    private final int[] pontosAnoBase = new int[REGRAS.length * SEXOS.length];
+    private final int[] pontosIncremento = new int[REGRAS.length * SEXOS.length];
+    private final int[] pontosMaximo = new int[REGRAS.length * SEXOS.length];
+    private final boolean[] exigePedagio = new boolean[REGRAS.length * SEXOS.length];
+
+    private RegrasAposentadoria(DefinicaoRegras definicao, String hashDefinicao) {
+        this.definicao = definicao;
+        this.versao = definicao.versao;
+        this.hashDefinicao = hashDefinicao;
+        Arrays.fill(anoMudancaIdade, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Regras do arquivo padrão distribuído com a aplicação
+     */
+    public static RegrasAposentadoria padrao() {
+        return Padrao.REGRAS;
+    }
+
+    /**
+     * Lê e compila uma definição em JSON. Campos desconhecidos são recusados
+     * para que erros de digitação não passem despercebidos.
+     *
+     * @throws IllegalArgumentException se a definição for inválida
+     */
+    public static RegrasAposentadoria ler(InputStream entrada) throws IOException {
+        byte[] conteudo = entrada.readAllBytes();
+        DefinicaoRegras definicao;
+        try {
+            definicao = new ObjectMapper().readValue(conteudo, DefinicaoRegras.class);
+        } catch (com.fasterxml.jackson.core.JsonProcessingException e) {
+            throw new IllegalArgumentException("Arquivo de regras inválido: " + e.getOriginalMessage(), e);
+        }
+        return compilar(definicao, sha256(conteudo));
+    }
+
+    /**
+     * Valida a definição e a converte na estrutura usada na avaliação
+     *
+     * @param hashDefinicao identifica o conteúdo da definição; ver {@link #hashDefinicao()}
+     * @throws IllegalArgumentException se a definição for inválida
+     */
+    public static RegrasAposentadoria compilar(DefinicaoRegras definicao, String hashDefinicao) {
+        if (definicao.versao == null || definicao.versao.isBlank()) {
+            throw new IllegalArgumentException("Versão das regras não informada");
+        }
+        RegrasAposentadoria regras = new RegrasAposentadoria(definicao, hashDefinicao);
+
+        for (int sexo = 0; sexo < SEXOS.length; sexo++) {
+            Double fator = definicao.fatorConversaoTempoEspecial == null
+                    ? null
+                    : definicao.fatorConversaoTempoEspecial.get(SEXOS[sexo]);
+            if (fator == null || fator <= 0) {
+                throw new IllegalArgumentException("Fator de conversão de tempo especial inválido para o sexo " + SEXOS[sexo]);
+            }
+            regras.fatorConversao[sexo] = fator;
+        }
+
+        if (definicao.regras == null) {
+            return regras;
+        }
+        for (Map.Entry<Simulacao.RegraAposentadoria, Map<String, DefinicaoRegras.Requisitos>> regra : definicao.regras.entrySet()) {
+            for (int sexo = 0; sexo < SEXOS.length; sexo++) {
+                DefinicaoRegras.Requisitos requisitos = regra.getValue().get(SEXOS[sexo]);
+                if (requisitos == null || requisitos.idadeMinima == null) {
+                    throw new IllegalArgumentException("Idade mínima não informada em " + regra.getKey() + " para o sexo " + SEXOS[sexo]);
+                }
+                regras.compilar(regra.getKey(), sexo, requisitos);
+            }
+            regras.implementada[regra.getKey().ordinal()] = true;
+        }
+        return regras;
+    }
+
+    private void compilar(Simulacao.RegraAposentadoria regra, int sexo, DefinicaoRegras.Requisitos requisitos) {
+        int indice = regra.ordinal() * SEXOS.length + sexo;
+        idadeMinima[indice] = requisitos.idadeMinima;
+        if (requisitos.idadeMinimaAPartirDe != null) {
+            anoMudancaIdade[indice] = requisitos.idadeMinimaAPartirDe.ano;
+            idadeMinimaAposMudanca[indice] = requisitos.idadeMinimaAPartirDe.idade;
+        }
+        if (requisitos.tempoMinimoAnos != null) {
+            requisitos.tempoMinimoAnos.forEach((categoria, anos) ->
+                    tempoMinimoAnos[indice * CATEGORIAS.length + categoria.ordinal()] = anos);
+        }
+        if (requisitos.pontuacao != null) {
+            exigePontos[indice] = true;
+            pontosBase[indice] = requisitos.pontuacao.base;
+            pontosAnoBase[indice] = requisitos.pontuacao.anoBase;
+            pontosIncremento[indice] = requisitos.pontuacao.incrementoAnual;
+            pontosMaximo[indice] = requisitos.pontuacao.maximo;
+        }
+        exigePedagio[indice] = requisitos.exigePedagio;
+    }
+
+    public String versao() {
+        return versao;
+    }
+
+    /**
+     * Resumo SHA-256 do arquivo de que as regras foram lidas. Diferente da
+     * versão, que é editada à mão, muda sempre que o conteúdo muda; por isso
+     * é ele que identifica as regras nas chaves de resultados calculados.
+     */
+    public String hashDefinicao() {
+        return hashDefinicao;
+    }
+
+    public DefinicaoRegras definicao() {
+        return definicao;
+    }
+
+    public boolean implementada(Simulacao.RegraAposentadoria regra) {
+        return implementada[regra.ordinal()];
+    }
+
+    /**
+     * Fator de conversão do tempo especial em tempo comum
+     */
+    public double fatorConversao(String sexo) {
+        return fatorConversao[indiceSexo(sexo)];
+    }
+
+    /**
+     * Verifica se a regra é cumprida na data informada
+     *
+     * @param anosPorCategoria anos completos de cada categoria de tempo, na ordem de {@link TempoAgregado.Categoria}
+     * @param tempoContribuicao tempo de contribuição, usado na pontuação
+     */
+    public boolean elegivel(Simulacao.RegraAposentadoria regra, Usuario usuario, LocalDate data,
+                            int[] anosPorCategoria, PeriodoTempo tempoContribuicao, boolean pedagioCumprido) {
+        if (!implementada[regra.ordinal()]) {
+            return false;
+        }
+        int indice = regra.ordinal() * SEXOS.length + indiceSexo(usuario.sexo);
+        int ano = data.getYear();
+        int idade = Period.between(usuario.dataNascimento, data).getYears();
+
+        if (idade < (ano >= anoMudancaIdade[indice] ? idadeMinimaAposMudanca[indice] : idadeMinima[indice])) {
+            return false;
+        }
+        int base = indice * CATEGORIAS.length;
+        for (int categoria = 0; categoria < CATEGORIAS.length; categoria++) {
+            if (anosPorCategoria[categoria] < tempoMinimoAnos[base + categoria]) {
+                return false;
+            }
+        }
+        if (exigePontos[indice]) {
+            int minimo = Math.min(pontosMaximo[indice],
+                    pontosBase[indice] + (ano - pontosAnoBase[indice]) * pontosIncremento[indice]);
+            if (pontuacao(idade, tempoContribuicao) < minimo) {
+                return false;
+            }
+        }
+        return !exigePedagio[indice] || pedagioCumprido;
+    }
+
+    /**
+     * Pontuação (idade + tempo de contribuição), com meses e dias convertidos
+     * em fração de ano
+     */
+    public static int pontuacao(int idade, PeriodoTempo tempoContribuicao) {
+        int pontos = idade + tempoContribuicao.anos();
+
+        double mesesEmAnos = tempoContribuicao.meses() / 12.0;
+        double diasEmAnos = tempoContribuicao.dias() / 365.0;
+
+        pontos += Math.round((mesesEmAnos + diasEmAnos) * 100) / 100.0;
+
+        return pontos;
+    }
+
+    private static int indiceSexo(String sexo) {
+        return "M".equals(sexo) ? 0 : 1;
+    }
+
+    private static String sha256(byte[] conteudo) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(conteudo));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class Padrao {
+
+        static final RegrasAposentadoria REGRAS;
+
+        static {
+            try (InputStream entrada = RegrasAposentadoria.class.getClassLoader().getResourceAsStream(ARQUIVO_PADRAO)) {
+                if (entrada == null) {
+                    throw new IllegalStateException("Arquivo de regras " + ARQUIVO_PADRAO + " não encontrado");
+                }
+                REGRAS = ler(entrada);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
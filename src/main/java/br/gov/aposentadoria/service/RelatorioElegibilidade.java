@@ -0,0 +1,181 @@
+package br.gov.aposentadoria.service;
+
+import br.gov.aposentadoria.model.PeriodoServico;
+import br.gov.aposentadoria.model.Simulacao;
+import br.gov.aposentadoria.model.Usuario;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Histogramas do ano em que os usuários passam a cumprir cada regra, por
+ * sexo, órgão empregador e tipo de serviço do vínculo mais recente.
+ *
+ * Cada usuário é contado no ano da primeira data, a partir da data de
+ * referência, em que cumpre a regra (quem já a cumpre conta no ano da data de
+ * referência); quem não a cumpre até o ano final conta em
+ * {@link #naoElegiveis}. Os usuários não são guardados: a memória depende
+ * apenas do número de regras, anos e valores distintos de cada dimensão.
+ * Instâncias não são thread-safe; cada thread acumula a sua e elas são
+ * somadas com {@link #somar}.
+ */
+public final class RelatorioElegibilidade {
+
+    public static final String NAO_INFORMADO = "não informado";
+
+    private final List<Simulacao.RegraAposentadoria> regras;
+    private final LocalDate dataReferencia;
+    private final int anoFinal;
+    private final String versaoRegras;
+    private final int anos;
+
+    private long usuarios;
+
+    /**
+     * Por regra, a contagem de cada ano; a última posição conta os usuários
+     * que não cumprem a regra até o ano final
+     */
+    private final long[][] total;
+    private final List<Map<String, long[]>> porSexo;
+    private final List<Map<String, long[]>> porOrgao;
+    private final List<Map<String, long[]>> porTipoServico;
+
+    public RelatorioElegibilidade(List<Simulacao.RegraAposentadoria> regras, LocalDate dataReferencia, int anoFinal,
+                                  String versaoRegras) {
+        if (anoFinal < dataReferencia.getYear()) {
+            throw new IllegalArgumentException("O ano final deve ser igual ou posterior ao ano da data de referência");
+        }
+        this.regras = List.copyOf(regras);
+        this.dataReferencia = dataReferencia;
+        this.anoFinal = anoFinal;
+        this.versaoRegras = versaoRegras;
+        this.anos = anoFinal - dataReferencia.getYear() + 1;
+        this.total = new long[regras.size()][anos + 1];
+        this.porSexo = mapasPorRegra();
+        this.porOrgao = mapasPorRegra();
+        this.porTipoServico = mapasPorRegra();
+    }
+
+    /**
+     * Relatório sem usuários, com os mesmos parâmetros, para acumulação
+     * paralela
+     */
+    public RelatorioElegibilidade vazio() {
+        return new RelatorioElegibilidade(regras, dataReferencia, anoFinal, versaoRegras);
+    }
+
+    /**
+     * Conta um usuário em todas as regras
+     *
+     * @param orgaoEmpregador órgão do vínculo mais recente (pode ser nulo)
+     * @param tipoServico     tipo de serviço do vínculo mais recente (pode ser nulo)
+     * @param projecao        projeção a partir da data de referência do relatório
+     */
+    public void registrar(Usuario usuario, String orgaoEmpregador, PeriodoServico.TipoServico tipoServico,
+                          ProjecaoAposentadoria projecao) {
+        usuarios++;
+        String sexo = usuario.sexo != null ? usuario.sexo : NAO_INFORMADO;
+        String orgao = orgaoEmpregador != null ? orgaoEmpregador : NAO_INFORMADO;
+        String tipo = tipoServico != null ? tipoServico.name() : NAO_INFORMADO;
+
+        for (int r = 0; r < regras.size(); r++) {
+            LocalDate previsao = projecao.calcularDataPrevisao(regras.get(r));
+            int indice = previsao == null || previsao.getYear() > anoFinal
+                    ? anos
+                    : previsao.getYear() - dataReferencia.getYear();
+            total[r][indice]++;
+            contar(porSexo.get(r), sexo, indice);
+            contar(porOrgao.get(r), orgao, indice);
+            contar(porTipoServico.get(r), tipo, indice);
+        }
+    }
+
+    /**
+     * Acrescenta as contagens de outro relatório com os mesmos parâmetros
+     */
+    public RelatorioElegibilidade somar(RelatorioElegibilidade outro) {
+        usuarios += outro.usuarios;
+        for (int r = 0; r < regras.size(); r++) {
+            somar(total[r], outro.total[r]);
+            somar(porSexo.get(r), outro.porSexo.get(r));
+            somar(porOrgao.get(r), outro.porOrgao.get(r));
+            somar(porTipoServico.get(r), outro.porTipoServico.get(r));
+        }
+        return this;
+    }
+
+    public List<Simulacao.RegraAposentadoria> getRegras() {
+        return regras;
+    }
+
+    public LocalDate getDataReferencia() {
+        return dataReferencia;
+    }
+
+    public int getAnoInicial() {
+        return dataReferencia.getYear();
+    }
+
+    public int getAnoFinal() {
+        return anoFinal;
+    }
+
+    public String getVersaoRegras() {
+        return versaoRegras;
+    }
+
+    public long getUsuarios() {
+        return usuarios;
+    }
+
+    /**
+     * Histograma de todos os usuários em uma regra: uma posição por ano, do
+     * ano inicial ao final, mais uma para os não elegíveis
+     */
+    public long[] total(int regra) {
+        return total[regra].clone();
+    }
+
+    public Map<String, long[]> porSexo(int regra) {
+        return copiar(porSexo.get(regra));
+    }
+
+    public Map<String, long[]> porOrgao(int regra) {
+        return copiar(porOrgao.get(regra));
+    }
+
+    public Map<String, long[]> porTipoServico(int regra) {
+        return copiar(porTipoServico.get(regra));
+    }
+
+    private List<Map<String, long[]>> mapasPorRegra() {
+        List<Map<String, long[]>> mapas = new ArrayList<>(regras.size());
+        for (int r = 0; r < regras.size(); r++) {
+            mapas.add(new TreeMap<>());
+        }
+        return mapas;
+    }
+
+    private void contar(Map<String, long[]> histogramas, String valor, int indice) {
+        histogramas.computeIfAbsent(valor, v -> new long[anos + 1])[indice]++;
+    }
+
+    private static void somar(long[] destino, long[] origem) {
+        for (int i = 0; i < destino.length; i++) {
+            destino[i] += origem[i];
+        }
+    }
+
+    private void somar(Map<String, long[]> destino, Map<String, long[]> origem) {
+        origem.forEach((valor, contagem) -> somar(destino.computeIfAbsent(valor, v -> new long[anos + 1]), contagem));
+    }
+
+    private static Map<String, long[]> copiar(Map<String, long[]> histogramas) {
+        Map<String, long[]> copia = new TreeMap<>();
+        histogramas.forEach((valor, contagem) -> copia.put(valor, contagem.clone()));
+        return copia;
+    }
+}
@@ -0,0 +1,27 @@
+package br.gov.aposentadoria.service;
+
+import br.gov.aposentadoria.model.ImportacaoPeriodos;
+
+import java.util.List;
+
+/**
+ * Resultado de uma execução da importação. Os totais são acumulados desde o
+ * início da importação; a taxa e as rejeições detalhadas referem-se apenas a
+ * esta execução.
+ */
+public class ResultadoImportacao {
+
+    public Long importacaoId;
+    public ImportacaoPeriodos.Status status;
+    public long ultimaLinha;
+    public long linhasProcessadas;
+    public long linhasGravadas;
+    public long linhasRejeitadas;
+    public double linhasPorSegundo;
+    public List<Rejeicao> rejeicoes;
+    public boolean rejeicoesTruncadas;
+    public String erro;
+
+    public record Rejeicao(long linha, String motivo) {
+    }
+}
@@ -0,0 +1,104 @@
+package br.gov.aposentadoria.service;
+
+import br.gov.aposentadoria.model.Simulacao;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Resultados de simulações já calculadas, endereçados pela
+ * {@link ChaveSimulacao} de suas entradas.
+ *
+ * Como a chave muda sempre que alguma entrada muda (inclusive os períodos do
+ * usuário e o conteúdo das regras), as entradas nunca ficam desatualizadas e não
+ * precisam ser invalidadas; o limite de tamanho e a expiração apenas controlam
+ * a memória. Os resultados são guardados sem usuário nem id e cada consulta
+ * recebe uma cópia nova.
+ */
+@ApplicationScoped
+public class ResultadosSimulacao {
+
+    @ConfigProperty(name = "simulador.resultados.tamanho-maximo", defaultValue = "10000")
+    long tamanhoMaximo;
+
+    @ConfigProperty(name = "simulador.resultados.expiracao", defaultValue = "PT1H")
+    Duration expiracao;
+
+    private Cache<String, Simulacao> resultados;
+
+    ResultadosSimulacao() {
+    }
+
+    /**
+     * Cache criado fora do CDI (testes e benchmarks)
+     */
+    public ResultadosSimulacao(long tamanhoMaximo, Duration expiracao) {
+        this.tamanhoMaximo = tamanhoMaximo;
+        this.expiracao = expiracao;
+        inicializar();
+    }
+
+    @PostConstruct
+    void inicializar() {
+        resultados = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterAccess(expiracao)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(Metrics.globalRegistry, resultados, "resultados-simulacao");
+    }
+
+    /**
+     * Cópia não persistida do resultado guardado para a chave, ou null
+     */
+    public Simulacao obter(String chave) {
+        Simulacao resultado = resultados.getIfPresent(chave);
+        return resultado != null ? copiar(resultado) : null;
+    }
+
+    public void guardar(String chave, Simulacao simulacao) {
+        Simulacao resultado = copiar(simulacao);
+        resultado.usuario = null;
+        resultados.put(chave, resultado);
+    }
+
+    public long tamanho() {
+        return resultados.estimatedSize();
+    }
+
+    /**
+     * Copia o resultado de uma simulação para uma nova instância, sem id e
+     * sem nome, com a data de simulação atual
+     */
+    static Simulacao copiar(Simulacao origem) {
+        Simulacao copia = new Simulacao();
+        copia.usuario = origem.usuario;
+        copia.dataSimulacao = LocalDateTime.now();
+        copia.regraAposentadoria = origem.regraAposentadoria;
+        copia.tempoContribuicaoAnos = origem.tempoContribuicaoAnos;
+        copia.tempoContribuicaoMeses = origem.tempoContribuicaoMeses;
+        copia.tempoContribuicaoDias = origem.tempoContribuicaoDias;
+        copia.tempoServicoPublicoAnos = origem.tempoServicoPublicoAnos;
+        copia.tempoServicoPublicoMeses = origem.tempoServicoPublicoMeses;
+        copia.tempoServicoPublicoDias = origem.tempoServicoPublicoDias;
+        copia.tempoCargoAnos = origem.tempoCargoAnos;
+        copia.tempoCargoMeses = origem.tempoCargoMeses;
+        copia.tempoCargoDias = origem.tempoCargoDias;
+        copia.dataPrevisaoAposentadoria = origem.dataPrevisaoAposentadoria;
+        copia.idadeAposentadoria = origem.idadeAposentadoria;
+        copia.pontuacao = origem.pontuacao;
+        copia.percentualBeneficio = origem.percentualBeneficio;
+        copia.elegivel = origem.elegivel;
+        copia.valorBeneficioEstimado = origem.valorBeneficioEstimado;
+        copia.observacoes = origem.observacoes;
+        copia.hashEntrada = origem.hashEntrada;
+        return copia;
+    }
+}
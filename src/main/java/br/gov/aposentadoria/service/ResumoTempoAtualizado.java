@@ -0,0 +1,10 @@
+package br.gov.aposentadoria.service;
+
+import br.gov.aposentadoria.model.TempoAgregado;
+
+/**
+ * Evento disparado quando o resumo de tempo de um usuário é atualizado, com
+ * os tempos resultantes, para que o cache passe a usá-los após o commit
+ */
+public record ResumoTempoAtualizado(Long usuarioId, TempoAgregado tempos) {
+}
@@ -0,0 +1,180 @@
+package br.gov.aposentadoria.service;
+
+import br.gov.aposentadoria.model.CarreirasColunares;
+import br.gov.aposentadoria.model.PeriodoServico;
+import br.gov.aposentadoria.model.ResumoTempoUsuario;
+import br.gov.aposentadoria.model.TempoAgregado;
+import br.gov.aposentadoria.model.Usuario;
+import br.gov.aposentadoria.repository.PeriodoServicoRepository;
+import br.gov.aposentadoria.repository.ResumoTempoRepository;
+import io.micrometer.core.annotation.Timed;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Verificação e reconstrução dos resumos de tempo
+ * ({@link ResumoTempoUsuario}).
+ *
+ * Os resumos são mantidos pela diferença de cada alteração; esta verificação
+ * recalcula os tempos de toda a população a partir dos períodos e aponta os
+ * usuários cujo resumo falta ou diverge, por exemplo após alterações feitas
+ * diretamente no banco.
+ *
+ * Na inicialização, os usuários que ainda não têm resumo, como os que já
+ * existiam quando a tabela foi criada, recebem o resumo calculado a partir
+ * dos seus períodos. Até lá, seus tempos são agregados a cada leitura.
+ */
+@ApplicationScoped
+public class ResumoTempoService {
+
+    private static final Logger LOG = Logger.getLogger(ResumoTempoService.class);
+
+    @Inject
+    PeriodoServicoRepository periodoServicoRepository;
+
+    @Inject
+    ResumoTempoRepository resumoTempoRepository;
+
+    @Inject
+    SimuladorService simuladorService;
+
+    /**
+     * Usuários verificados em cada transação
+     */
+    @ConfigProperty(name = "simulador.resumos.tamanho-bloco", defaultValue = "2000")
+    int tamanhoBloco;
+
+    @ConfigProperty(name = "simulador.resumos.criar-na-inicializacao", defaultValue = "true")
+    boolean criarNaInicializacao;
+
+    void iniciar(@Observes StartupEvent evento) {
+        if (!criarNaInicializacao) {
+            return;
+        }
+        // Em segundo plano, para não atrasar a inicialização; os usuários
+        // ainda sem resumo continuam atendidos pela agregação dos períodos
+        Thread.ofPlatform()
+                .name("criacao-resumos")
+                .daemon()
+                .start(() -> {
+                    try {
+                        criarAusentes();
+                    } catch (RuntimeException e) {
+                        LOG.error("Falha ao criar os resumos de tempo ausentes", e);
+                    }
+                });
+    }
+
+    /**
+     * Cria, em blocos com transação própria, os resumos dos usuários que
+     * ainda não têm um
+     *
+     * @return quantidade de resumos criados
+     */
+    @Timed(value = "simulador.criar-resumos", description = "Tempo de criação dos resumos de tempo ausentes")
+    public int criarAusentes() {
+        int criados = 0;
+        long ultimoUsuario = Long.MIN_VALUE;
+        while (true) {
+            long aposUsuario = ultimoUsuario;
+            List<Long> ids = QuarkusTransaction.requiringNew().call(() -> criarBloco(aposUsuario));
+            if (ids.isEmpty()) {
+                break;
+            }
+            criados += ids.size();
+            ultimoUsuario = ids.get(ids.size() - 1);
+        }
+
+        if (criados > 0) {
+            LOG.infof("Resumos de tempo criados para %d usuários", criados);
+        }
+        return criados;
+    }
+
+    private List<Long> criarBloco(long aposUsuario) {
+        List<Long> ids = resumoTempoRepository.listarUsuariosSemResumo(aposUsuario, tamanhoBloco);
+        if (ids.isEmpty()) {
+            return ids;
+        }
+
+        Map<Long, List<PeriodoServico>> periodosPorUsuario = new HashMap<>();
+        for (PeriodoServico periodo : PeriodoServico.<PeriodoServico>list("usuario.id in ?1", ids)) {
+            periodosPorUsuario.computeIfAbsent(periodo.usuario.id, id -> new ArrayList<>()).add(periodo);
+        }
+        for (Usuario usuario : Usuario.<Usuario>list("id in ?1", ids)) {
+            resumoTempoRepository.reconstruir(usuario, periodosPorUsuario.getOrDefault(usuario.id, List.of()));
+        }
+        return ids;
+    }
+
+    /**
+     * Percorre os usuários em ordem de id, em blocos lidos cada um em uma
+     * transação própria, e compara o resumo de cada um com a agregação dos
+     * seus períodos. Com {@code corrigir}, os resumos ausentes ou divergentes
+     * são reconstruídos na mesma transação do bloco.
+     */
+    @Timed(value = "simulador.verificar-resumos", description = "Tempo de verificação dos resumos de tempo")
+    public VerificacaoResumos verificar(boolean corrigir) {
+        VerificacaoResumos verificacao = new VerificacaoResumos();
+        long ultimoUsuario = Long.MIN_VALUE;
+        while (true) {
+            long aposUsuario = ultimoUsuario;
+            CarreirasColunares bloco = QuarkusTransaction.requiringNew()
+                    .call(() -> verificarBloco(aposUsuario, corrigir, verificacao));
+            int usuarios = bloco.quantidadeUsuarios();
+            if (usuarios == 0) {
+                break;
+            }
+            ultimoUsuario = bloco.usuarioId(usuarios - 1);
+        }
+
+        if (verificacao.resumosAusentes + verificacao.resumosDivergentes > 0) {
+            LOG.warnf("Resumos de tempo: %d ausentes e %d divergentes em %d usuários, %d corrigidos",
+                    verificacao.resumosAusentes, verificacao.resumosDivergentes, verificacao.usuariosVerificados,
+                    verificacao.resumosCorrigidos);
+        }
+        return verificacao;
+    }
+
+    private CarreirasColunares verificarBloco(long aposUsuario, boolean corrigir, VerificacaoResumos verificacao) {
+        CarreirasColunares bloco = periodoServicoRepository.carregarCarreiras(aposUsuario, tamanhoBloco);
+        int usuarios = bloco.quantidadeUsuarios();
+        if (usuarios == 0) {
+            return bloco;
+        }
+
+        List<Long> ids = new ArrayList<>(usuarios);
+        for (int u = 0; u < usuarios; u++) {
+            ids.add(bloco.usuarioId(u));
+        }
+        Map<Long, ResumoTempoUsuario> resumos = new HashMap<>();
+        for (ResumoTempoUsuario resumo : resumoTempoRepository.<ResumoTempoUsuario>list("usuarioId in ?1", ids)) {
+            resumos.put(resumo.usuarioId, resumo);
+        }
+
+        for (int u = 0; u < usuarios; u++) {
+            long usuarioId = bloco.usuarioId(u);
+            ResumoTempoUsuario resumo = resumos.get(usuarioId);
+            TempoAgregado esperado = simuladorService.agregarTempos(bloco, u);
+            if (resumo == null || !esperado.equals(resumo.tempos(esperado.getConvencao()))) {
+                verificacao.registrarDivergencia(usuarioId, resumo == null);
+                if (corrigir) {
+                    resumoTempoRepository.reconstruir(Usuario.findById(usuarioId));
+                    verificacao.resumosCorrigidos++;
+                }
+            }
+        }
+        verificacao.usuariosVerificados += usuarios;
+        return bloco;
+    }
+}
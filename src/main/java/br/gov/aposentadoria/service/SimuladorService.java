@@ -1,64 +1,109 @@
 package br.gov.aposentadoria.service;
 
+import br.gov.aposentadoria.model.CarreirasColunares;
+import br.gov.aposentadoria.model.ConvencaoTempo;
 import br.gov.aposentadoria.model.PeriodoServico;
 import br.gov.aposentadoria.model.PeriodoTempo;
 import br.gov.aposentadoria.model.Simulacao;
+import br.gov.aposentadoria.model.TempoAgregado;
 import br.gov.aposentadoria.model.Usuario;
+import br.gov.aposentadoria.repository.ResumoTempoRepository;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Metrics;
+import io.quarkus.panache.common.Parameters;
+import io.quarkus.panache.common.Sort;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
 import java.time.LocalDate;
 import java.time.Period;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @ApplicationScoped
 public class SimuladorService {
 
+    private static final TempoAgregado.Categoria[] CATEGORIAS = TempoAgregado.Categoria.values();
+
+    @Inject
+    CacheTemposUsuario cacheTempos;
+
+    @Inject
+    ResumoTempoRepository resumoTempoRepository;
+    
+    @Inject
+    MotorRegrasAposentadoria motorRegras;
+    
+    @Inject
+    ResultadosSimulacao resultados;
+    
+    @Inject
+    GravacaoSimulacoes gravacao;
+
+    @ConfigProperty(name = "simulador.tempo.convencao", defaultValue = "LEGAL")
+    ConvencaoTempo convencaoTempo = ConvencaoTempo.LEGAL;
+
+    @ConfigProperty(name = "simulador.resultados.deduplicar", defaultValue = "true")
+    boolean deduplicar = true;
+
+    SimuladorService() {
+    }
+
+    /**
+     * Serviço criado fora do CDI (testes e benchmarks), apenas para cálculos
+     * que não acessam o banco
+     */
+    public SimuladorService(MotorRegrasAposentadoria motorRegras, ResultadosSimulacao resultados) {
+        this.motorRegras = motorRegras;
+        this.resultados = resultados;
+    }
+
+    /**
+     * Agrega todas as categorias de tempo do usuário pela convenção configurada
+     */
+    public TempoAgregado agregarTempos(Usuario usuario, List<PeriodoServico> periodosServico) {
+        return TempoAgregado.calcular(usuario, periodosServico, convencaoTempo);
+    }
+
+    /**
+     * Agrega os tempos de um usuário das carreiras em formato colunar pela
+     * convenção configurada
+     */
+    public TempoAgregado agregarTempos(CarreirasColunares carreiras, int usuario) {
+        return carreiras.agregar(usuario, convencaoTempo, null);
+    }
+
+    /**
+     * Obtém os tempos agregados do usuário; fora do cache, eles são lidos do
+     * resumo de tempo do usuário, sem carregar os períodos
+     */
+    public TempoAgregado obterTempos(Usuario usuario) {
+        return cacheTempos.obter(usuario.id, () -> resumoTempoRepository.obterTempos(usuario));
+    }
+
     /**
      * Calcula o tempo total de contribuição de um usuário
      */
     public PeriodoTempo calcularTempoContribuicao(List<PeriodoServico> periodosServico) {
-        return periodosServico.stream()
-                .filter(p -> !p.concomitante) // Filtra períodos concomitantes
-                .map(PeriodoServico::calcularTempoComConversao)
-                .reduce(new PeriodoTempo(0, 0, 0), PeriodoTempo::somar);
+        return TempoAgregado.calcular(null, periodosServico, convencaoTempo, null).tempoContribuicao();
     }
     
     /**
      * Calcula o tempo de serviço público
      */
     public PeriodoTempo calcularTempoServicoPublico(List<PeriodoServico> periodosServico) {
-        return periodosServico.stream()
-                .filter(p -> !p.concomitante) // Filtra períodos concomitantes
-                .filter(p -> {
-                    switch (p.tipoServico) {
-                        case ESTATUTARIO:
-                        case SERVICO_PUBLICO_FEDERAL:
-                        case SERVICO_PUBLICO_ESTADUAL:
-                        case SERVICO_PUBLICO_MUNICIPAL:
-                            return true;
-                        default:
-                            return false;
-                    }
-                })
-                .map(PeriodoServico::calcularTempoComConversao)
-                .reduce(new PeriodoTempo(0, 0, 0), PeriodoTempo::somar);
+        return TempoAgregado.calcular(null, periodosServico, convencaoTempo, null).tempoServicoPublico();
     }
     
     /**
      * Calcula o tempo no cargo atual
      */
     public PeriodoTempo calcularTempoCargo(Usuario usuario, List<PeriodoServico> periodosServico) {
-        if (usuario.cargoAtual == null || usuario.cargoAtual.isEmpty()) {
-            return new PeriodoTempo(0, 0, 0);
-        }
-        
-        return periodosServico.stream()
-                .filter(p -> !p.concomitante) // Filtra períodos concomitantes
-                .filter(p -> p.cargo != null && p.cargo.equals(usuario.cargoAtual))
-                .map(PeriodoServico::calcularTempoComConversao)
-                .reduce(new PeriodoTempo(0, 0, 0), PeriodoTempo::somar);
+        return TempoAgregado.calcular(usuario.cargoAtual, periodosServico, convencaoTempo, null).tempoCargo();
     }
     
     /**
@@ -72,16 +117,7 @@ public class SimuladorService {
      * Calcula a pontuação (idade + tempo de contribuição) do usuário
      */
     public int calcularPontuacao(Usuario usuario, PeriodoTempo tempoContribuicao, LocalDate dataReferencia) {
-        int idade = calcularIdade(usuario, dataReferencia);
-        int pontos = idade + tempoContribuicao.anos();
-        
-        // Adicionar meses e dias convertidos para fração de ano
-        double mesesEmAnos = tempoContribuicao.meses() / 12.0;
-        double diasEmAnos = tempoContribuicao.dias() / 365.0;
-        
-        pontos += Math.round((mesesEmAnos + diasEmAnos) * 100) / 100.0;
-        
-        return pontos;
+        return RegrasAposentadoria.pontuacao(calcularIdade(usuario, dataReferencia), tempoContribuicao);
     }
     
     /**
@@ -98,20 +134,44 @@ public class SimuladorService {
     }
     
     /**
-     * Verifica se o usuário é elegível para a regra permanente de aposentadoria
+     * Regras de aposentadoria em vigor
+     */
+    public RegrasAposentadoria regras() {
+        return motorRegras.atual();
+    }
+    
+    /**
+     * Verifica se o usuário cumpre uma regra de aposentadoria a partir dos tempos agregados
+     */
+    public boolean verificarElegibilidade(Usuario usuario, TempoAgregado tempos,
+                                         Simulacao.RegraAposentadoria regra, LocalDate dataReferencia) {
+        int[] anos = new int[CATEGORIAS.length];
+        for (TempoAgregado.Categoria categoria : CATEGORIAS) {
+            anos[categoria.ordinal()] = tempos.anos(categoria);
+        }
+        // Para este exemplo, consideramos pedágio como zero (já cumprido)
+        return regras().elegivel(regra, usuario, dataReferencia, anos, tempos.tempoContribuicao(), true);
+    }
+    
+    /**
+     * Verifica se o usuário é elegível para a regra permanente de aposentadoria.
+     * As categorias de tempo não informadas são consideradas zeradas.
      */
     public boolean verificarElegibilidadeRegraPermanente(Usuario usuario, 
                                                        PeriodoTempo tempoContribuicao,
                                                        PeriodoTempo tempoServicoPublico,
                                                        PeriodoTempo tempoCargo,
                                                        LocalDate dataReferencia) {
-        int idade = calcularIdade(usuario, dataReferencia);
-        boolean idadeMinima = "M".equals(usuario.sexo) ? idade >= 65 : idade >= 62;
-        boolean tempoContribuicaoMinimo = tempoContribuicao.anos() >= 25;
-        boolean tempoServicoPublicoMinimo = tempoServicoPublico.anos() >= 10;
-        boolean tempoCargoMinimo = tempoCargo.anos() >= 5;
-        
-        return idadeMinima && tempoContribuicaoMinimo && tempoServicoPublicoMinimo && tempoCargoMinimo;
+        return regras().elegivel(Simulacao.RegraAposentadoria.REGRA_PERMANENTE, usuario, dataReferencia,
+                anos(tempoContribuicao, tempoServicoPublico, tempoCargo, null, null), tempoContribuicao, true);
+    }
+    
+    /**
+     * Verifica se o usuário é elegível para a regra permanente a partir dos tempos agregados
+     */
+    public boolean verificarElegibilidadeRegraPermanente(Usuario usuario, TempoAgregado tempos,
+                                                       LocalDate dataReferencia) {
+        return verificarElegibilidade(usuario, tempos, Simulacao.RegraAposentadoria.REGRA_PERMANENTE, dataReferencia);
     }
     
     /**
@@ -123,25 +183,23 @@ public class SimuladorService {
                                                              PeriodoTempo tempoCargo,
                                                              LocalDate dataReferencia,
                                                              PeriodoTempo tempoPedagio) {
-        int idade = calcularIdade(usuario, dataReferencia);
-        boolean idadeMinima;
-        boolean tempoContribuicaoMinimo;
-        
-        if ("M".equals(usuario.sexo)) {
-            idadeMinima = idade >= 60;
-            tempoContribuicaoMinimo = tempoContribuicao.anos() >= 35;
-        } else {
-            idadeMinima = idade >= 57;
-            tempoContribuicaoMinimo = tempoContribuicao.anos() >= 30;
+        return regras().elegivel(Simulacao.RegraAposentadoria.REGRA_TRANSICAO_PEDÁGIO, usuario, dataReferencia,
+                anos(tempoContribuicao, tempoServicoPublico, tempoCargo, null, null), tempoContribuicao,
+                isPedagioCumprido(tempoPedagio));
+    }
+    
+    /**
+     * Verifica se o usuário é elegível para a regra de transição por pedágio a partir dos tempos agregados
+     */
+    public boolean verificarElegibilidadeRegraTransicaoPedagio(Usuario usuario, TempoAgregado tempos,
+                                                             LocalDate dataReferencia,
+                                                             PeriodoTempo tempoPedagio) {
+        int[] anos = new int[CATEGORIAS.length];
+        for (TempoAgregado.Categoria categoria : CATEGORIAS) {
+            anos[categoria.ordinal()] = tempos.anos(categoria);
         }
-        
-        boolean tempoServicoPublicoMinimo = tempoServicoPublico.anos() >= 20;
-        boolean tempoCargoMinimo = tempoCargo.anos() >= 5;
-        boolean pedagioCumprido = tempoPedagio != null && tempoPedagio.anos() == 0 && 
-                                 tempoPedagio.meses() == 0 && tempoPedagio.dias() == 0;
-        
-        return idadeMinima && tempoContribuicaoMinimo && tempoServicoPublicoMinimo && 
-               tempoCargoMinimo && pedagioCumprido;
+        return regras().elegivel(Simulacao.RegraAposentadoria.REGRA_TRANSICAO_PEDÁGIO, usuario, dataReferencia,
+                anos, tempos.tempoContribuicao(), isPedagioCumprido(tempoPedagio));
     }
     
     /**
@@ -152,35 +210,16 @@ public class SimuladorService {
                                                             PeriodoTempo tempoServicoPublico,
                                                             PeriodoTempo tempoCargo,
                                                             LocalDate dataReferencia) {
-        int idade = calcularIdade(usuario, dataReferencia);
-        int pontos = calcularPontuacao(usuario, tempoContribuicao, dataReferencia);
-        int anoReferencia = dataReferencia.getYear();
-        
-        boolean idadeMinima;
-        boolean tempoContribuicaoMinimo;
-        boolean pontosMinimos;
-        
-        if ("M".equals(usuario.sexo)) {
-            idadeMinima = anoReferencia >= 2022 ? idade >= 62 : idade >= 61;
-            tempoContribuicaoMinimo = tempoContribuicao.anos() >= 35;
-            
-            // Cálculo dos pontos mínimos com base no ano
-            int pontosMinimosAno = Math.min(105, 96 + (anoReferencia - 2019));
-            pontosMinimos = pontos >= pontosMinimosAno;
-        } else {
-            idadeMinima = anoReferencia >= 2022 ? idade >= 57 : idade >= 56;
-            tempoContribuicaoMinimo = tempoContribuicao.anos() >= 30;
-            
-            // Cálculo dos pontos mínimos com base no ano
-            int pontosMinimosAno = Math.min(100, 86 + (anoReferencia - 2019));
-            pontosMinimos = pontos >= pontosMinimosAno;
-        }
-        
-        boolean tempoServicoPublicoMinimo = tempoServicoPublico.anos() >= 20;
-        boolean tempoCargoMinimo = tempoCargo.anos() >= 5;
-        
-        return idadeMinima && tempoContribuicaoMinimo && pontosMinimos && 
-               tempoServicoPublicoMinimo && tempoCargoMinimo;
+        return regras().elegivel(Simulacao.RegraAposentadoria.REGRA_TRANSICAO_PONTOS, usuario, dataReferencia,
+                anos(tempoContribuicao, tempoServicoPublico, tempoCargo, null, null), tempoContribuicao, true);
+    }
+    
+    /**
+     * Verifica se o usuário é elegível para a regra de transição por pontos a partir dos tempos agregados
+     */
+    public boolean verificarElegibilidadeRegraTransicaoPontos(Usuario usuario, TempoAgregado tempos,
+                                                            LocalDate dataReferencia) {
+        return verificarElegibilidade(usuario, tempos, Simulacao.RegraAposentadoria.REGRA_TRANSICAO_PONTOS, dataReferencia);
     }
     
     /**
@@ -191,14 +230,16 @@ public class SimuladorService {
                                                  PeriodoTempo tempoServicoPublico,
                                                  PeriodoTempo tempoCargo,
                                                  LocalDate dataReferencia) {
-        int idade = calcularIdade(usuario, dataReferencia);
-        
-        boolean idadeMinima = "M".equals(usuario.sexo) ? idade >= 60 : idade >= 57;
-        boolean tempoContribuicaoMinimo = tempoMagisterio.anos() >= 25;
-        boolean tempoServicoPublicoMinimo = tempoServicoPublico.anos() >= 10;
-        boolean tempoCargoMinimo = tempoCargo.anos() >= 5;
-        
-        return idadeMinima && tempoContribuicaoMinimo && tempoServicoPublicoMinimo && tempoCargoMinimo;
+        return regras().elegivel(Simulacao.RegraAposentadoria.REGRA_ESPECIAL_PROFESSOR, usuario, dataReferencia,
+                anos(null, tempoServicoPublico, tempoCargo, tempoMagisterio, null), new PeriodoTempo(0, 0, 0), true);
+    }
+    
+    /**
+     * Verifica elegibilidade para aposentadoria de professor a partir dos tempos agregados
+     */
+    public boolean verificarElegibilidadeProfessor(Usuario usuario, TempoAgregado tempos,
+                                                 LocalDate dataReferencia) {
+        return verificarElegibilidade(usuario, tempos, Simulacao.RegraAposentadoria.REGRA_ESPECIAL_PROFESSOR, dataReferencia);
     }
     
     /**
@@ -209,13 +250,32 @@ public class SimuladorService {
                                                     PeriodoTempo tempoServicoPublico,
                                                     PeriodoTempo tempoCargo,
                                                     LocalDate dataReferencia) {
-        int idade = calcularIdade(usuario, dataReferencia);
-        boolean idadeMinima = idade >= 60;
-        boolean tempoContribuicaoMinimo = tempoInsalubre.anos() >= 25;
-        boolean tempoServicoPublicoMinimo = tempoServicoPublico.anos() >= 10;
-        boolean tempoCargoMinimo = tempoCargo.anos() >= 5;
-        
-        return idadeMinima && tempoContribuicaoMinimo && tempoServicoPublicoMinimo && tempoCargoMinimo;
+        return regras().elegivel(Simulacao.RegraAposentadoria.REGRA_ESPECIAL_INSALUBRIDADE, usuario, dataReferencia,
+                anos(null, tempoServicoPublico, tempoCargo, null, tempoInsalubre), new PeriodoTempo(0, 0, 0), true);
+    }
+    
+    /**
+     * Verifica elegibilidade para aposentadoria por insalubridade a partir dos tempos agregados
+     */
+    public boolean verificarElegibilidadeInsalubridade(Usuario usuario, TempoAgregado tempos,
+                                                    LocalDate dataReferencia) {
+        return verificarElegibilidade(usuario, tempos, Simulacao.RegraAposentadoria.REGRA_ESPECIAL_INSALUBRIDADE, dataReferencia);
+    }
+    
+    private static boolean isPedagioCumprido(PeriodoTempo tempoPedagio) {
+        return tempoPedagio != null && tempoPedagio.anos() == 0 &&
+               tempoPedagio.meses() == 0 && tempoPedagio.dias() == 0;
+    }
+    
+    private static int[] anos(PeriodoTempo contribuicao, PeriodoTempo servicoPublico, PeriodoTempo cargo,
+                              PeriodoTempo magisterio, PeriodoTempo insalubre) {
+        int[] anos = new int[CATEGORIAS.length];
+        anos[TempoAgregado.Categoria.CONTRIBUICAO.ordinal()] = contribuicao != null ? contribuicao.anos() : 0;
+        anos[TempoAgregado.Categoria.SERVICO_PUBLICO.ordinal()] = servicoPublico != null ? servicoPublico.anos() : 0;
+        anos[TempoAgregado.Categoria.CARGO.ordinal()] = cargo != null ? cargo.anos() : 0;
+        anos[TempoAgregado.Categoria.MAGISTERIO.ordinal()] = magisterio != null ? magisterio.anos() : 0;
+        anos[TempoAgregado.Categoria.INSALUBRE.ordinal()] = insalubre != null ? insalubre.anos() : 0;
+        return anos;
     }
     
     /**
@@ -225,13 +285,246 @@ public class SimuladorService {
     public Simulacao executarSimulacao(Usuario usuario, List<PeriodoServico> periodosServico, 
                                       Simulacao.RegraAposentadoria regraAposentadoria,
                                       LocalDate dataReferencia) {
+        return executarSimulacao(usuario, periodosServico, regraAposentadoria, dataReferencia, null);
+    }
+    
+    /**
+     * Executa uma simulação completa para um usuário, estimando o valor do
+     * benefício a partir da remuneração informada
+     */
+    @Transactional
+    public Simulacao executarSimulacao(Usuario usuario, List<PeriodoServico> periodosServico, 
+                                      Simulacao.RegraAposentadoria regraAposentadoria,
+                                      LocalDate dataReferencia, Double remuneracao) {
+        // Agrega todas as categorias de tempo em uma única varredura
+        return executarSimulacao(usuario, agregarTempos(usuario, periodosServico),
+                regraAposentadoria, dataReferencia, remuneracao);
+    }
+    
+    /**
+     * Executa uma simulação completa a partir dos tempos já agregados do usuário
+     */
+    @Transactional
+    public Simulacao executarSimulacao(Usuario usuario, TempoAgregado tempos,
+                                      Simulacao.RegraAposentadoria regraAposentadoria,
+                                      LocalDate dataReferencia, Double remuneracao) {
+        return executarSimulacao(usuario, tempos, regraAposentadoria, dataReferencia, remuneracao, null);
+    }
+    
+    /**
+     * Executa uma simulação completa a partir dos tempos já agregados do
+     * usuário. Se o usuário já tiver uma simulação gravada com as mesmas
+     * entradas e o mesmo nome, ela é retornada sem gravar outra; caso
+     * contrário o resultado é reaproveitado de uma simulação anterior com as
+     * mesmas entradas, quando houver, e gravado.
+     */
+    @Transactional
+    @Timed(value = "simulador.executar", description = "Tempo de execução de uma simulação")
+    public Simulacao executarSimulacao(Usuario usuario, TempoAgregado tempos,
+                                      Simulacao.RegraAposentadoria regraAposentadoria,
+                                      LocalDate dataReferencia, Double remuneracao,
+                                      String nomeSimulacao) {
+        Simulacao simulacao = prepararSimulacao(usuario, tempos, regraAposentadoria, dataReferencia,
+                remuneracao, nomeSimulacao);
+        
+        // Persiste a simulação, se ainda não estiver gravada
+        if (simulacao.id == null) {
+            simulacao.persist();
+        }
+        
+        return simulacao;
+    }
+    
+    /**
+     * Executa uma simulação sem transação. O resultado recebe um id e é
+     * retornado imediatamente; a gravação é feita em segundo plano por
+     * {@link GravacaoSimulacoes}.
+     *
+     * @throws java.util.concurrent.RejectedExecutionException se a fila de gravação estiver cheia
+     */
+    @Timed(value = "simulador.executar", description = "Tempo de execução de uma simulação")
+    public Simulacao executarSimulacaoAssincrona(Usuario usuario, TempoAgregado tempos,
+                                                Simulacao.RegraAposentadoria regraAposentadoria,
+                                                LocalDate dataReferencia, Double remuneracao,
+                                                String nomeSimulacao) {
+        Simulacao simulacao = prepararSimulacao(usuario, tempos, regraAposentadoria, dataReferencia,
+                remuneracao, nomeSimulacao);
+        if (simulacao.id == null) {
+            gravacao.enfileirar(simulacao);
+        }
+        return simulacao;
+    }
+    
+    /**
+     * Simulação já gravada com as mesmas entradas e o mesmo nome ou, se não
+     * houver, uma nova ainda não persistida
+     */
+    private Simulacao prepararSimulacao(Usuario usuario, TempoAgregado tempos,
+                                        Simulacao.RegraAposentadoria regraAposentadoria,
+                                        LocalDate dataReferencia, Double remuneracao,
+                                        String nomeSimulacao) {
+        String chave = ChaveSimulacao.calcular(usuario, tempos, regraAposentadoria, dataReferencia,
+                remuneracao, regras().hashDefinicao());
+        if (deduplicar) {
+            Simulacao gravada = buscarGravadas(usuario, List.of(chave), nomeSimulacao).get(chave);
+            if (gravada != null) {
+                return gravada;
+            }
+        }
+        
+        Simulacao simulacao = obterResultado(usuario, tempos, regraAposentadoria, dataReferencia, remuneracao, chave);
+        simulacao.nomeSimulacao = nomeSimulacao;
+        return simulacao;
+    }
+    
+    /**
+     * Executa a simulação de todas as regras de aposentadoria para um usuário.
+     * Os tempos são agregados uma única vez e as simulações são gravadas em lote.
+     */
+    @Transactional
+    public List<Simulacao> executarSimulacaoTodasRegras(Usuario usuario, List<PeriodoServico> periodosServico,
+                                                       LocalDate dataReferencia, String nomeSimulacao,
+                                                       Double remuneracao) {
+        return executarSimulacaoTodasRegras(usuario, agregarTempos(usuario, periodosServico),
+                dataReferencia, nomeSimulacao, remuneracao);
+    }
+    
+    /**
+     * Executa a simulação de todas as regras a partir dos tempos já agregados do usuário
+     */
+    @Transactional
+    @Timed(value = "simulador.executar-todas", description = "Tempo de execução da simulação de todas as regras")
+    public List<Simulacao> executarSimulacaoTodasRegras(Usuario usuario, TempoAgregado tempos,
+                                                       LocalDate dataReferencia, String nomeSimulacao,
+                                                       Double remuneracao) {
+        List<Simulacao> novas = new ArrayList<>();
+        List<Simulacao> simulacoes = prepararTodasRegras(usuario, tempos, dataReferencia, nomeSimulacao,
+                remuneracao, novas);
+        
+        // Os inserts são agrupados pelo Hibernate (statement-batch-size)
+        Simulacao.persist(novas);
+        
+        return simulacoes;
+    }
+    
+    /**
+     * Executa a simulação de todas as regras sem transação, gravando as
+     * simulações novas em segundo plano
+     *
+     * @throws java.util.concurrent.RejectedExecutionException se a fila de gravação estiver cheia
+     */
+    @Timed(value = "simulador.executar-todas", description = "Tempo de execução da simulação de todas as regras")
+    public List<Simulacao> executarSimulacaoTodasRegrasAssincrona(Usuario usuario, TempoAgregado tempos,
+                                                                 LocalDate dataReferencia, String nomeSimulacao,
+                                                                 Double remuneracao) {
+        List<Simulacao> novas = new ArrayList<>();
+        List<Simulacao> simulacoes = prepararTodasRegras(usuario, tempos, dataReferencia, nomeSimulacao,
+                remuneracao, novas);
+        for (Simulacao simulacao : novas) {
+            gravacao.enfileirar(simulacao);
+        }
+        return simulacoes;
+    }
+    
+    /**
+     * Simulações de todas as regras, reaproveitando as já gravadas. As que
+     * ainda precisam ser gravadas são acrescentadas a {@code novas}.
+     */
+    private List<Simulacao> prepararTodasRegras(Usuario usuario, TempoAgregado tempos,
+                                                LocalDate dataReferencia, String nomeSimulacao,
+                                                Double remuneracao, List<Simulacao> novas) {
+        Simulacao.RegraAposentadoria[] regras = Simulacao.RegraAposentadoria.values();
+        String hashRegras = regras().hashDefinicao();
+        List<String> chaves = new ArrayList<>(regras.length);
+        for (Simulacao.RegraAposentadoria regra : regras) {
+            chaves.add(ChaveSimulacao.calcular(usuario, tempos, regra, dataReferencia, remuneracao, hashRegras));
+        }
+        Map<String, Simulacao> gravadas = deduplicar
+                ? buscarGravadas(usuario, chaves, nomeSimulacao)
+                : Map.of();
+        
+        List<Simulacao> simulacoes = new ArrayList<>(regras.length);
+        for (int i = 0; i < regras.length; i++) {
+            Simulacao simulacao = gravadas.get(chaves.get(i));
+            if (simulacao == null) {
+                simulacao = obterResultado(usuario, tempos, regras[i], dataReferencia, remuneracao, chaves.get(i));
+                simulacao.nomeSimulacao = nomeSimulacao;
+                novas.add(simulacao);
+            }
+            simulacoes.add(simulacao);
+        }
+        return simulacoes;
+    }
+    
+    /**
+     * Resultado não persistido da simulação com a chave informada, reaproveitado
+     * de um cálculo anterior com as mesmas entradas ou calculado agora
+     */
+    private Simulacao obterResultado(Usuario usuario, TempoAgregado tempos,
+                                     Simulacao.RegraAposentadoria regraAposentadoria,
+                                     LocalDate dataReferencia, Double remuneracao, String chave) {
+        Simulacao simulacao = resultados.obter(chave);
+        if (simulacao != null) {
+            simulacao.usuario = usuario;
+            Metrics.counter("simulador.resultados", "origem", "memoria").increment();
+            return simulacao;
+        }
+        
+        simulacao = calcularSimulacao(usuario, tempos, regraAposentadoria, dataReferencia, remuneracao);
+        simulacao.hashEntrada = chave;
+        resultados.guardar(chave, simulacao);
+        Metrics.counter("simulador.resultados", "origem", "calculo").increment();
+        return simulacao;
+    }
+    
+    /**
+     * Simulações já gravadas do usuário com as chaves e o nome informados.
+     * Havendo mais de uma com a mesma chave, prevalece a mais antiga.
+     */
+    private Map<String, Simulacao> buscarGravadas(Usuario usuario, List<String> chaves, String nomeSimulacao) {
+        Parameters parametros = Parameters.with("usuario", usuario.id).and("chaves", chaves);
+        String consulta = "usuario.id = :usuario and hashEntrada in :chaves and ";
+        if (nomeSimulacao != null) {
+            consulta += "nomeSimulacao = :nome";
+            parametros.and("nome", nomeSimulacao);
+        } else {
+            consulta += "nomeSimulacao is null";
+        }
+        
+        Map<String, Simulacao> gravadas = new HashMap<>();
+        for (Simulacao simulacao : Simulacao.<Simulacao>list(consulta, Sort.by("id"), parametros)) {
+            gravadas.putIfAbsent(simulacao.hashEntrada, simulacao);
+        }
+        if (!gravadas.isEmpty()) {
+            Metrics.counter("simulador.resultados", "origem", "gravado").increment(gravadas.size());
+        }
+        return gravadas;
+    }
+    
+    /**
+     * Calcula o resultado de uma simulação a partir dos tempos agregados, sem persisti-la
+     */
+    public Simulacao calcularSimulacao(Usuario usuario, TempoAgregado tempos,
+                                       Simulacao.RegraAposentadoria regraAposentadoria,
+                                       LocalDate dataReferencia) {
+        return calcularSimulacao(usuario, tempos, regraAposentadoria, dataReferencia, null);
+    }
+    
+    /**
+     * Calcula o resultado de uma simulação a partir dos tempos agregados, sem
+     * persisti-la. Quando a remuneração é informada, estima o valor do
+     * benefício na data prevista de aposentadoria.
+     */
+    public Simulacao calcularSimulacao(Usuario usuario, TempoAgregado tempos,
+                                       Simulacao.RegraAposentadoria regraAposentadoria,
+                                       LocalDate dataReferencia, Double remuneracao) {
         Simulacao simulacao = new Simulacao();
         simulacao.usuario = usuario;
         simulacao.regraAposentadoria = regraAposentadoria;
         
-        PeriodoTempo tempoContribuicao = calcularTempoContribuicao(periodosServico);
-        PeriodoTempo tempoServicoPublico = calcularTempoServicoPublico(periodosServico);
-        PeriodoTempo tempoCargo = calcularTempoCargo(usuario, periodosServico);
+        PeriodoTempo tempoContribuicao = tempos.tempoContribuicao();
+        PeriodoTempo tempoServicoPublico = tempos.tempoServicoPublico();
+        PeriodoTempo tempoCargo = tempos.tempoCargo();
         
         simulacao.tempoContribuicaoAnos = tempoContribuicao.anos();
         simulacao.tempoContribuicaoMeses = tempoContribuicao.meses();
@@ -250,54 +543,31 @@ public class SimuladorService {
         simulacao.percentualBeneficio = calcularPercentualBeneficio(tempoContribuicao);
         
         // Verificar elegibilidade com base na regra selecionada
-        switch (regraAposentadoria) {
-            case REGRA_PERMANENTE:
-                simulacao.elegivel = verificarElegibilidadeRegraPermanente(
-                    usuario, tempoContribuicao, tempoServicoPublico, tempoCargo, dataReferencia);
-                break;
-                
-            case REGRA_TRANSICAO_PEDÁGIO:
-                // Para este exemplo, consideramos pedágio como zero (já cumprido)
-                simulacao.elegivel = verificarElegibilidadeRegraTransicaoPedagio(
-                    usuario, tempoContribuicao, tempoServicoPublico, tempoCargo, dataReferencia, 
-                    new PeriodoTempo(0, 0, 0));
-                break;
-                
-            case REGRA_TRANSICAO_PONTOS:
-                simulacao.elegivel = verificarElegibilidadeRegraTransicaoPontos(
-                    usuario, tempoContribuicao, tempoServicoPublico, tempoCargo, dataReferencia);
-                break;
-                
-            case REGRA_ESPECIAL_PROFESSOR:
-                // Cálculo de tempo de magistério (simplificado para este exemplo)
-                PeriodoTempo tempoMagisterio = periodosServico.stream()
-                    .filter(p -> !p.concomitante && p.tipoServico == PeriodoServico.TipoServico.MAGISTERIO)
-                    .map(PeriodoServico::calcularTempoComConversao)
-                    .reduce(new PeriodoTempo(0, 0, 0), PeriodoTempo::somar);
-                
-                simulacao.elegivel = verificarElegibilidadeProfessor(
-                    usuario, tempoMagisterio, tempoServicoPublico, tempoCargo, dataReferencia);
-                break;
-                
-            case REGRA_ESPECIAL_INSALUBRIDADE:
-                // Cálculo de tempo insalubre
-                PeriodoTempo tempoInsalubre = periodosServico.stream()
-                    .filter(p -> !p.concomitante && (p.tipoServico == PeriodoServico.TipoServico.INSALUBRE || p.insalubridade))
-                    .map(PeriodoServico::calcularTempoComConversao)
-                    .reduce(new PeriodoTempo(0, 0, 0), PeriodoTempo::somar);
-                
-                simulacao.elegivel = verificarElegibilidadeInsalubridade(
-                    usuario, tempoInsalubre, tempoServicoPublico, tempoCargo, dataReferencia);
-                break;
-                
-            default:
-                simulacao.elegivel = false;
-                simulacao.observacoes = "Regra de aposentadoria não implementada";
+        simulacao.elegivel = verificarElegibilidade(usuario, tempos, regraAposentadoria, dataReferencia);
+        if (!regras().implementada(regraAposentadoria)) {
+            simulacao.observacoes = "Regra de aposentadoria não implementada";
         }
         
-        // Persiste a simulação
-        simulacao.persist();
+        Metrics.counter("simulador.simulacoes",
+                "regra", regraAposentadoria.name(),
+                "elegivel", String.valueOf(simulacao.elegivel)).increment();
+        
+        // Projetar a data em que a regra passa a ser cumprida
+        ProjecaoAposentadoria projecao = projetar(usuario, tempos, dataReferencia);
+        simulacao.dataPrevisaoAposentadoria = projecao.calcularDataPrevisao(regraAposentadoria);
+        if (remuneracao != null && simulacao.dataPrevisaoAposentadoria != null) {
+            PeriodoTempo contribuicaoNaPrevisao = projecao.tempo(
+                    TempoAgregado.Categoria.CONTRIBUICAO, simulacao.dataPrevisaoAposentadoria);
+            simulacao.valorBeneficioEstimado = remuneracao * calcularPercentualBeneficio(contribuicaoNaPrevisao) / 100.0;
+        }
         
         return simulacao;
     }
+    
+    /**
+     * Cria a projeção dos tempos do usuário a partir da data de referência
+     */
+    public ProjecaoAposentadoria projetar(Usuario usuario, TempoAgregado tempos, LocalDate dataReferencia) {
+        return new ProjecaoAposentadoria(this, usuario, tempos, dataReferencia);
+    }
 }
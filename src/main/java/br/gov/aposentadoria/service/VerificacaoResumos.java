@@ -0,0 +1,32 @@
+package br.gov.aposentadoria.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resultado da verificação dos resumos de tempo contra os períodos
+ */
+public class VerificacaoResumos {
+
+    /**
+     * Quantidade máxima de ids divergentes listados
+     */
+    public static final int MAXIMO_EXEMPLOS = 100;
+
+    public long usuariosVerificados;
+    public long resumosAusentes;
+    public long resumosDivergentes;
+    public long resumosCorrigidos;
+    public List<Long> exemplos = new ArrayList<>();
+
+    void registrarDivergencia(long usuarioId, boolean ausente) {
+        if (ausente) {
+            resumosAusentes++;
+        } else {
+            resumosDivergentes++;
+        }
+        if (exemplos.size() < MAXIMO_EXEMPLOS) {
+            exemplos.add(usuarioId);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+-- Esquema inicial, equivalente ao gerado pelo Hibernate a partir das entidades.
+-- Bancos já criados com database.generation=update são registrados nesta
+-- versão (baseline) sem executá-la.
+
+create sequence periodos_servico_SEQ start with 1 increment by 50;
+
+create sequence simulacoes_SEQ start with 1 increment by 50;
+
+create sequence usuarios_SEQ start with 1 increment by 50;
+
+create table usuarios (
+    data_ingresso_servico_publico date,
+    data_nascimento date not null,
+    id bigint not null,
+    cpf varchar(11) not null unique,
+    cargo_atual varchar(255),
+    email varchar(255) not null unique,
+    nome varchar(255) not null,
+    senha varchar(255) not null,
+    sexo varchar(255),
+    primary key (id)
+);
+
+create table periodos_servico (
+    concomitante boolean,
+    data_fim date not null,
+    data_inicio date not null,
+    fator_conversao float(53),
+    insalubridade boolean,
+    tempo_convertido boolean,
+    id bigint not null,
+    usuario_id bigint not null,
+    cargo varchar(255),
+    numero_portaria varchar(255),
+    orgao_empregador varchar(255) not null,
+    tipo_servico varchar(255) not null check (tipo_servico in ('ESTATUTARIO','CLT','CRES','SERVICO_PUBLICO_FEDERAL','SERVICO_PUBLICO_ESTADUAL','SERVICO_PUBLICO_MUNICIPAL','SERVICO_MILITAR','INSALUBRE','MAGISTERIO')),
+    primary key (id)
+);
+
+create table simulacoes (
+    data_previsao_aposentadoria date,
+    elegivel boolean,
+    idade_aposentadoria integer,
+    percentual_beneficio float(53),
+    pontuacao integer,
+    tempo_cargo_anos integer,
+    tempo_cargo_dias integer,
+    tempo_cargo_meses integer,
+    tempo_contribuicao_anos integer,
+    tempo_contribuicao_dias integer,
+    tempo_contribuicao_meses integer,
+    tempo_servico_publico_anos integer,
+    tempo_servico_publico_dias integer,
+    tempo_servico_publico_meses integer,
+    valor_beneficio_estimado float(53),
+    data_simulacao timestamp(6) not null,
+    id bigint not null,
+    usuario_id bigint not null,
+    observacoes varchar(1000),
+    nome_simulacao varchar(255),
+    regra_aposentadoria varchar(255) not null check (regra_aposentadoria in ('REGRA_PERMANENTE','REGRA_TRANSICAO_PEDÁGIO','REGRA_TRANSICAO_PONTOS','REGRA_ESPECIAL_PROFESSOR','REGRA_ESPECIAL_POLICIAL','REGRA_ESPECIAL_INSALUBRIDADE')),
+    primary key (id)
+);
+
+alter table periodos_servico
+   add constraint fk_periodos_servico_usuario
+   foreign key (usuario_id)
+   references usuarios;
+
+alter table simulacoes
+   add constraint fk_simulacoes_usuario
+   foreign key (usuario_id)
+   references usuarios;
@@ -0,0 +1,21 @@
+-- Índices compostos para os padrões de acesso do simulador. Os mesmos índices
+-- são declarados nas entidades (@Table(indexes = ...)) para os esquemas
+-- gerados pelo Hibernate em desenvolvimento.
+
+-- Sobreposição de datas (verificação de concomitância, períodos sobrepostos),
+-- períodos até uma data e carga de todos os períodos de um usuário. Inclui
+-- data_fim para que o filtro de sobreposição seja resolvido no índice.
+create index if not exists idx_periodos_servico_usuario_inicio
+    on periodos_servico (usuario_id, data_inicio, data_fim);
+
+-- Listagem e exportação por cursor: usuario_id = ? and id > ? order by id
+create index if not exists idx_periodos_servico_usuario_id
+    on periodos_servico (usuario_id, id);
+
+-- Usuários de um órgão nas simulações em lote (varredura apenas do índice)
+create index if not exists idx_periodos_servico_orgao_usuario
+    on periodos_servico (orgao_empregador, usuario_id);
+
+-- Listagem e exportação de simulações por cursor
+create index if not exists idx_simulacoes_usuario_id
+    on simulacoes (usuario_id, id);
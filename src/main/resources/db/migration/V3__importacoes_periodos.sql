@@ -0,0 +1,17 @@
+-- Pontos de controle das importações de períodos de serviço em massa
+
+create sequence importacoes_periodos_SEQ start with 1 increment by 50;
+
+create table importacoes_periodos (
+    data_atualizacao timestamp(6),
+    data_criacao timestamp(6) not null,
+    id bigint not null,
+    linhas_gravadas bigint not null,
+    linhas_processadas bigint not null,
+    linhas_rejeitadas bigint not null,
+    ultima_linha bigint not null,
+    erro varchar(1000),
+    formato varchar(255) not null check (formato in ('CSV','NDJSON')),
+    status varchar(255) not null check (status in ('PENDENTE','EM_EXECUCAO','CONCLUIDA','FALHOU')),
+    primary key (id)
+);
@@ -0,0 +1,7 @@
+-- Resumo das entradas de cada simulação, usado para reaproveitar simulações
+-- já gravadas com as mesmas entradas
+
+alter table simulacoes add column hash_entrada varchar(64);
+
+create index if not exists idx_simulacoes_usuario_hash
+    on simulacoes (usuario_id, hash_entrada);
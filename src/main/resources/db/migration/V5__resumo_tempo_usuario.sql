@@ -0,0 +1,34 @@
+-- Totais de tempo de cada usuário, em milésimos de dia, mantidos na mesma
+-- transação que altera os períodos de serviço. Usuários sem resumo têm os
+-- tempos calculados a partir dos períodos até que o resumo seja criado por
+-- uma alteração ou por POST /api/periodos-servico/resumos/verificacao?corrigir=true.
+
+create table resumo_tempo_usuario (
+    categorias_ultimo_vinculo integer not null,
+    fim_ultimo_vinculo date,
+    cargo bigint not null,
+    contribuicao bigint not null,
+    insalubre bigint not null,
+    magisterio bigint not null,
+    servico_publico bigint not null,
+    tipo_clt bigint not null,
+    tipo_cres bigint not null,
+    tipo_estatutario bigint not null,
+    tipo_insalubre bigint not null,
+    tipo_magisterio bigint not null,
+    tipo_servico_militar bigint not null,
+    tipo_servico_publico_estadual bigint not null,
+    tipo_servico_publico_federal bigint not null,
+    tipo_servico_publico_municipal bigint not null,
+    ultimo_vinculo_id bigint,
+    usuario_id bigint not null,
+    data_atualizacao timestamp(6) not null,
+    primary key (usuario_id)
+);
+
+-- O resumo é removido junto com o usuário
+alter table resumo_tempo_usuario
+   add constraint fk_resumo_tempo_usuario_usuario
+   foreign key (usuario_id)
+   references usuarios
+   on delete cascade;
@@ -0,0 +1,130 @@
+package br.gov.aposentadoria.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ArquivoCarreirasTest {
+
+    @TempDir
+    Path diretorio;
+
+    @Test
+    void testGravarEAbrir() throws IOException {
+        CarreirasColunares.Construtor construtor = new CarreirasColunares.Construtor();
+        for (long id = 1; id <= 300; id++) {
+            construtor.adicionarUsuario(id * 2, id % 2 == 0 ? "M" : "F",
+                    id % 50 == 0 ? null : LocalDate.of(1965, 1, 1).plusDays(id * 37), id % 3 == 0 ? "Professor" : "Auditor fiscal");
+            for (int p = 0; p < id % 7; p++) {
+                LocalDate inicio = LocalDate.of(1990 + p * 4, 3, 1);
+                construtor.adicionarPeriodo(inicio, inicio.plusYears(4).minusDays(1),
+                        PeriodoServico.TipoServico.values()[(int) (id + p) % PeriodoServico.TipoServico.values().length],
+                        p % 2 == 0 ? "Professor" : "Técnico", "Secretaria " + (id % 4), 1.4, p == 1, p == 2);
+            }
+        }
+        CarreirasColunares original = construtor.construir();
+        Path arquivo = diretorio.resolve("carreiras.bin");
+
+        ArquivoCarreiras.gravar(original, arquivo);
+        CarreirasColunares mapeadas = ArquivoCarreiras.abrir(arquivo);
+
+        assertEquals(original.quantidadeUsuarios(), mapeadas.quantidadeUsuarios());
+        assertEquals(original.quantidadePeriodos(), mapeadas.quantidadePeriodos());
+        for (int u = 0; u < original.quantidadeUsuarios(); u++) {
+            Usuario esperado = original.usuario(u);
+            Usuario obtido = mapeadas.usuario(mapeadas.indiceUsuario(esperado.id));
+            assertEquals(esperado.id, obtido.id);
+            assertEquals(esperado.sexo, obtido.sexo);
+            assertEquals(esperado.dataNascimento, obtido.dataNascimento);
+            assertEquals(esperado.cargoAtual, obtido.cargoAtual);
+            int ultimoVinculo = original.ultimoVinculo(u);
+            assertEquals(ultimoVinculo, mapeadas.ultimoVinculo(u));
+            if (ultimoVinculo >= 0) {
+                assertEquals(original.orgaoEmpregador(ultimoVinculo), mapeadas.orgaoEmpregador(ultimoVinculo));
+                assertEquals(original.tipoServico(ultimoVinculo), mapeadas.tipoServico(ultimoVinculo));
+            }
+
+            TempoAgregado temposEsperados = original.agregar(u, ConvencaoTempo.LEGAL, null);
+            TempoAgregado temposObtidos = mapeadas.agregar(u, ConvencaoTempo.LEGAL, null);
+            for (TempoAgregado.Categoria categoria : TempoAgregado.Categoria.values()) {
+                assertEquals(temposEsperados.dias(categoria), temposObtidos.dias(categoria), esperado.id + " " + categoria);
+            }
+            assertEquals(temposEsperados.getFimUltimoVinculo(), temposObtidos.getFimUltimoVinculo());
+        }
+        assertTrue(mapeadas.indiceUsuario(3) < 0);
+        assertTrue(Files.notExists(diretorio.resolve("carreiras.bin.tmp")));
+    }
+
+    @Test
+    void testGravarEmBlocos() throws IOException {
+        CarreirasColunares.Construtor todas = new CarreirasColunares.Construtor();
+        CarreirasColunares.Construtor[] blocos = {new CarreirasColunares.Construtor(),
+                new CarreirasColunares.Construtor(), new CarreirasColunares.Construtor()};
+        for (long id = 1; id <= 90; id++) {
+            // Cada bloco recebe os cargos e órgãos em outra ordem, com outros códigos
+            CarreirasColunares.Construtor bloco = blocos[(int) (id - 1) / 30];
+            String cargoAtual = id % 4 == 0 ? null : "Cargo " + (id % 3);
+            for (CarreirasColunares.Construtor construtor : new CarreirasColunares.Construtor[] {todas, bloco}) {
+                construtor.adicionarUsuario(id, "F", LocalDate.of(1970, 1, 1).plusDays(id), cargoAtual);
+                for (int p = 0; p < id % 4; p++) {
+                    LocalDate inicio = LocalDate.of(1995 + p * 5, 1, 1);
+                    construtor.adicionarPeriodo(inicio, inicio.plusYears(5).minusDays(1), PeriodoServico.TipoServico.ESTATUTARIO,
+                            "Cargo " + ((id + p) % 3), p % 2 == 0 ? null : "Órgão " + (100 - id), null, false, false);
+                }
+            }
+        }
+        CarreirasColunares original = todas.construir();
+        Path arquivo = diretorio.resolve("blocos.bin");
+
+        try (ArquivoCarreiras.Gravador gravador = new ArquivoCarreiras.Gravador(arquivo)) {
+            for (CarreirasColunares.Construtor bloco : blocos) {
+                gravador.adicionar(bloco.construir());
+            }
+            gravador.concluir();
+        }
+        CarreirasColunares mapeadas = ArquivoCarreiras.abrir(arquivo);
+
+        assertEquals(original.quantidadeUsuarios(), mapeadas.quantidadeUsuarios());
+        assertEquals(original.quantidadePeriodos(), mapeadas.quantidadePeriodos());
+        for (int u = 0; u < original.quantidadeUsuarios(); u++) {
+            assertEquals(original.usuario(u).cargoAtual, mapeadas.usuario(u).cargoAtual);
+            assertEquals(original.quantidadePeriodos(u), mapeadas.quantidadePeriodos(u));
+            TempoAgregado esperados = original.agregar(u, ConvencaoTempo.LEGAL, null);
+            TempoAgregado obtidos = mapeadas.agregar(u, ConvencaoTempo.LEGAL, null);
+            assertEquals(esperados, obtidos, "usuário " + original.usuarioId(u));
+        }
+        for (int p = 0; p < original.quantidadePeriodos(); p++) {
+            assertEquals(original.orgaoEmpregador(p), mapeadas.orgaoEmpregador(p));
+        }
+        try (var restantes = Files.list(diretorio)) {
+            assertEquals(List.of(arquivo), restantes.toList());
+        }
+    }
+
+    @Test
+    void testArquivoInvalido() throws IOException {
+        Path arquivo = Files.write(diretorio.resolve("invalido.bin"), new byte[128]);
+        assertThrows(IOException.class, () -> ArquivoCarreiras.abrir(arquivo));
+
+        CarreirasColunares carreiras = new CarreirasColunares.Construtor()
+                .adicionarUsuario(1, "F", null, null)
+                .adicionarPeriodo(LocalDate.of(2000, 1, 1), LocalDate.of(2010, 1, 1), PeriodoServico.TipoServico.CLT,
+                        null, "Prefeitura", null, false, false)
+                .construir();
+        Path truncado = diretorio.resolve("truncado.bin");
+        ArquivoCarreiras.gravar(carreiras, truncado);
+        byte[] conteudo = Files.readAllBytes(truncado);
+        Files.write(truncado, Arrays.copyOf(conteudo, 80));
+        assertThrows(IOException.class, () -> ArquivoCarreiras.abrir(truncado));
+    }
+}
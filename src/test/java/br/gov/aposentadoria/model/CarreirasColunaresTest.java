@@ -0,0 +1,105 @@
+package br.gov.aposentadoria.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CarreirasColunaresTest {
+
+    private static final String[] CARGOS = {"Professor", "Analista", "Técnico"};
+
+    @Test
+    void testAgregacaoIgualAEntidades() {
+        Random aleatorio = new Random(21);
+        List<Usuario> usuarios = new ArrayList<>();
+        Map<Long, List<PeriodoServico>> periodosPorUsuario = new HashMap<>();
+        for (long id = 1; id <= 200; id++) {
+            Usuario usuario = new Usuario();
+            usuario.id = id * 3;
+            usuario.sexo = aleatorio.nextBoolean() ? "M" : "F";
+            usuario.dataNascimento = LocalDate.of(1960, 1, 1).plusDays(aleatorio.nextInt(10_000));
+            usuario.cargoAtual = aleatorio.nextInt(4) == 0 ? null : CARGOS[aleatorio.nextInt(CARGOS.length)];
+            usuarios.add(usuario);
+
+            List<PeriodoServico> periodos = new ArrayList<>();
+            for (int p = aleatorio.nextInt(8); p > 0; p--) {
+                periodos.add(periodo(aleatorio));
+            }
+            periodosPorUsuario.put(usuario.id, periodos);
+        }
+
+        CarreirasColunares carreiras = CarreirasColunares.de(usuarios, periodosPorUsuario);
+
+        assertEquals(usuarios.size(), carreiras.quantidadeUsuarios());
+        LocalDate[] limites = {null, LocalDate.of(2005, 6, 30)};
+        for (Usuario usuario : usuarios) {
+            int indice = carreiras.indiceUsuario(usuario.id);
+            Usuario transiente = carreiras.usuario(indice);
+            assertEquals(usuario.id, transiente.id);
+            assertEquals(usuario.sexo, transiente.sexo);
+            assertEquals(usuario.dataNascimento, transiente.dataNascimento);
+            assertEquals(usuario.cargoAtual, transiente.cargoAtual);
+
+            List<PeriodoServico> periodos = periodosPorUsuario.get(usuario.id);
+            assertEquals(periodos.size(), carreiras.quantidadePeriodos(indice));
+            for (LocalDate limite : limites) {
+                TempoAgregado esperado = TempoAgregado.calcular(usuario.cargoAtual, periodos, ConvencaoTempo.LEGAL, limite);
+                TempoAgregado obtido = carreiras.agregar(indice, ConvencaoTempo.LEGAL, limite);
+                for (TempoAgregado.Categoria categoria : TempoAgregado.Categoria.values()) {
+                    assertEquals(esperado.dias(categoria), obtido.dias(categoria), usuario.id + " " + categoria);
+                    assertEquals(esperado.ultimoVinculoPertence(categoria), obtido.ultimoVinculoPertence(categoria));
+                }
+                for (PeriodoServico.TipoServico tipo : PeriodoServico.TipoServico.values()) {
+                    assertEquals(esperado.dias(tipo), obtido.dias(tipo), usuario.id + " " + tipo);
+                }
+                assertEquals(esperado.getFimUltimoVinculo(), obtido.getFimUltimoVinculo());
+            }
+        }
+    }
+
+    @Test
+    void testUsuarioSemPeriodos() {
+        CarreirasColunares carreiras = new CarreirasColunares.Construtor()
+                .adicionarUsuario(7, null, null, "")
+                .construir();
+
+        TempoAgregado tempos = carreiras.agregar(0, ConvencaoTempo.LEGAL, null);
+        assertEquals(0, tempos.dias(TempoAgregado.Categoria.CONTRIBUICAO));
+        assertNull(tempos.getFimUltimoVinculo());
+        assertNull(carreiras.usuario(0).cargoAtual);
+        assertTrue(carreiras.indiceUsuario(8) < 0);
+    }
+
+    @Test
+    void testUsuariosForaDeOrdem() {
+        CarreirasColunares.Construtor construtor = new CarreirasColunares.Construtor().adicionarUsuario(2, "M", null, null);
+        assertThrows(IllegalArgumentException.class, () -> construtor.adicionarUsuario(1, "F", null, null));
+        assertThrows(IllegalStateException.class, () -> new CarreirasColunares.Construtor().adicionarPeriodo(
+                LocalDate.of(2000, 1, 1), LocalDate.of(2001, 1, 1), PeriodoServico.TipoServico.CLT, null, null, null, false, false));
+    }
+
+    private static PeriodoServico periodo(Random aleatorio) {
+        PeriodoServico.TipoServico[] tipos = PeriodoServico.TipoServico.values();
+        PeriodoServico periodo = new PeriodoServico();
+        periodo.dataInicio = LocalDate.of(1985, 1, 1).plusDays(aleatorio.nextInt(12_000));
+        periodo.dataFim = periodo.dataInicio.plusDays(aleatorio.nextInt(5_000));
+        periodo.tipoServico = tipos[aleatorio.nextInt(tipos.length)];
+        periodo.cargo = aleatorio.nextBoolean() ? CARGOS[aleatorio.nextInt(CARGOS.length)] : null;
+        periodo.insalubridade = aleatorio.nextInt(5) == 0;
+        if (aleatorio.nextInt(3) == 0) {
+            periodo.tempoConvertido = true;
+            periodo.fatorConversao = aleatorio.nextBoolean() ? 1.4 : 1.2;
+        }
+        return periodo;
+    }
+}
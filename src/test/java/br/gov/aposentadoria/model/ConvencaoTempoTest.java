@@ -0,0 +1,37 @@
+package br.gov.aposentadoria.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ConvencaoTempoTest {
+
+    @Test
+    void testConversaoIdaEVolta() {
+        for (ConvencaoTempo convencao : ConvencaoTempo.values()) {
+            for (long dias = 0; dias < 40_000; dias++) {
+                PeriodoTempo periodo = convencao.paraPeriodo(dias);
+                assertEquals(dias, convencao.paraDias(periodo), convencao + " " + dias);
+                assertEquals(periodo.anos(), convencao.anos(dias), convencao + " " + dias);
+            }
+        }
+    }
+
+    @Test
+    void testDiasParaAnosEhOMenorValor() {
+        for (ConvencaoTempo convencao : ConvencaoTempo.values()) {
+            for (int anos = 1; anos <= 60; anos++) {
+                long dias = convencao.diasParaAnos(anos);
+                assertEquals(anos, convencao.anos(dias));
+                assertEquals(anos - 1, convencao.anos(dias - 1));
+            }
+        }
+    }
+
+    @Test
+    void testSomaNaoPerdeDias() {
+        PeriodoTempo soma = new PeriodoTempo(0, 11, 29).somar(new PeriodoTempo(0, 0, 6));
+        assertEquals(365, soma.toDias());
+        assertEquals(new PeriodoTempo(1, 0, 0), soma);
+    }
+}
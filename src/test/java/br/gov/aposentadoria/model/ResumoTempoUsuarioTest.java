@@ -0,0 +1,119 @@
+package br.gov.aposentadoria.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ResumoTempoUsuarioTest {
+
+    private static final String CARGO_ATUAL = "Professor";
+    private static final String[] CARGOS = {"Professor", "Analista"};
+
+    @Test
+    void testDiferencasIguaisAoRecalculo() {
+        Random aleatorio = new Random(25);
+        List<PeriodoServico> periodos = new ArrayList<>();
+        long proximoId = 1;
+        for (int i = 0; i < 20; i++) {
+            periodos.add(periodo(aleatorio, proximoId++));
+        }
+        ResumoTempoUsuario resumo = ResumoTempoUsuario.de(1L);
+        resumo.recalcular(periodos, CARGO_ATUAL);
+        comparar(periodos, resumo);
+
+        for (int operacao = 0; operacao < 500; operacao++) {
+            int escolha = aleatorio.nextInt(4);
+            if (escolha == 0 || periodos.isEmpty()) {
+                PeriodoServico novo = periodo(aleatorio, proximoId++);
+                periodos.add(novo);
+                resumo.somar(novo, sobrepostos(periodos, novo), CARGO_ATUAL, 1);
+                resumo.considerarUltimoVinculo(novo, CARGO_ATUAL);
+            } else if (escolha == 1) {
+                PeriodoServico removido = periodos.remove(aleatorio.nextInt(periodos.size()));
+                resumo.somar(removido, sobrepostos(periodos, removido), CARGO_ATUAL, -1);
+                if (removido.id.equals(resumo.ultimoVinculoId)) {
+                    resumo.definirUltimoVinculo(ultimo(periodos), CARGO_ATUAL);
+                }
+            } else {
+                PeriodoServico alterado = periodos.get(aleatorio.nextInt(periodos.size()));
+                PeriodoServico anterior = alterado.copiar();
+                if (escolha == 2) {
+                    PeriodoServico novo = periodo(aleatorio, alterado.id);
+                    alterado.dataInicio = novo.dataInicio;
+                    alterado.dataFim = novo.dataFim;
+                    alterado.tipoServico = novo.tipoServico;
+                    alterado.insalubridade = novo.insalubridade;
+                } else {
+                    alterado.tempoConvertido = true;
+                    alterado.fatorConversao = 1.4;
+                }
+                resumo.somar(anterior, sobrepostos(periodos, anterior), CARGO_ATUAL, -1);
+                resumo.somar(alterado, sobrepostos(periodos, alterado), CARGO_ATUAL, 1);
+                if (alterado.id.equals(resumo.ultimoVinculoId)) {
+                    resumo.definirUltimoVinculo(ultimo(periodos), CARGO_ATUAL);
+                } else {
+                    resumo.considerarUltimoVinculo(alterado, CARGO_ATUAL);
+                }
+            }
+            comparar(periodos, resumo);
+        }
+    }
+
+    @Test
+    void testResumoSemPeriodos() {
+        ResumoTempoUsuario resumo = ResumoTempoUsuario.de(1L);
+        PeriodoServico periodo = periodo(new Random(1), 1);
+        resumo.recalcular(List.of(periodo), null);
+
+        resumo.somar(periodo, List.of(), null, -1);
+        resumo.definirUltimoVinculo(null, null);
+
+        TempoAgregado tempos = resumo.tempos(ConvencaoTempo.LEGAL);
+        assertEquals(0, tempos.dias(TempoAgregado.Categoria.CONTRIBUICAO));
+        assertNull(tempos.getFimUltimoVinculo());
+        assertEquals(TempoAgregado.calcular(null, List.of(), ConvencaoTempo.LEGAL, null), tempos);
+    }
+
+    private static void comparar(List<PeriodoServico> periodos, ResumoTempoUsuario resumo) {
+        // No empate da data de fim, o último vínculo é o de menor id
+        List<PeriodoServico> porId = periodos.stream().sorted(Comparator.comparing(p -> p.id)).toList();
+        assertEquals(TempoAgregado.calcular(CARGO_ATUAL, porId, ConvencaoTempo.LEGAL, null),
+                resumo.tempos(ConvencaoTempo.LEGAL));
+    }
+
+    private static List<PeriodoServico> sobrepostos(List<PeriodoServico> periodos, PeriodoServico periodo) {
+        return periodos.stream()
+                .filter(outro -> !outro.id.equals(periodo.id))
+                .filter(outro -> !outro.dataFim.isBefore(periodo.dataInicio) && !outro.dataInicio.isAfter(periodo.dataFim))
+                .toList();
+    }
+
+    private static PeriodoServico ultimo(List<PeriodoServico> periodos) {
+        return periodos.stream()
+                .min(Comparator.comparing((PeriodoServico p) -> p.dataFim).reversed().thenComparing(p -> p.id))
+                .orElse(null);
+    }
+
+    private static PeriodoServico periodo(Random aleatorio, long id) {
+        PeriodoServico.TipoServico[] tipos = PeriodoServico.TipoServico.values();
+        PeriodoServico periodo = new PeriodoServico();
+        periodo.id = id;
+        periodo.dataInicio = LocalDate.of(1985, 1, 1).plusDays(aleatorio.nextInt(12_000));
+        periodo.dataFim = periodo.dataInicio.plusDays(aleatorio.nextInt(3_000));
+        periodo.tipoServico = tipos[aleatorio.nextInt(tipos.length)];
+        periodo.cargo = CARGOS[aleatorio.nextInt(CARGOS.length)];
+        periodo.insalubridade = aleatorio.nextInt(5) == 0;
+        if (aleatorio.nextInt(4) == 0) {
+            periodo.tempoConvertido = true;
+            periodo.fatorConversao = 1.2;
+        }
+        return periodo;
+    }
+}
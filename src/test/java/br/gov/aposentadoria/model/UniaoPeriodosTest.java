@@ -0,0 +1,76 @@
+package br.gov.aposentadoria.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class UniaoPeriodosTest {
+
+    @Test
+    void testDiasConcomitantesContadosUmaVez() {
+        List<PeriodoServico> periodos = List.of(
+                periodo(LocalDate.of(2000, 1, 1), LocalDate.of(2000, 12, 31), PeriodoServico.TipoServico.ESTATUTARIO),
+                periodo(LocalDate.of(2000, 7, 1), LocalDate.of(2001, 6, 30), PeriodoServico.TipoServico.CLT));
+
+        TempoAgregado tempos = TempoAgregado.calcular(null, periodos, ConvencaoTempo.LEGAL, null);
+
+        long esperado = LocalDate.of(2001, 7, 1).toEpochDay() - LocalDate.of(2000, 1, 1).toEpochDay();
+        assertEquals(esperado, tempos.dias(TempoAgregado.Categoria.CONTRIBUICAO));
+        assertEquals(366, tempos.dias(TempoAgregado.Categoria.SERVICO_PUBLICO));
+        assertEquals(365, tempos.dias(PeriodoServico.TipoServico.CLT));
+    }
+
+    @Test
+    void testTrechoSobrepostoUsaMaiorFator() {
+        PeriodoServico comum = periodo(LocalDate.of(2010, 1, 1), LocalDate.of(2010, 1, 10), PeriodoServico.TipoServico.CLT);
+        PeriodoServico convertido = periodo(LocalDate.of(2010, 1, 6), LocalDate.of(2010, 1, 15), PeriodoServico.TipoServico.CLT);
+        convertido.tempoConvertido = true;
+        convertido.fatorConversao = 1.4;
+
+        // 5 dias comuns + 10 dias convertidos a 1,4
+        TempoAgregado tempos = TempoAgregado.calcular(null, List.of(comum, convertido), ConvencaoTempo.LEGAL, null);
+        assertEquals(19, tempos.dias(TempoAgregado.Categoria.CONTRIBUICAO));
+
+        TempoAgregado invertido = TempoAgregado.calcular(null, List.of(convertido, comum), ConvencaoTempo.LEGAL, null);
+        assertEquals(19, invertido.dias(TempoAgregado.Categoria.CONTRIBUICAO));
+    }
+
+    @Test
+    void testUniaoIgualAContagemDiaADia() {
+        Random random = new Random(42);
+        for (int rodada = 0; rodada < 200; rodada++) {
+            List<PeriodoServico> periodos = new ArrayList<>();
+            for (int i = 0; i < 1 + random.nextInt(8); i++) {
+                LocalDate inicio = LocalDate.of(2000, 1, 1).plusDays(random.nextInt(400));
+                periodos.add(periodo(inicio, inicio.plusDays(random.nextInt(120)), PeriodoServico.TipoServico.CLT));
+            }
+            LocalDate dataLimite = LocalDate.of(2000, 1, 1).plusDays(random.nextInt(500));
+
+            long esperado = 0;
+            for (LocalDate dia = LocalDate.of(2000, 1, 1); !dia.isAfter(dataLimite); dia = dia.plusDays(1)) {
+                final LocalDate d = dia;
+                if (periodos.stream().anyMatch(p -> !d.isBefore(p.dataInicio) && !d.isAfter(p.dataFim))) {
+                    esperado++;
+                }
+            }
+
+            TempoAgregado tempos = TempoAgregado.calcular(null, periodos, ConvencaoTempo.LEGAL, dataLimite);
+            assertEquals(esperado, tempos.dias(TempoAgregado.Categoria.CONTRIBUICAO));
+        }
+    }
+
+    private static PeriodoServico periodo(LocalDate inicio, LocalDate fim, PeriodoServico.TipoServico tipo) {
+        PeriodoServico periodo = new PeriodoServico();
+        periodo.dataInicio = inicio;
+        periodo.dataFim = fim;
+        periodo.tipoServico = tipo;
+        periodo.insalubridade = false;
+        periodo.tempoConvertido = false;
+        return periodo;
+    }
+}
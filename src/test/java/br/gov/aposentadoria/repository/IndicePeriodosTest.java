@@ -0,0 +1,72 @@
+package br.gov.aposentadoria.repository;
+
+import br.gov.aposentadoria.model.PeriodoServico;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IndicePeriodosTest {
+
+    private static final LocalDate BASE = LocalDate.of(1990, 1, 1);
+
+    @Test
+    void testDetectaSobreposicaoNosLimites() {
+        PeriodoServico existente = periodo(0, 100);
+        IndicePeriodos indice = IndicePeriodos.de(List.of(existente));
+
+        assertTrue(indice.verificarConcomitancia(periodo(100, 200)));
+        assertTrue(indice.verificarConcomitancia(periodo(-50, 0)));
+        assertFalse(indice.verificarConcomitancia(periodo(101, 200)));
+        assertFalse(indice.verificarConcomitancia(existente));
+    }
+
+    @Test
+    void testEquivalenteABuscaLinear() {
+        Random random = new Random(42);
+        List<PeriodoServico> periodos = new ArrayList<>();
+        IndicePeriodos indice = new IndicePeriodos();
+
+        for (int i = 0; i < 500; i++) {
+            int inicio = random.nextInt(20_000);
+            PeriodoServico periodo = periodo(inicio, inicio + random.nextInt(400));
+            periodos.add(periodo);
+            indice.adicionar(periodo);
+        }
+        for (int i = 0; i < 100; i++) {
+            PeriodoServico removido = periodos.remove(random.nextInt(periodos.size()));
+            assertTrue(indice.remover(removido));
+        }
+        assertEquals(periodos.size(), indice.tamanho());
+
+        for (int i = 0; i < 1_000; i++) {
+            int inicio = random.nextInt(20_000);
+            PeriodoServico consulta = periodo(inicio, inicio + random.nextInt(200));
+
+            List<PeriodoServico> esperados = periodos.stream()
+                    .filter(p -> !p.dataFim.isBefore(consulta.dataInicio) && !p.dataInicio.isAfter(consulta.dataFim))
+                    .sorted(Comparator.comparing((PeriodoServico p) -> p.dataInicio))
+                    .toList();
+            List<PeriodoServico> encontrados = indice.listarSobrepostos(consulta);
+
+            assertEquals(esperados.size(), encontrados.size());
+            assertTrue(encontrados.containsAll(esperados));
+            assertEquals(!esperados.isEmpty(), indice.verificarConcomitancia(consulta));
+        }
+    }
+
+    private static PeriodoServico periodo(int inicio, int fim) {
+        PeriodoServico periodo = new PeriodoServico();
+        periodo.dataInicio = BASE.plusDays(inicio);
+        periodo.dataFim = BASE.plusDays(fim);
+        periodo.tipoServico = PeriodoServico.TipoServico.ESTATUTARIO;
+        return periodo;
+    }
+}
@@ -0,0 +1,86 @@
+package br.gov.aposentadoria.resource;
+
+import br.gov.aposentadoria.model.PeriodoServico;
+import br.gov.aposentadoria.model.Usuario;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@QuarkusTest
+class PeriodoServicoResourceTest {
+
+    @Inject
+    SessionFactory sessionFactory;
+
+    @Test
+    void testListagemDePeriodosUsaQuantidadeFixaDeConsultas() {
+        Long usuarioUmPeriodo = criarUsuarioComPeriodos("10000000001", 1);
+        Long usuarioQuarentaPeriodos = criarUsuarioComPeriodos("10000000040", 40);
+
+        long consultasUmPeriodo = contarConsultas("/api/periodos-servico/usuario/" + usuarioUmPeriodo, 1);
+        long consultasQuarentaPeriodos = contarConsultas("/api/periodos-servico/usuario/" + usuarioQuarentaPeriodos, 40);
+
+        // Usuário e página de períodos, sem uma consulta por período
+        assertEquals(2, consultasUmPeriodo);
+        assertEquals(consultasUmPeriodo, consultasQuarentaPeriodos);
+    }
+
+    @Test
+    void testListagemDeUsuariosUsaUmaConsulta() {
+        criarUsuarioComPeriodos("10000000002", 3);
+
+        Statistics estatisticas = sessionFactory.getStatistics();
+        estatisticas.clear();
+        given()
+                .when().get("/api/usuarios?limite=500")
+                .then()
+                .statusCode(200);
+
+        assertEquals(1, estatisticas.getPrepareStatementCount());
+    }
+
+    private long contarConsultas(String caminho, int quantidadeEsperada) {
+        Statistics estatisticas = sessionFactory.getStatistics();
+        estatisticas.clear();
+        given()
+                .when().get(caminho + "?limite=500")
+                .then()
+                .statusCode(200)
+                .body("itens.size()", is(quantidadeEsperada));
+        return estatisticas.getPrepareStatementCount();
+    }
+
+    private static Long criarUsuarioComPeriodos(String cpf, int quantidade) {
+        return QuarkusTransaction.requiringNew().call(() -> {
+            Usuario usuario = new Usuario();
+            usuario.nome = "Usuário " + cpf;
+            usuario.cpf = cpf;
+            usuario.email = cpf + "@exemplo.gov.br";
+            usuario.senha = "senha";
+            usuario.sexo = "F";
+            usuario.dataNascimento = LocalDate.of(1970, 1, 1);
+            usuario.persist();
+
+            LocalDate inicio = LocalDate.of(1990, 1, 1);
+            for (int i = 0; i < quantidade; i++) {
+                PeriodoServico periodo = new PeriodoServico();
+                periodo.usuario = usuario;
+                periodo.dataInicio = inicio.plusYears(i);
+                periodo.dataFim = inicio.plusYears(i + 1).minusDays(1);
+                periodo.orgaoEmpregador = "Órgão";
+                periodo.tipoServico = PeriodoServico.TipoServico.ESTATUTARIO;
+                periodo.persist();
+            }
+            return usuario.id;
+        });
+    }
+}
@@ -0,0 +1,52 @@
+package br.gov.aposentadoria.service;
+
+import br.gov.aposentadoria.model.CarreirasColunares;
+import br.gov.aposentadoria.model.ConvencaoTempo;
+import br.gov.aposentadoria.model.PeriodoServico;
+import br.gov.aposentadoria.model.Simulacao;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AvaliacaoPopulacaoTest {
+
+    @Test
+    void testContagemIgualAMatriz() {
+        CarreirasColunares.Construtor construtor = new CarreirasColunares.Construtor();
+        for (int i = 1; i <= 400; i++) {
+            construtor.adicionarUsuario(i, i % 2 == 0 ? "M" : "F", LocalDate.of(1955, 1, 1).plusDays(i * 29L), "Professor");
+            LocalDate inicio = LocalDate.of(1978, 1, 1).plusDays(i * 11L);
+            construtor.adicionarPeriodo(inicio, inicio.plusYears(12), PeriodoServico.TipoServico.CLT, null, "Empresa", null, false, false);
+            construtor.adicionarPeriodo(inicio.plusYears(12).plusDays(1), LocalDate.of(2024, 12, 31),
+                    i % 3 == 0 ? PeriodoServico.TipoServico.MAGISTERIO : PeriodoServico.TipoServico.ESTATUTARIO,
+                    "Professor", "Secretaria de Educação", null, false, i % 5 == 0);
+        }
+        CarreirasColunares carreiras = construtor.construir();
+        List<Simulacao.RegraAposentadoria> regras = Arrays.asList(Simulacao.RegraAposentadoria.values());
+        List<LocalDate> datas = List.of(LocalDate.of(2025, 1, 1), LocalDate.of(2030, 1, 1), LocalDate.of(2035, 6, 30));
+
+        SimuladorService simuladorService = new SimuladorService(new MotorRegrasAposentadoria(),
+                new ResultadosSimulacao(1000, Duration.ofHours(1)));
+        MatrizElegibilidade matriz = MatrizElegibilidade.calcular(simuladorService, carreiras, regras, datas);
+        AvaliacaoPopulacao avaliacao = AvaliacaoPopulacao.avaliar(carreiras, RegrasAposentadoria.padrao(),
+                ConvencaoTempo.LEGAL, regras, datas);
+
+        long total = 0;
+        for (int r = 0; r < regras.size(); r++) {
+            for (int d = 0; d < datas.size(); d++) {
+                assertEquals(matriz.contarElegiveis(r, d), avaliacao.elegiveis(r, d), regras.get(r) + " " + datas.get(d));
+                total += avaliacao.elegiveis(r, d);
+            }
+        }
+        assertEquals(400, avaliacao.quantidadeUsuarios());
+        assertEquals(RegrasAposentadoria.padrao().versao(), avaliacao.getVersaoRegras());
+        // Garante que a comparação não é trivial
+        assertTrue(total > 0);
+    }
+}
@@ -0,0 +1,84 @@
+package br.gov.aposentadoria.service;
+
+import br.gov.aposentadoria.model.PeriodoServico;
+import br.gov.aposentadoria.model.Simulacao;
+import br.gov.aposentadoria.model.TempoAgregado;
+import br.gov.aposentadoria.model.Usuario;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ChaveSimulacaoTest {
+
+    private static final LocalDate REFERENCIA = LocalDate.of(2024, 3, 10);
+
+    @Test
+    void testMesmasEntradasGeramMesmaChave() {
+        Usuario usuario = usuario("F", LocalDate.of(1970, 5, 1));
+        // Mesmos tempos agregados a partir de outra lista de períodos equivalente
+        TempoAgregado tempos = TempoAgregado.calcular(usuario, periodos());
+        TempoAgregado recalculados = TempoAgregado.calcular(usuario, List.of(periodos().get(1), periodos().get(0)));
+
+        assertEquals(
+                ChaveSimulacao.calcular(usuario, tempos, Simulacao.RegraAposentadoria.REGRA_PERMANENTE, REFERENCIA, 5000.0, "v1"),
+                ChaveSimulacao.calcular(usuario(usuario.sexo, usuario.dataNascimento), recalculados,
+                        Simulacao.RegraAposentadoria.REGRA_PERMANENTE, REFERENCIA, 5000.0, "v1"));
+    }
+
+    @Test
+    void testQualquerEntradaDiferenteAlteraAChave() {
+        Usuario usuario = usuario("F", LocalDate.of(1970, 5, 1));
+        TempoAgregado tempos = TempoAgregado.calcular(usuario, periodos());
+        Usuario outroSexo = usuario("M", usuario.dataNascimento);
+        Usuario outroNascimento = usuario("F", LocalDate.of(1970, 5, 2));
+        Usuario outroCargo = usuario("F", usuario.dataNascimento);
+        outroCargo.cargoAtual = "Diretor";
+        List<PeriodoServico> outrosPeriodos = List.of(periodos().get(0),
+                periodo(LocalDate.of(2000, 1, 1), LocalDate.of(2023, 12, 30), PeriodoServico.TipoServico.ESTATUTARIO, "Analista"));
+        Simulacao.RegraAposentadoria regra = Simulacao.RegraAposentadoria.REGRA_PERMANENTE;
+
+        List<String> chaves = List.of(
+                ChaveSimulacao.calcular(usuario, tempos, regra, REFERENCIA, 5000.0, "v1"),
+                ChaveSimulacao.calcular(outroSexo, tempos, regra, REFERENCIA, 5000.0, "v1"),
+                ChaveSimulacao.calcular(outroNascimento, tempos, regra, REFERENCIA, 5000.0, "v1"),
+                ChaveSimulacao.calcular(outroCargo, tempos, regra, REFERENCIA, 5000.0, "v1"),
+                ChaveSimulacao.calcular(usuario, TempoAgregado.calcular(usuario, outrosPeriodos), regra, REFERENCIA, 5000.0, "v1"),
+                ChaveSimulacao.calcular(usuario, tempos, Simulacao.RegraAposentadoria.REGRA_TRANSICAO_PONTOS, REFERENCIA, 5000.0, "v1"),
+                ChaveSimulacao.calcular(usuario, tempos, regra, REFERENCIA.plusDays(1), 5000.0, "v1"),
+                ChaveSimulacao.calcular(usuario, tempos, regra, REFERENCIA, 5000.01, "v1"),
+                ChaveSimulacao.calcular(usuario, tempos, regra, REFERENCIA, null, "v1"),
+                ChaveSimulacao.calcular(usuario, tempos, regra, REFERENCIA, 5000.0, "v2"));
+
+        Set<String> distintas = new HashSet<>(chaves);
+        assertEquals(chaves.size(), distintas.size());
+        assertEquals(64, chaves.get(0).length());
+    }
+
+    private static List<PeriodoServico> periodos() {
+        return List.of(
+                periodo(LocalDate.of(1990, 1, 15), LocalDate.of(1999, 12, 31), PeriodoServico.TipoServico.CLT, "Auxiliar"),
+                periodo(LocalDate.of(2000, 1, 1), LocalDate.of(2023, 12, 31), PeriodoServico.TipoServico.ESTATUTARIO, "Analista"));
+    }
+
+    private static Usuario usuario(String sexo, LocalDate dataNascimento) {
+        Usuario usuario = new Usuario();
+        usuario.sexo = sexo;
+        usuario.dataNascimento = dataNascimento;
+        usuario.cargoAtual = "Analista";
+        return usuario;
+    }
+
+    private static PeriodoServico periodo(LocalDate inicio, LocalDate fim, PeriodoServico.TipoServico tipo, String cargo) {
+        PeriodoServico periodo = new PeriodoServico();
+        periodo.dataInicio = inicio;
+        periodo.dataFim = fim;
+        periodo.tipoServico = tipo;
+        periodo.cargo = cargo;
+        return periodo;
+    }
+}
@@ -0,0 +1,112 @@
+package br.gov.aposentadoria.service;
+
+import br.gov.aposentadoria.model.ImportacaoPeriodos;
+import br.gov.aposentadoria.model.PeriodoServico;
+import br.gov.aposentadoria.model.Usuario;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LeitorImportacaoTest {
+
+    @Test
+    void leCsvComPontoEVirgulaEAspas() throws IOException {
+        List<RegistroImportacao> registros = ler(ImportacaoPeriodos.Formato.CSV, """
+                CPF;dataInicio;dataFim;orgaoEmpregador;tipoServico;cargo
+                123.456.789-01;2000-01-01;2004-12-31;"Secretaria de Saúde; Regional ""Sul\""";ESTATUTARIO;Enfermeiro
+
+                12345678901;01/01/2005;31/12/2010;Prefeitura;CLT;
+                """);
+
+        assertEquals(2, registros.size());
+        RegistroImportacao primeiro = registros.get(0);
+        assertEquals(2, primeiro.linha());
+        assertEquals("12345678901", primeiro.cpf());
+        assertEquals("Secretaria de Saúde; Regional \"Sul\"", primeiro.campo("orgaoEmpregador"));
+
+        RegistroImportacao segundo = registros.get(1);
+        assertEquals(4, segundo.linha());
+        assertNull(segundo.campo("cargo"));
+    }
+
+    @Test
+    void rejeitaLinhaCsvComColunasFaltando() throws IOException {
+        List<RegistroImportacao> registros = ler(ImportacaoPeriodos.Formato.CSV, """
+                cpf,dataInicio,dataFim,orgaoEmpregador,tipoServico
+                12345678901,2000-01-01,2004-12-31
+                """);
+
+        assertEquals(1, registros.size());
+        assertNotNull(registros.get(0).erro());
+    }
+
+    @Test
+    void recusaCabecalhoSemColunasObrigatorias() {
+        assertThrows(IllegalArgumentException.class,
+                () -> ler(ImportacaoPeriodos.Formato.CSV, "cpf,dataInicio\n12345678901,2000-01-01\n"));
+    }
+
+    @Test
+    void leNdjsonERejeitaLinhaMalformada() throws IOException {
+        List<RegistroImportacao> registros = ler(ImportacaoPeriodos.Formato.NDJSON, """
+                {"cpf":"12345678901","dataInicio":"2000-01-01","dataFim":"2004-12-31","orgaoEmpregador":"INSS","tipoServico":"CLT","insalubridade":true}
+                {"cpf":"12345678901",
+                """);
+
+        assertEquals(2, registros.size());
+        assertNull(registros.get(0).erro());
+        assertEquals("true", registros.get(0).campo("insalubridade"));
+        assertNotNull(registros.get(1).erro());
+    }
+
+    @Test
+    void converteRegistroEmPeriodo() throws IOException {
+        RegistroImportacao registro = ler(ImportacaoPeriodos.Formato.CSV, """
+                cpf,dataInicio,dataFim,orgaoEmpregador,tipoServico,insalubridade,tempoConvertido,fatorConversao
+                12345678901,2000-01-01,2004-12-31,INSS,clt,sim,s,"1,4"
+                """).get(0);
+
+        PeriodoServico periodo = ImportacaoPeriodosService.converter(registro, new Usuario());
+
+        assertEquals(LocalDate.of(2000, 1, 1), periodo.dataInicio);
+        assertEquals(PeriodoServico.TipoServico.CLT, periodo.tipoServico);
+        assertTrue(periodo.insalubridade);
+        assertEquals(1.4, periodo.fatorConversao);
+        assertFalse(periodo.concomitante);
+    }
+
+    @Test
+    void rejeitaPeriodoComDatasInvertidas() throws IOException {
+        RegistroImportacao registro = ler(ImportacaoPeriodos.Formato.CSV, """
+                cpf,dataInicio,dataFim,orgaoEmpregador,tipoServico
+                12345678901,2005-01-01,2004-12-31,INSS,CLT
+                """).get(0);
+
+        assertThrows(IllegalArgumentException.class, () -> ImportacaoPeriodosService.converter(registro, new Usuario()));
+    }
+
+    private static List<RegistroImportacao> ler(ImportacaoPeriodos.Formato formato, String conteudo) throws IOException {
+        List<RegistroImportacao> registros = new ArrayList<>();
+        try (LeitorImportacao leitor = LeitorImportacao.de(formato,
+                new ByteArrayInputStream(conteudo.getBytes(StandardCharsets.UTF_8)), new ObjectMapper())) {
+            RegistroImportacao registro;
+            while ((registro = leitor.proximo()) != null) {
+                registros.add(registro);
+            }
+        }
+        return registros;
+    }
+}
@@ -0,0 +1,52 @@
+package br.gov.aposentadoria.service;
+
+import br.gov.aposentadoria.model.PeriodoServico;
+import br.gov.aposentadoria.model.Simulacao;
+import br.gov.aposentadoria.model.TempoAgregado;
+import br.gov.aposentadoria.model.Usuario;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LinhaTempoAposentadoriaTest {
+
+    private final SimuladorService simuladorService = new SimuladorService(new MotorRegrasAposentadoria(),
+            new ResultadosSimulacao(1000, Duration.ofHours(1)));
+
+    @Test
+    void testPrimeiroMesElegivelIgualAoMesDaPrevisao() {
+        Usuario usuario = new Usuario();
+        usuario.sexo = "F";
+        usuario.dataNascimento = LocalDate.of(1970, 8, 22);
+        usuario.cargoAtual = "Analista";
+
+        PeriodoServico periodo = new PeriodoServico();
+        periodo.dataInicio = LocalDate.of(1995, 2, 10);
+        periodo.dataFim = LocalDate.of(2024, 12, 31);
+        periodo.tipoServico = PeriodoServico.TipoServico.ESTATUTARIO;
+        periodo.cargo = usuario.cargoAtual;
+
+        YearMonth inicio = YearMonth.of(2024, 1);
+        ProjecaoAposentadoria projecao = simuladorService.projetar(
+                usuario, TempoAgregado.calcular(usuario, List.of(periodo)), inicio.atDay(1));
+        List<Simulacao.RegraAposentadoria> regras = Arrays.asList(Simulacao.RegraAposentadoria.values());
+
+        LinhaTempoAposentadoria linhaTempo = LinhaTempoAposentadoria.calcular(projecao, inicio, 180, regras);
+
+        for (Simulacao.RegraAposentadoria regra : regras) {
+            LocalDate previsao = projecao.calcularDataPrevisao(regra);
+            YearMonth esperado = previsao != null && previsao.isBefore(inicio.plusMonths(180).atDay(1))
+                    ? YearMonth.from(previsao)
+                    : null;
+            assertEquals(esperado, linhaTempo.regras.get(regra).primeiroMesElegivel(), regra.name());
+        }
+        assertTrue(linhaTempo.regras.get(Simulacao.RegraAposentadoria.REGRA_PERMANENTE).primeiroMesElegivel() != null);
+    }
+}
@@ -0,0 +1,79 @@
+package br.gov.aposentadoria.service;
+
+import br.gov.aposentadoria.model.PeriodoServico;
+import br.gov.aposentadoria.model.Simulacao;
+import br.gov.aposentadoria.model.TempoAgregado;
+import br.gov.aposentadoria.model.Usuario;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ProjecaoAposentadoriaTest {
+
+    private final SimuladorService simuladorService = new SimuladorService(new MotorRegrasAposentadoria(),
+            new ResultadosSimulacao(1000, Duration.ofHours(1)));
+
+    @Test
+    void testDataPrevisaoIgualABuscaDiaADia() {
+        LocalDate dataReferencia = LocalDate.of(2024, 3, 10);
+        List<Usuario> usuarios = List.of(
+                usuario("M", LocalDate.of(1968, 7, 2)),
+                usuario("F", LocalDate.of(1975, 8, 22)),
+                usuario("F", LocalDate.of(1962, 1, 1)));
+
+        for (Usuario usuario : usuarios) {
+            List<PeriodoServico> periodos = List.of(
+                    periodo(LocalDate.of(1990, 1, 15), LocalDate.of(1995, 1, 31), PeriodoServico.TipoServico.CLT, "Auxiliar"),
+                    periodo(LocalDate.of(1995, 2, 10), LocalDate.of(2023, 12, 31), PeriodoServico.TipoServico.MAGISTERIO, usuario.cargoAtual));
+            ProjecaoAposentadoria projecao = simuladorService.projetar(
+                    usuario, TempoAgregado.calcular(usuario, periodos), dataReferencia);
+
+            for (Simulacao.RegraAposentadoria regra : Simulacao.RegraAposentadoria.values()) {
+                assertEquals(buscarDiaADia(projecao, regra, dataReferencia), projecao.calcularDataPrevisao(regra),
+                        regra + " para " + usuario.sexo + " nascido em " + usuario.dataNascimento);
+            }
+        }
+    }
+
+    @Test
+    void testSemPeriodosAcumulaApenasIdade() {
+        Usuario usuario = usuario("M", LocalDate.of(1980, 1, 1));
+        ProjecaoAposentadoria projecao = simuladorService.projetar(
+                usuario, TempoAgregado.calcular(usuario, List.of()), LocalDate.of(2024, 1, 1));
+
+        assertNull(projecao.calcularDataPrevisao(Simulacao.RegraAposentadoria.REGRA_PERMANENTE));
+    }
+
+    private static LocalDate buscarDiaADia(ProjecaoAposentadoria projecao, Simulacao.RegraAposentadoria regra,
+                                          LocalDate dataReferencia) {
+        long limite = dataReferencia.plusYears(ProjecaoAposentadoria.HORIZONTE_ANOS).toEpochDay();
+        for (long dia = dataReferencia.toEpochDay(); dia <= limite; dia++) {
+            if (projecao.elegivel(regra, dia)) {
+                return LocalDate.ofEpochDay(dia);
+            }
+        }
+        return null;
+    }
+
+    private static Usuario usuario(String sexo, LocalDate dataNascimento) {
+        Usuario usuario = new Usuario();
+        usuario.sexo = sexo;
+        usuario.dataNascimento = dataNascimento;
+        usuario.cargoAtual = "Professor";
+        return usuario;
+    }
+
+    private static PeriodoServico periodo(LocalDate inicio, LocalDate fim, PeriodoServico.TipoServico tipo, String cargo) {
+        PeriodoServico periodo = new PeriodoServico();
+        periodo.dataInicio = inicio;
+        periodo.dataFim = fim;
+        periodo.tipoServico = tipo;
+        periodo.cargo = cargo;
+        return periodo;
+    }
+}
@@ -0,0 +1,121 @@
+package br.gov.aposentadoria.service;
+
+import br.gov.aposentadoria.model.PeriodoTempo;
+import br.gov.aposentadoria.model.Simulacao;
+import br.gov.aposentadoria.model.TempoAgregado;
+import br.gov.aposentadoria.model.Usuario;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RegrasAposentadoriaTest {
+
+    private static final TempoAgregado.Categoria[] CATEGORIAS = TempoAgregado.Categoria.values();
+
+    @Test
+    void testRegrasPadraoEquivalemAsRegrasDaEmenda() {
+        RegrasAposentadoria regras = RegrasAposentadoria.padrao();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 20_000; i++) {
+            Usuario usuario = new Usuario();
+            usuario.sexo = random.nextBoolean() ? "M" : "F";
+            usuario.dataNascimento = LocalDate.of(1950, 1, 1).plusDays(random.nextInt(30 * 365));
+            LocalDate data = LocalDate.of(2015, 1, 1).plusDays(random.nextInt(25 * 365));
+            int[] anos = new int[CATEGORIAS.length];
+            for (int c = 0; c < anos.length; c++) {
+                anos[c] = random.nextInt(45);
+            }
+            PeriodoTempo contribuicao = new PeriodoTempo(anos[0], random.nextInt(12), random.nextInt(30));
+
+            for (Simulacao.RegraAposentadoria regra : Simulacao.RegraAposentadoria.values()) {
+                assertEquals(manual(regra, usuario, data, anos, contribuicao),
+                        regras.elegivel(regra, usuario, data, anos, contribuicao, true),
+                        regra + " " + usuario.sexo + " " + usuario.dataNascimento + " " + data);
+            }
+        }
+        assertFalse(regras.implementada(Simulacao.RegraAposentadoria.REGRA_ESPECIAL_POLICIAL));
+        assertEquals(1.4, regras.fatorConversao("M"));
+        assertEquals(1.2, regras.fatorConversao("F"));
+    }
+
+    @Test
+    void testHashMudaComConteudoNaMesmaVersao() throws Exception {
+        String json = """
+                {"versao": "teste", "fatorConversaoTempoEspecial": {"M": 1.4, "F": 1.2},
+                 "regras": {"REGRA_PERMANENTE": {"M": {"idadeMinima": 65}, "F": {"idadeMinima": 62}}}}
+                """;
+
+        RegrasAposentadoria regras = ler(json);
+        RegrasAposentadoria alteradas = ler(json.replace("\"idadeMinima\": 65", "\"idadeMinima\": 66"));
+
+        assertEquals(regras.versao(), alteradas.versao());
+        assertEquals(regras.hashDefinicao(), ler(json).hashDefinicao());
+        assertNotEquals(regras.hashDefinicao(), alteradas.hashDefinicao());
+    }
+
+    @Test
+    void testRecusaDefinicaoSemIdadeMinima() {
+        String json = """
+                {"versao": "teste", "fatorConversaoTempoEspecial": {"M": 1.4, "F": 1.2},
+                 "regras": {"REGRA_PERMANENTE": {"M": {"idadeMinima": 65}, "F": {}}}}
+                """;
+
+        assertThrows(IllegalArgumentException.class,
+                () -> RegrasAposentadoria.ler(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8))));
+    }
+
+    @Test
+    void testRecusaCampoDesconhecido() {
+        String json = """
+                {"versao": "teste", "fatorConversaoTempoEspecial": {"M": 1.4, "F": 1.2},
+                 "regras": {"REGRA_PERMANENTE": {"M": {"idadeMinma": 65}, "F": {"idadeMinima": 62}}}}
+                """;
+
+        assertThrows(IllegalArgumentException.class,
+                () -> RegrasAposentadoria.ler(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8))));
+    }
+
+    private static RegrasAposentadoria ler(String json) throws Exception {
+        return RegrasAposentadoria.ler(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Regras conforme estavam escritas no código antes de serem externalizadas
+     */
+    private static boolean manual(Simulacao.RegraAposentadoria regra, Usuario usuario, LocalDate data,
+                                  int[] anos, PeriodoTempo contribuicao) {
+        int idade = Period.between(usuario.dataNascimento, data).getYears();
+        boolean homem = "M".equals(usuario.sexo);
+        int servicoPublico = anos[TempoAgregado.Categoria.SERVICO_PUBLICO.ordinal()];
+        int cargo = anos[TempoAgregado.Categoria.CARGO.ordinal()];
+        int ano = data.getYear();
+        return switch (regra) {
+            case REGRA_PERMANENTE -> idade >= (homem ? 65 : 62) && contribuicao.anos() >= 25
+                    && servicoPublico >= 10 && cargo >= 5;
+            case REGRA_TRANSICAO_PEDÁGIO -> idade >= (homem ? 60 : 57) && contribuicao.anos() >= (homem ? 35 : 30)
+                    && servicoPublico >= 20 && cargo >= 5;
+            case REGRA_TRANSICAO_PONTOS -> {
+                int pontos = RegrasAposentadoria.pontuacao(idade, contribuicao);
+                int idadeMinima = homem ? (ano >= 2022 ? 62 : 61) : (ano >= 2022 ? 57 : 56);
+                int pontosMinimos = homem ? Math.min(105, 96 + (ano - 2019)) : Math.min(100, 86 + (ano - 2019));
+                yield idade >= idadeMinima && contribuicao.anos() >= (homem ? 35 : 30) && pontos >= pontosMinimos
+                        && servicoPublico >= 20 && cargo >= 5;
+            }
+            case REGRA_ESPECIAL_PROFESSOR -> idade >= (homem ? 60 : 57)
+                    && anos[TempoAgregado.Categoria.MAGISTERIO.ordinal()] >= 25 && servicoPublico >= 10 && cargo >= 5;
+            case REGRA_ESPECIAL_INSALUBRIDADE -> idade >= 60
+                    && anos[TempoAgregado.Categoria.INSALUBRE.ordinal()] >= 25 && servicoPublico >= 10 && cargo >= 5;
+            default -> false;
+        };
+    }
+}
@@ -0,0 +1,122 @@
+package br.gov.aposentadoria.service;
+
+import br.gov.aposentadoria.model.CarreirasColunares;
+import br.gov.aposentadoria.model.ConvencaoTempo;
+import br.gov.aposentadoria.model.PeriodoServico;
+import br.gov.aposentadoria.model.Simulacao;
+import br.gov.aposentadoria.model.Usuario;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RelatorioElegibilidadeTest {
+
+    private static final LocalDate REFERENCIA = LocalDate.of(2025, 1, 1);
+    private static final List<Simulacao.RegraAposentadoria> REGRAS = Arrays.asList(Simulacao.RegraAposentadoria.values());
+
+    @Test
+    void testHistogramasConsistentes() {
+        CarreirasColunares carreiras = carreiras(300);
+        RelatorioElegibilidade relatorio = new RelatorioElegibilidade(REGRAS, REFERENCIA, 2035, "teste");
+        for (int u = 0; u < carreiras.quantidadeUsuarios(); u++) {
+            registrar(relatorio, carreiras, u);
+        }
+
+        assertEquals(300, relatorio.getUsuarios());
+        for (int r = 0; r < REGRAS.size(); r++) {
+            long[] total = relatorio.total(r);
+            assertEquals(12, total.length);
+            assertEquals(300, Arrays.stream(total).sum());
+            assertArrayEquals(total, somar(relatorio.porSexo(r)));
+            assertArrayEquals(total, somar(relatorio.porOrgao(r)));
+            assertArrayEquals(total, somar(relatorio.porTipoServico(r)));
+        }
+
+        // Cada usuário conta no ano da primeira data em que cumpre a regra
+        int regra = REGRAS.indexOf(Simulacao.RegraAposentadoria.REGRA_TRANSICAO_PONTOS);
+        long[] esperado = new long[12];
+        for (int u = 0; u < carreiras.quantidadeUsuarios(); u++) {
+            LocalDate previsao = projecao(carreiras, u).calcularDataPrevisao(REGRAS.get(regra));
+            esperado[previsao == null || previsao.getYear() > 2035 ? 11 : previsao.getYear() - 2025]++;
+        }
+        assertArrayEquals(esperado, relatorio.total(regra));
+    }
+
+    @Test
+    void testSomaIgualAUmaPassada() {
+        CarreirasColunares carreiras = carreiras(200);
+        RelatorioElegibilidade unico = new RelatorioElegibilidade(REGRAS, REFERENCIA, 2030, "teste");
+        RelatorioElegibilidade primeiraMetade = unico.vazio();
+        RelatorioElegibilidade segundaMetade = unico.vazio();
+        for (int u = 0; u < carreiras.quantidadeUsuarios(); u++) {
+            registrar(unico, carreiras, u);
+            registrar(u < 100 ? primeiraMetade : segundaMetade, carreiras, u);
+        }
+        RelatorioElegibilidade somado = primeiraMetade.somar(segundaMetade);
+
+        assertEquals(unico.getUsuarios(), somado.getUsuarios());
+        for (int r = 0; r < REGRAS.size(); r++) {
+            assertArrayEquals(unico.total(r), somado.total(r));
+            assertEquals(unico.porOrgao(r).keySet(), somado.porOrgao(r).keySet());
+            for (String orgao : unico.porOrgao(r).keySet()) {
+                assertArrayEquals(unico.porOrgao(r).get(orgao), somado.porOrgao(r).get(orgao));
+            }
+        }
+    }
+
+    @Test
+    void testAnoFinalAnteriorAReferencia() {
+        assertThrows(IllegalArgumentException.class, () -> new RelatorioElegibilidade(REGRAS, REFERENCIA, 2024, "teste"));
+    }
+
+    private static void registrar(RelatorioElegibilidade relatorio, CarreirasColunares carreiras, int u) {
+        int ultimoVinculo = carreiras.ultimoVinculo(u);
+        relatorio.registrar(carreiras.usuario(u),
+                ultimoVinculo >= 0 ? carreiras.orgaoEmpregador(ultimoVinculo) : null,
+                ultimoVinculo >= 0 ? carreiras.tipoServico(ultimoVinculo) : null,
+                projecao(carreiras, u));
+    }
+
+    private static ProjecaoAposentadoria projecao(CarreirasColunares carreiras, int u) {
+        Usuario usuario = carreiras.usuario(u);
+        return new ProjecaoAposentadoria(RegrasAposentadoria.padrao(), usuario,
+                carreiras.agregar(u, ConvencaoTempo.LEGAL, null), REFERENCIA);
+    }
+
+    private static CarreirasColunares carreiras(int usuarios) {
+        String[] orgaos = {"Secretaria de Educação", "Secretaria de Saúde", "Tribunal"};
+        CarreirasColunares.Construtor construtor = new CarreirasColunares.Construtor();
+        for (int i = 1; i <= usuarios; i++) {
+            construtor.adicionarUsuario(i, i % 7 == 0 ? null : i % 2 == 0 ? "M" : "F",
+                    LocalDate.of(1958, 1, 1).plusDays(i * 41L), "Professor");
+            if (i % 10 == 0) {
+                // Usuário sem períodos
+                continue;
+            }
+            LocalDate inicio = LocalDate.of(1985, 1, 1).plusDays(i * 17L);
+            construtor.adicionarPeriodo(inicio, inicio.plusYears(8), PeriodoServico.TipoServico.CLT,
+                    null, "Empresa", null, false, false);
+            construtor.adicionarPeriodo(inicio.plusYears(8).plusDays(1), LocalDate.of(2030, 12, 31),
+                    i % 3 == 0 ? PeriodoServico.TipoServico.MAGISTERIO : PeriodoServico.TipoServico.ESTATUTARIO,
+                    "Professor", orgaos[i % orgaos.length], null, false, i % 5 == 0);
+        }
+        return construtor.construir();
+    }
+
+    private static long[] somar(Map<String, long[]> histogramas) {
+        long[] soma = new long[12];
+        histogramas.values().forEach(contagem -> {
+            for (int i = 0; i < contagem.length; i++) {
+                soma[i] += contagem[i];
+            }
+        });
+        return soma;
+    }
+}